@@ -22,7 +22,9 @@ import com.codahale.metrics.jmx.JmxReporter;
 import com.datastax.driver.core.AtomicMonotonicTimestampGenerator;
 import com.datastax.driver.core.Cluster;
 import com.datastax.driver.core.ClusterWidePercentileTracker;
+import com.datastax.driver.core.Host;
 import com.datastax.driver.core.HostDistance;
+import com.datastax.driver.core.LatencyTracker;
 import com.datastax.driver.core.PerHostPercentileTracker;
 import com.datastax.driver.core.PercentileTracker;
 import com.datastax.driver.core.PoolingOptions;
@@ -34,35 +36,59 @@ import com.datastax.driver.core.SocketOptions;
 import com.datastax.driver.core.ThreadLocalMonotonicTimestampGenerator;
 import com.datastax.driver.core.policies.ConstantReconnectionPolicy;
 import com.datastax.driver.core.policies.ConstantSpeculativeExecutionPolicy;
-import com.datastax.driver.core.policies.DCAwareRoundRobinPolicy;
 import com.datastax.driver.core.policies.DefaultRetryPolicy;
 import com.datastax.driver.core.policies.EC2MultiRegionAddressTranslator;
 import com.datastax.driver.core.policies.ExponentialReconnectionPolicy;
 import com.datastax.driver.core.policies.FallthroughRetryPolicy;
 import com.datastax.driver.core.policies.IdentityTranslator;
-import com.datastax.driver.core.policies.LatencyAwarePolicy;
 import com.datastax.driver.core.policies.LoadBalancingPolicy;
 import com.datastax.driver.core.policies.LoggingRetryPolicy;
 import com.datastax.driver.core.policies.NoSpeculativeExecutionPolicy;
 import com.datastax.driver.core.policies.PercentileSpeculativeExecutionPolicy;
 import com.datastax.driver.core.policies.ReconnectionPolicy;
 import com.datastax.driver.core.policies.RetryPolicy;
-import com.datastax.driver.core.policies.RoundRobinPolicy;
-import com.datastax.driver.core.policies.TokenAwarePolicy;
 import com.datastax.driver.mapping.Mapper;
 import com.datastax.driver.mapping.MappingManager;
 import com.datastax.driver.mapping.annotations.Accessor;
 import com.datastax.driver.mapping.annotations.Table;
-import com.fasterxml.jackson.core.JsonGenerator;
-import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.Module;
-import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.pingidentity.cassandra4j.CassandraConfigurationCustomizer;
 import com.pingidentity.cassandra4j.CassandraPostConfigurationCustomizer;
 import com.pingidentity.cassandra4j.springboot.CassandraProperties.ReconnectionPolicies;
 import com.pingidentity.cassandra4j.springboot.CassandraProperties.RetryPolicies;
+import com.pingidentity.cassandra4j.springboot.bootstrap.CassandraBootstrap;
+import com.pingidentity.cassandra4j.springboot.bootstrap.DeferredSession;
+import com.pingidentity.cassandra4j.springboot.health.CassandraBootstrapHealthIndicator;
 import com.pingidentity.cassandra4j.springboot.health.CassandraHealthIndicator;
+import com.pingidentity.cassandra4j.springboot.health.CassandraMetadataHealth;
+import com.pingidentity.cassandra4j.springboot.health.CassandraMetadataHealthIndicator;
+import com.pingidentity.cassandra4j.springboot.health.CassandraReactiveHealthIndicator;
+import com.pingidentity.cassandra4j.springboot.json.PagingIterableSerializer;
+import com.pingidentity.cassandra4j.springboot.limiter.AdaptiveConcurrencyLimit;
+import com.pingidentity.cassandra4j.springboot.limiter.InFlightLimiter;
+import com.pingidentity.cassandra4j.springboot.limiter.LimitedSession;
+import com.pingidentity.cassandra4j.springboot.mapping.AsyncMapper;
+import com.pingidentity.cassandra4j.springboot.mapping.BatchingMapper;
+import com.pingidentity.cassandra4j.springboot.mapping.CachedEntity;
+import com.pingidentity.cassandra4j.springboot.mapping.CachingMapper;
+import com.pingidentity.cassandra4j.springboot.mapping.CassandraCluster;
+import com.pingidentity.cassandra4j.springboot.mapping.ExecutionProfiles;
+import com.pingidentity.cassandra4j.springboot.mapping.MappingWarmup;
+import com.pingidentity.cassandra4j.springboot.metrics.CassandraMetricsBinder;
+import com.pingidentity.cassandra4j.springboot.metrics.EntityCacheMetricsBinder;
+import com.pingidentity.cassandra4j.springboot.metrics.InFlightLimiterMetricsBinder;
+import com.pingidentity.cassandra4j.springboot.metrics.LoadBalancingMetricsBinder;
+import com.pingidentity.cassandra4j.springboot.metrics.PreparedStatementCacheMetricsBinder;
+import com.pingidentity.cassandra4j.springboot.policies.LeastOutstandingPolicy;
+import com.pingidentity.cassandra4j.springboot.policies.LoadBalancingChain;
+import com.pingidentity.cassandra4j.springboot.reactive.ReactiveCassandraSession;
+import com.pingidentity.cassandra4j.springboot.scan.TokenRangeScanner;
+import com.pingidentity.cassandra4j.springboot.statements.PreparedStatementCache;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.beans.factory.ObjectProvider;
@@ -78,21 +104,42 @@ import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.context.EnvironmentAware;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.env.Environment;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.UrlResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
 import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.util.ClassUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static com.pingidentity.cassandra4j.springboot.CassandraProperties.AddressTranslator.EC2;
 import static com.pingidentity.cassandra4j.springboot.CassandraProperties.AddressTranslator.IDENTITY;
@@ -112,6 +159,22 @@ import static com.pingidentity.cassandra4j.springboot.utils.StringUtils.split;
 public class CassandraAutoConfiguration implements BeanDefinitionRegistryPostProcessor, EnvironmentAware
 {
     public static final String DATASTAX_MAPPER_FACTORY_BEAN = "datastaxMapperFactory";
+    public static final String SCAN_INDEX_LOCATION = "META-INF/cassandra4j.index";
+    public static final String CASSANDRA_WARMUP_BEAN = "cassandraWarmup";
+    public static final String CLUSTERS_PREFIX = "cassandra.clusters";
+
+    //bean name suffixes of named clusters, e.g. 'analyticsSession'
+    public static final String CLUSTER_SUFFIX = "Cluster";
+    public static final String SESSION_SUFFIX = "Session";
+    public static final String MAPPINGS_SUFFIX = "Mappings";
+    public static final String MAPPER_FACTORY_SUFFIX = "MapperFactory";
+
+    //bean name suffixes of additional keyspace sessions, e.g. 'auditKeyspaceSession'
+    public static final String KEYSPACE_SESSION_SUFFIX = "KeyspaceSession";
+    public static final String KEYSPACE_MAPPINGS_SUFFIX = "KeyspaceMappings";
+    public static final String KEYSPACE_MAPPER_FACTORY_SUFFIX = "KeyspaceMapperFactory";
+
+    private static final Logger log = LoggerFactory.getLogger(CassandraAutoConfiguration.class);
 
     private Environment env;
     private List<CassandraPostConfigurationCustomizer> postCustomizers;
@@ -120,25 +183,69 @@ public class CassandraAutoConfiguration implements BeanDefinitionRegistryPostPro
     @ConditionalOnMissingBean
     @ConditionalOnProperty("cassandra.contact-points")
     @Bean
-    public MappingManager cassandraMappings(Session session)
+    public MappingManager cassandraMappings(Session session, CassandraProperties props)
+    {
+        return mappingManager(session, props);
+    }
+
+    private static MappingManager mappingManager(Session session, CassandraProperties props)
     {
+        if (props.getBootstrapMode() == CassandraProperties.BootstrapMode.ASYNC && props.getProtocolVersion() != null)
+        {
+            //avoid waiting for background cluster initialization to negotiate protocol version
+            return new MappingManager(session, ProtocolVersion.fromInt(props.getProtocolVersion()));
+        }
+
         return new MappingManager(session);
     }
 
     @ConditionalOnMissingBean
     @ConditionalOnProperty("cassandra.contact-points")
     @Bean(DATASTAX_MAPPER_FACTORY_BEAN)
-    public MapperFactory mapperFactory(MappingManager manager)
+    public MapperFactory mapperFactory(MappingManager manager, CassandraProperties props, ExecutionProfiles profiles)
+    {
+        return new MapperFactory(manager, props, profiles);
+    }
+
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty("cassandra.contact-points")
+    @Bean
+    public ExecutionProfiles cassandraExecutionProfiles(CassandraProperties props)
     {
-        return new MapperFactory(manager);
+        return new ExecutionProfiles(props.getProfiles());
     }
 
     @ConditionalOnMissingBean
     @ConditionalOnProperty("cassandra.contact-points")
+    @Lazy
     @Bean(destroyMethod = "close")
-    public Session session(Cluster cluster, CassandraProperties props)
+    public TokenRangeScanner tokenRangeScanner(Session session, MappingManager manager, CassandraProperties props)
     {
-        return cluster.connect(props.getKeyspaceName());
+        CassandraProperties.TableScanOptions scan = props.getTableScan() != null
+                ? props.getTableScan()
+                : new CassandraProperties.TableScanOptions();
+
+        return new TokenRangeScanner(session, manager, scan.getConcurrency(), scan.getMinSplits(), scan.getFetchSize());
+    }
+
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty("cassandra.contact-points")
+    @Bean(destroyMethod = "close")
+    public Session session(Cluster cluster, CassandraProperties props, ObjectProvider<InFlightLimiter> limiter,
+                           ObjectProvider<CassandraBootstrap> bootstrap, ObjectProvider<AdaptiveConcurrencyLimit> adaptiveLimit)
+    {
+        CassandraBootstrap cassandraBootstrap = bootstrap.getIfAvailable();
+
+        Session session = cassandraBootstrap != null
+                ? new DeferredSession(cluster, cassandraBootstrap)
+                : cluster.connect(props.getKeyspaceName());
+
+        trackInFlight(cluster, cassandraBootstrap != null ? cassandraBootstrap.session() : CompletableFuture.completedFuture(session),
+                      adaptiveLimit.getIfAvailable());
+
+        InFlightLimiter inFlightLimiter = limiter.getIfAvailable();
+
+        return inFlightLimiter != null ? new LimitedSession(session, inFlightLimiter) : session;
     }
 
     @ConditionalOnMissingBean
@@ -146,11 +253,41 @@ public class CassandraAutoConfiguration implements BeanDefinitionRegistryPostPro
     @Bean(destroyMethod = "close")
     public Cluster cluster(CassandraProperties props,
                            ObjectProvider<List<CassandraPostConfigurationCustomizer>> postCustomizersProvider,
-                           ObjectProvider<List<CassandraConfigurationCustomizer>> customizersProvider)
+                           ObjectProvider<List<CassandraConfigurationCustomizer>> customizersProvider,
+                           ObjectProvider<AdaptiveConcurrencyLimit> adaptiveLimitProvider)
     {
         postCustomizers = postCustomizersProvider.getIfAvailable();
         customizers = customizersProvider.getIfAvailable();
 
+        Cluster.Builder builder = clusterBuilder(props);
+
+        //apply custom client side customizations
+        Cluster cluster = customize(builder, customizers).build();
+
+        log.info("Cassandra cluster '{}' load balancing policy: {}", cluster.getClusterName(),
+                 LoadBalancingChain.describe(cluster.getConfiguration().getPolicies().getLoadBalancingPolicy()));
+
+        //feed adaptive in-flight limit with observed latencies
+        AdaptiveConcurrencyLimit adaptiveLimit = adaptiveLimitProvider.getIfAvailable();
+
+        if (adaptiveLimit != null)
+        {
+            cluster.register((LatencyTracker) adaptiveLimit);
+            cluster.register((Host.StateListener) adaptiveLimit);
+        }
+
+        if (props.getBootstrapMode() == CassandraProperties.BootstrapMode.ASYNC)
+        {
+            //initialized in background by cassandraBootstrap
+            return cluster;
+        }
+
+        //init cluster & post init customization
+        return postCustomize(cluster.init(), postCustomizers);
+    }
+
+    private Cluster.Builder clusterBuilder(CassandraProperties props)
+    {
         Cluster.Builder builder = Cluster.builder()
                                          .withClusterName(props.getClusterName());
 
@@ -295,46 +432,8 @@ public class CassandraAutoConfiguration implements BeanDefinitionRegistryPostPro
             }
         }
 
-        LoadBalancingPolicy loadBalancingPolicy = null;
-
-        // Configure the DC aware load balancing policy.
-        if (CassandraProperties.LoadBalancingPolicies.DC_AWARE.equals(props.getLoadBalancingPolicy()) && props.getDcaware()!=null)
-        {
-            DCAwareRoundRobinPolicy.Builder dcBuilder = new DCAwareRoundRobinPolicy.Builder()
-                    .withLocalDc(props.getDcaware().getLocalDc())
-                    .withUsedHostsPerRemoteDc(props.getDcaware().getUsedHostsPerRemoteDc());
-
-            if (props.getDcaware().isAllowRemoteDcsForLocalConsistencyLevel())
-            {
-                dcBuilder.allowRemoteDCsForLocalConsistencyLevel();
-            }
-
-            loadBalancingPolicy = dcBuilder.build();
-        }
-        // Configure a generic Round Robin load balancing policy as the child of the latency aware.
-        else if (CassandraProperties.LoadBalancingPolicies.ROUND_ROBIN.equals(props.getLoadBalancingPolicy()))
-        {
-            loadBalancingPolicy = new RoundRobinPolicy();
-        }
-
-        // If a wrapper load balancing policy is defined, configure it here.
-        if (loadBalancingPolicy != null)
-        {
-            if (props.getLatencyaware() != null)
-            {
-                loadBalancingPolicy = new LatencyAwarePolicy.Builder(loadBalancingPolicy)
-                        .withExclusionThreshold(props.getLatencyaware().getExclusionThreshold())
-                        .withMininumMeasurements(props.getLatencyaware().getMinimumMeasurements())
-                        .withRetryPeriod(props.getLatencyaware().getRetryPeriod(), TimeUnit.MILLISECONDS)
-                        .withScale(props.getLatencyaware().getScale(), TimeUnit.MILLISECONDS)
-                        .withUpdateRate(props.getLatencyaware().getUpdateRate(), TimeUnit.MILLISECONDS)
-                        .build();
-            }
-            else if (props.getTokenaware() !=null && props.getTokenaware().isEnabled())
-            {
-                loadBalancingPolicy = new TokenAwarePolicy(loadBalancingPolicy, props.getTokenaware().getReplicaOrdering());
-            }
-        }
+        // Configure load balancing policy stack, e.g. token aware over latency aware over DC aware.
+        LoadBalancingPolicy loadBalancingPolicy = new LoadBalancingChain(props).build();
 
         if (loadBalancingPolicy != null)
         {
@@ -503,14 +602,39 @@ public class CassandraAutoConfiguration implements BeanDefinitionRegistryPostPro
         // we providing customizer bean for post configuration if enabled later
         builder.withoutJMXReporting();
 
-        //apply custom client side customizations & init cluster
-        Cluster cluster = customize(builder).build().init();
+        return builder;
+    }
 
-        //post init customization
-        return postCustomize(cluster);
+    /**
+     * Named {@code cassandra.clusters.<name>.*} cluster, always initialized synchronously.
+     */
+    private Cluster namedCluster(String name, CassandraProperties props, DefaultListableBeanFactory beanFactory)
+    {
+        //bound properties are left intact, cluster is named after its key unless cluster-name is set
+        Cluster.Builder builder = clusterBuilder(props).withClusterName(props.getClusterName() != null ? props.getClusterName() : name);
+
+        Cluster cluster = customize(builder, beanFactory.getBeanProvider(CassandraConfigurationCustomizer.class)
+                                                        .orderedStream()
+                                                        .collect(Collectors.toList())).build();
+
+        log.info("Cassandra cluster '{}' load balancing policy: {}", cluster.getClusterName(),
+                 LoadBalancingChain.describe(cluster.getConfiguration().getPolicies().getLoadBalancingPolicy()));
+
+        return postCustomize(cluster.init(), beanFactory.getBeanProvider(CassandraPostConfigurationCustomizer.class)
+                                                        .orderedStream()
+                                                        .collect(Collectors.toList()));
     }
 
-    private Cluster.Builder customize(Cluster.Builder builder)
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(value = "cassandra.bootstrap-mode", havingValue = "async")
+    @Bean(destroyMethod = "close")
+    public CassandraBootstrap cassandraBootstrap(Cluster cluster, CassandraProperties props)
+    {
+        //post init customizers can't replace cluster instance already exposed as bean
+        return new CassandraBootstrap(cluster, props.getKeyspaceName(), c -> postCustomize(c, postCustomizers));
+    }
+
+    private Cluster.Builder customize(Cluster.Builder builder, List<CassandraConfigurationCustomizer> customizers)
     {
         Cluster.Builder result = builder;
 
@@ -525,7 +649,7 @@ public class CassandraAutoConfiguration implements BeanDefinitionRegistryPostPro
         return result;
     }
 
-    private Cluster postCustomize(Cluster cluster)
+    private Cluster postCustomize(Cluster cluster, List<CassandraPostConfigurationCustomizer> postCustomizers)
     {
         Cluster result = cluster;
 
@@ -575,69 +699,166 @@ public class CassandraAutoConfiguration implements BeanDefinitionRegistryPostPro
     @Bean
     @ConditionalOnMissingBean(name="iterableSerializer")
     @ConditionalOnProperty("cassandra.contact-points")
-    public Module iterableSerializer()
+    public Module iterableSerializer(CassandraProperties props)
     {
-        return new SimpleModule("java.lang.Iterable").addSerializer(Iterable.class, new JsonSerializer<Iterable>()
-        {
-            @Override
-            public void serialize(Iterable value, JsonGenerator gen, SerializerProvider serializers) throws IOException
-            {
-                serializers.findValueSerializer(Iterator.class, null)
-                           .serialize(value.iterator(), gen, serializers);
-            }
-        });
-    }
+        CassandraProperties.JsonOptions json = props.getJson() != null ? props.getJson() : new CassandraProperties.JsonOptions();
 
+        return new SimpleModule("java.lang.Iterable").addSerializer(Iterable.class, new PagingIterableSerializer(json.getPrefetchRows(), json.isFlushPerPage()));
+    }
 
     @Override
     public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) throws BeansException
     {
         String[] packagesToScan = split(property(env, "cassandra.scanPackages", "cassandra.scan-packages"));
         String[] contactPoints = split(property(env, "cassandra.contactPoints", "cassandra.contact-points"));
+        boolean batching = Boolean.parseBoolean(property(env, "cassandra.batching.enabled"));
+        boolean warmup = Boolean.parseBoolean(property(env, "cassandra.warmup.enabled"));
+        boolean async = CassandraProperties.BootstrapMode.ASYNC.name().equalsIgnoreCase(property(env, "cassandra.bootstrapMode", "cassandra.bootstrap-mode"));
+        boolean primary = contactPoints.length > 0;
+
+        Map<String, CassandraProperties> clusters = Binder.get(env)
+                                                          .bind(CLUSTERS_PREFIX, Bindable.mapOf(String.class, CassandraProperties.class))
+                                                          .orElseGet(Collections::emptyMap);
 
-        if(contactPoints.length == 0)
+        if (!primary && clusters.isEmpty())
         {
             //no cassandra configuration, skipping
             return;
         }
 
-        if (packagesToScan.length == 0)
+        final DefaultListableBeanFactory beanFactory = (DefaultListableBeanFactory) registry;
+        final ClassLoader classLoader = beanFactory.getBeanClassLoader();
+
+        //one cluster, session, mapping manager & mapper factory per named cluster
+        for (Map.Entry<String, CassandraProperties> cluster : clusters.entrySet())
         {
-            //no scan package defined, skipping
-            return;
+            registerNamedCluster(cluster.getKey(), cluster.getValue(), beanFactory);
         }
 
-        final DefaultListableBeanFactory beanFactory = (DefaultListableBeanFactory) registry;
+        //additional keyspaces share primary cluster, default keyspace stays with primary session
+        Set<String> keyspaces = new HashSet<>();
+        Map<String, String> keyspaceRoutes = new HashMap<>();
 
-        ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(false)
+        if (primary)
         {
-            //accept interfaces as bean definition
-            @Override
-            protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition)
+            String keyspaceName = property(env, "cassandra.keyspaceName", "cassandra.keyspace-name");
+
+            for (String keyspace : split(property(env, "cassandra.keyspaces")))
             {
-                return beanDefinition.getMetadata().isIndependent();
+                if (!keyspace.equals(keyspaceName) && keyspaces.add(keyspace))
+                {
+                    registerKeyspaceSession(keyspace, beanFactory);
+                }
             }
-        };
 
-        provider.addIncludeFilter(new AnnotationTypeFilter(Table.class, true, false)); //@Table on classes
-        provider.addIncludeFilter(new AnnotationTypeFilter(Accessor.class, true, true)); //@Accessor on interfaces
+            Map<String, String> keyspacePackages = Binder.get(env)
+                                                         .bind("cassandra.keyspace-packages", Bindable.mapOf(String.class, String.class))
+                                                         .orElseGet(Collections::emptyMap);
+
+            for (Map.Entry<String, String> keyspace : keyspacePackages.entrySet())
+            {
+                if (!keyspaces.contains(keyspace.getKey()) && !keyspace.getKey().equals(keyspaceName))
+                {
+                    throw new BeanCreationException("cassandra.keyspace-packages." + keyspace.getKey() + " refers to keyspace not listed in cassandra.keyspaces");
+                }
+
+                for (String targetPackage : split(keyspace.getValue()))
+                {
+                    keyspaceRoutes.put(targetPackage, keyspace.getKey());
+                }
+            }
+        }
 
-        Set<BeanDefinition> allBeans = new HashSet<>();
+        if (primary && async && warmup && registry.containsBeanDefinition(CASSANDRA_WARMUP_BEAN))
+        {
+            //warm-up is created with first mapper or accessor instead of blocking context startup
+            registry.getBeanDefinition(CASSANDRA_WARMUP_BEAN).setLazyInit(true);
+        }
 
-        //get all matching resources
-        for (String targetPackage : packagesToScan)
+        if (primary && (!clusters.isEmpty() || !keyspaces.isEmpty()))
         {
-            if(!targetPackage.isEmpty())
+            //unqualified injection points get primary cluster and its default keyspace session
+            for (String name : new String[] {"cluster", "session", "cassandraMappings", DATASTAX_MAPPER_FACTORY_BEAN})
             {
-                allBeans.addAll(provider.findCandidateComponents(targetPackage));
+                if (registry.containsBeanDefinition(name))
+                {
+                    registry.getBeanDefinition(name).setPrimary(true);
+                }
+            }
+        }
+
+        //packages routed to named clusters are scanned as well, longest package match wins
+        Map<String, String> packageRoutes = new HashMap<>();
+
+        if (primary)
+        {
+            for (String targetPackage : packagesToScan)
+            {
+                packageRoutes.put(targetPackage, null);
             }
         }
 
+        for (String targetPackage : keyspaceRoutes.keySet())
+        {
+            packageRoutes.putIfAbsent(targetPackage, null);
+        }
+
+        for (Map.Entry<String, CassandraProperties> cluster : clusters.entrySet())
+        {
+            for (String targetPackage : split(cluster.getValue().getScanPackages()))
+            {
+                packageRoutes.put(targetPackage, cluster.getKey());
+            }
+        }
+
+        if (packageRoutes.isEmpty())
+        {
+            //no scan package defined, skipping
+            return;
+        }
+
+        String[] allPackages = packageRoutes.keySet().toArray(new String[0]);
+
+        //entity caching requires caffeine
+        boolean caching = ClassUtils.isPresent("com.github.benmanes.caffeine.cache.Caffeine", classLoader);
+        CassandraProperties.CacheOptions cache = Binder.get(env)
+                                                       .bind("cassandra.cache", CassandraProperties.CacheOptions.class)
+                                                       .orElseGet(CassandraProperties.CacheOptions::new);
+
+        String scanIndexEnabled = property(env, "cassandra.scanIndexEnabled", "cassandra.scan-index-enabled");
+
+        //prefer build time index over classpath scanning
+        Set<String> allBeans = scanIndexEnabled == null || Boolean.parseBoolean(scanIndexEnabled) ? readIndex(allPackages, classLoader) : null;
+
+        if (allBeans == null)
+        {
+            allBeans = scan(allPackages, classLoader);
+        }
+
         try
         {
-            for (BeanDefinition bd : allBeans)
+            for (String className : allBeans)
             {
-                Class targetClass = Class.forName(bd.getBeanClassName());
+                Class targetClass = ClassUtils.forName(className, classLoader);
+                String clusterName = clusterOf(targetClass, packageRoutes);
+
+                if (clusterName == null ? !primary : !clusters.containsKey(clusterName))
+                {
+                    throw new BeanCreationException(className + " is bound to unknown cassandra cluster " + (clusterName == null ? "(primary)" : "'" + clusterName + "'"));
+                }
+
+                CassandraProperties named = clusterName != null ? clusters.get(clusterName) : null;
+                String keyspace = named == null ? keyspaceOf(targetClass, keyspaces, keyspaceRoutes) : null;
+                String factoryBeanName = clusterName != null ? clusterName + MAPPER_FACTORY_SUFFIX
+                        : keyspaces.contains(keyspace) ? keyspace + KEYSPACE_MAPPER_FACTORY_SUFFIX
+                        : DATASTAX_MAPPER_FACTORY_BEAN;
+
+                //warm-up covers primary cluster only, keyspace routed beans are warmed with their keyspace factory
+                boolean warmupBean = warmup && named == null;
+                //mappers & accessors read cluster metadata, so they wait for background initialization only when actually used
+                boolean lazyBean = async && named == null;
+                boolean batchingBean = named == null ? batching : named.getBatching() != null && named.getBatching().isEnabled();
+                CassandraProperties.CacheOptions cacheOptions = named == null ? cache : named.getCache() != null ? named.getCache() : new CassandraProperties.CacheOptions();
 
                 if (targetClass.isInterface() && targetClass.getAnnotation(Accessor.class) != null)
                 {
@@ -645,13 +866,19 @@ public class CassandraAutoConfiguration implements BeanDefinitionRegistryPostPro
                     RootBeanDefinition accessorBeanDefinition = new RootBeanDefinition(targetClass);
 
                     accessorBeanDefinition.setTargetType(ResolvableType.forClass(targetClass));
-                    accessorBeanDefinition.setFactoryBeanName(DATASTAX_MAPPER_FACTORY_BEAN);
+                    accessorBeanDefinition.setFactoryBeanName(factoryBeanName);
                     accessorBeanDefinition.setFactoryMethodName("newAccessor");
                     accessorBeanDefinition.setScope(BeanDefinition.SCOPE_SINGLETON);
+                    accessorBeanDefinition.setLazyInit(lazyBean);
                     accessorBeanDefinition.getConstructorArgumentValues().addIndexedArgumentValue(0, targetClass);
 
+                    if (warmupBean)
+                    {
+                        accessorBeanDefinition.setDependsOn(CASSANDRA_WARMUP_BEAN);
+                    }
+
                     String beanName = decapitalize(
-                            simpleClassName(bd.getBeanClassName())) + "Accessor";
+                            simpleClassName(className)) + "Accessor";
 
                     beanFactory.registerBeanDefinition(beanName, accessorBeanDefinition);
                 }
@@ -661,15 +888,64 @@ public class CassandraAutoConfiguration implements BeanDefinitionRegistryPostPro
                     RootBeanDefinition mapperBeanDefinition = new RootBeanDefinition();
 
                     mapperBeanDefinition.setTargetType(ResolvableType.forClassWithGenerics(Mapper.class, targetClass));
-                    mapperBeanDefinition.setFactoryBeanName(DATASTAX_MAPPER_FACTORY_BEAN);
+                    mapperBeanDefinition.setFactoryBeanName(factoryBeanName);
                     mapperBeanDefinition.setFactoryMethodName("newMapper");
                     mapperBeanDefinition.setScope(BeanDefinition.SCOPE_SINGLETON);
+                    mapperBeanDefinition.setLazyInit(lazyBean);
                     mapperBeanDefinition.getConstructorArgumentValues().addIndexedArgumentValue(0, targetClass);
 
+                    if (warmupBean)
+                    {
+                        mapperBeanDefinition.setDependsOn(CASSANDRA_WARMUP_BEAN);
+                    }
+
                     String beanName = decapitalize(
-                            simpleClassName(bd.getBeanClassName())) + "Mapper";
+                            simpleClassName(className)) + "Mapper";
 
                     beanFactory.registerBeanDefinition(beanName, mapperBeanDefinition);
+
+                    //register CompletionStage based async mapper alongside
+                    RootBeanDefinition asyncMapperBeanDefinition = new RootBeanDefinition();
+
+                    asyncMapperBeanDefinition.setTargetType(ResolvableType.forClassWithGenerics(AsyncMapper.class, targetClass));
+                    asyncMapperBeanDefinition.setFactoryBeanName(factoryBeanName);
+                    asyncMapperBeanDefinition.setFactoryMethodName("newAsyncMapper");
+                    asyncMapperBeanDefinition.setScope(BeanDefinition.SCOPE_SINGLETON);
+                    asyncMapperBeanDefinition.setLazyInit(lazyBean);
+                    asyncMapperBeanDefinition.getConstructorArgumentValues().addIndexedArgumentValue(0, targetClass);
+
+                    beanFactory.registerBeanDefinition(decapitalize(simpleClassName(className)) + "AsyncMapper", asyncMapperBeanDefinition);
+
+                    if (batchingBean)
+                    {
+                        //register partition batching mapper
+                        RootBeanDefinition batchingMapperBeanDefinition = new RootBeanDefinition();
+
+                        batchingMapperBeanDefinition.setTargetType(ResolvableType.forClassWithGenerics(BatchingMapper.class, targetClass));
+                        batchingMapperBeanDefinition.setFactoryBeanName(factoryBeanName);
+                        batchingMapperBeanDefinition.setFactoryMethodName("newBatchingMapper");
+                        batchingMapperBeanDefinition.setScope(BeanDefinition.SCOPE_SINGLETON);
+                        batchingMapperBeanDefinition.setLazyInit(lazyBean);
+                        batchingMapperBeanDefinition.setDestroyMethodName("close");
+                        batchingMapperBeanDefinition.getConstructorArgumentValues().addIndexedArgumentValue(0, targetClass);
+
+                        beanFactory.registerBeanDefinition(decapitalize(simpleClassName(className)) + "BatchingMapper", batchingMapperBeanDefinition);
+                    }
+
+                    if (caching && (targetClass.getAnnotation(CachedEntity.class) != null || MapperFactory.entityCacheOptions(cacheOptions, targetClass) != null))
+                    {
+                        //register read-through caching mapper
+                        RootBeanDefinition cachingMapperBeanDefinition = new RootBeanDefinition();
+
+                        cachingMapperBeanDefinition.setTargetType(ResolvableType.forClassWithGenerics(CachingMapper.class, targetClass));
+                        cachingMapperBeanDefinition.setFactoryBeanName(factoryBeanName);
+                        cachingMapperBeanDefinition.setFactoryMethodName("newCachingMapper");
+                        cachingMapperBeanDefinition.setScope(BeanDefinition.SCOPE_SINGLETON);
+                        cachingMapperBeanDefinition.setLazyInit(lazyBean);
+                        cachingMapperBeanDefinition.getConstructorArgumentValues().addIndexedArgumentValue(0, targetClass);
+
+                        beanFactory.registerBeanDefinition(decapitalize(simpleClassName(className)) + "CachingMapper", cachingMapperBeanDefinition);
+                    }
                 }
             }
         }
@@ -679,6 +955,215 @@ public class CassandraAutoConfiguration implements BeanDefinitionRegistryPostPro
         }
     }
 
+    private void registerNamedCluster(String name, CassandraProperties props, DefaultListableBeanFactory beanFactory)
+    {
+        RootBeanDefinition cluster = new RootBeanDefinition(Cluster.class, () -> namedCluster(name, props, beanFactory));
+        cluster.setDestroyMethodName("close");
+        beanFactory.registerBeanDefinition(name + CLUSTER_SUFFIX, cluster);
+
+        RootBeanDefinition session = new RootBeanDefinition(Session.class, () ->
+        {
+            Cluster namedCluster = beanFactory.getBean(name + CLUSTER_SUFFIX, Cluster.class);
+            Session namedSession = namedCluster.connect(props.getKeyspaceName());
+
+            trackInFlight(namedCluster, CompletableFuture.completedFuture(namedSession), null);
+
+            return namedSession;
+        });
+        session.setDestroyMethodName("close");
+        beanFactory.registerBeanDefinition(name + SESSION_SUFFIX, session);
+
+        beanFactory.registerBeanDefinition(name + MAPPINGS_SUFFIX, new RootBeanDefinition(MappingManager.class,
+                () -> mappingManager(beanFactory.getBean(name + SESSION_SUFFIX, Session.class), props)));
+
+        beanFactory.registerBeanDefinition(name + MAPPER_FACTORY_SUFFIX, new RootBeanDefinition(MapperFactory.class,
+                () -> new MapperFactory(beanFactory.getBean(name + MAPPINGS_SUFFIX, MappingManager.class), props, new ExecutionProfiles(props.getProfiles()))));
+    }
+
+    private void registerKeyspaceSession(String keyspace, DefaultListableBeanFactory beanFactory)
+    {
+        RootBeanDefinition session = new RootBeanDefinition(Session.class, () -> keyspaceSession(keyspace, beanFactory));
+        session.setDestroyMethodName("close");
+        beanFactory.registerBeanDefinition(keyspace + KEYSPACE_SESSION_SUFFIX, session);
+
+        beanFactory.registerBeanDefinition(keyspace + KEYSPACE_MAPPINGS_SUFFIX, new RootBeanDefinition(MappingManager.class,
+                () -> mappingManager(beanFactory.getBean(keyspace + KEYSPACE_SESSION_SUFFIX, Session.class), beanFactory.getBean(CassandraProperties.class))));
+
+        beanFactory.registerBeanDefinition(keyspace + KEYSPACE_MAPPER_FACTORY_SUFFIX, new RootBeanDefinition(MapperFactory.class, () ->
+        {
+            CassandraProperties props = beanFactory.getBean(CassandraProperties.class);
+
+            return new MapperFactory(beanFactory.getBean(keyspace + KEYSPACE_MAPPINGS_SUFFIX, MappingManager.class), props,
+                                     beanFactory.getBean(ExecutionProfiles.class));
+        }));
+    }
+
+    private Session keyspaceSession(String keyspace, DefaultListableBeanFactory beanFactory)
+    {
+        Cluster cluster = beanFactory.getBean(Cluster.class);
+        CassandraBootstrap cassandraBootstrap = beanFactory.getBeanProvider(CassandraBootstrap.class).getIfAvailable();
+
+        //own connection pools, but cluster metadata, control connection and driver threads are shared
+        CompletableFuture<Session> connected = cassandraBootstrap != null
+                ? cassandraBootstrap.session(keyspace)
+                : CompletableFuture.completedFuture(cluster.connect(keyspace));
+        Session session = cassandraBootstrap != null ? new DeferredSession(cluster, connected) : connected.join();
+
+        trackInFlight(cluster, connected, beanFactory.getBeanProvider(AdaptiveConcurrencyLimit.class).getIfAvailable());
+
+        //in-flight limit is shared by all sessions of the cluster
+        InFlightLimiter inFlightLimiter = beanFactory.getBeanProvider(InFlightLimiter.class).getIfAvailable();
+
+        return inFlightLimiter != null ? new LimitedSession(session, inFlightLimiter) : session;
+    }
+
+    /**
+     * Least outstanding load balancing and adaptive in-flight limit compare hosts by in-flight requests of all sessions of the cluster.
+     */
+    private static void trackInFlight(Cluster cluster, CompletionStage<Session> session, AdaptiveConcurrencyLimit adaptiveLimit)
+    {
+        if (adaptiveLimit != null)
+        {
+            session.thenAccept(adaptiveLimit::addSession);
+        }
+
+        LeastOutstandingPolicy leastOutstanding = LoadBalancingChain.find(cluster.getConfiguration().getPolicies().getLoadBalancingPolicy(),
+                                                                          LeastOutstandingPolicy.class);
+
+        if (leastOutstanding != null)
+        {
+            session.thenAccept(leastOutstanding::addSession);
+        }
+    }
+
+    /**
+     * @return additional keyspace entity or accessor is bound to, either by {@link Table#keyspace()} or package, null for default keyspace
+     */
+    private static String keyspaceOf(Class<?> type, Set<String> keyspaces, Map<String, String> keyspaceRoutes)
+    {
+        Table table = type.getAnnotation(Table.class);
+
+        if (table != null && !table.keyspace().isEmpty())
+        {
+            //mapper qualifies queries with keyspace on its own, other keyspaces are fine on default session
+            return keyspaces.contains(table.keyspace()) ? table.keyspace() : null;
+        }
+
+        String route = null;
+        int matched = -1;
+
+        for (Map.Entry<String, String> entry : keyspaceRoutes.entrySet())
+        {
+            if (type.getName().startsWith(entry.getKey() + ".") && entry.getKey().length() > matched)
+            {
+                route = entry.getValue();
+                matched = entry.getKey().length();
+            }
+        }
+
+        return route;
+    }
+
+    /**
+     * @return name of the cluster entity or accessor is bound to, null for primary cluster
+     */
+    private static String clusterOf(Class<?> type, Map<String, String> packageRoutes)
+    {
+        CassandraCluster annotation = type.getAnnotation(CassandraCluster.class);
+
+        if (annotation != null)
+        {
+            return annotation.value();
+        }
+
+        String route = null;
+        int matched = -1;
+
+        for (Map.Entry<String, String> entry : packageRoutes.entrySet())
+        {
+            if (type.getName().startsWith(entry.getKey() + ".") && entry.getKey().length() > matched)
+            {
+                route = entry.getValue();
+                matched = entry.getKey().length();
+            }
+        }
+
+        return route;
+    }
+
+    private Set<String> scan(String[] packagesToScan, ClassLoader classLoader)
+    {
+        ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(false)
+        {
+            //accept interfaces as bean definition
+            @Override
+            protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition)
+            {
+                return beanDefinition.getMetadata().isIndependent();
+            }
+        };
+
+        provider.setResourceLoader(new DefaultResourceLoader(classLoader));
+        provider.addIncludeFilter(new AnnotationTypeFilter(Table.class, true, false)); //@Table on classes
+        provider.addIncludeFilter(new AnnotationTypeFilter(Accessor.class, true, true)); //@Accessor on interfaces
+
+        Set<String> allBeans = new HashSet<>();
+
+        //get all matching resources
+        for (String targetPackage : packagesToScan)
+        {
+            if(!targetPackage.isEmpty())
+            {
+                for (BeanDefinition bd : provider.findCandidateComponents(targetPackage))
+                {
+                    allBeans.add(bd.getBeanClassName());
+                }
+            }
+        }
+
+        return allBeans;
+    }
+
+    /**
+     * @return classes from build time index (see spring-boot-cassandra-processor) within scan packages, null when no index found
+     */
+    private Set<String> readIndex(String[] packagesToScan, ClassLoader classLoader)
+    {
+        try
+        {
+            Enumeration<URL> resources = classLoader.getResources(SCAN_INDEX_LOCATION);
+
+            if (!resources.hasMoreElements())
+            {
+                return null;
+            }
+
+            Set<String> allBeans = new HashSet<>();
+
+            while (resources.hasMoreElements())
+            {
+                Properties index = PropertiesLoaderUtils.loadProperties(new UrlResource(resources.nextElement()));
+
+                for (String className : index.stringPropertyNames())
+                {
+                    for (String targetPackage : packagesToScan)
+                    {
+                        if (!targetPackage.isEmpty() && className.startsWith(targetPackage + "."))
+                        {
+                            allBeans.add(className);
+                        }
+                    }
+                }
+            }
+
+            return allBeans;
+        }
+        catch (IOException e)
+        {
+            throw new BeanCreationException("Unable to read " + SCAN_INDEX_LOCATION, e);
+        }
+    }
+
     private String property(Environment env, String ... candidates)
     {
         for (String name: candidates)
@@ -697,17 +1182,229 @@ public class CassandraAutoConfiguration implements BeanDefinitionRegistryPostPro
     @Override
     public void postProcessBeanFactory(ConfigurableListableBeanFactory configurableListableBeanFactory) throws BeansException {}
 
+    @Configuration
+    @ConditionalOnClass(Caffeine.class)
+    @ConditionalOnProperty("cassandra.contact-points")
+    protected static class CassandraStatementCacheConfig
+    {
+        @Bean
+        @ConditionalOnMissingBean
+        public PreparedStatementCache preparedStatementCache(Session session, CassandraProperties props)
+        {
+            CassandraProperties.QueryPolicyOptions query = props.getQuery() != null
+                    ? props.getQuery()
+                    : new CassandraProperties.QueryPolicyOptions();
+
+            return new PreparedStatementCache(session, query.getStatementCacheMaxSize(), query.getStatementCacheExpireAfterAccessMs());
+        }
+
+        @Configuration
+        @ConditionalOnClass(MeterBinder.class)
+        protected static class CassandraStatementCacheMetricsConfig
+        {
+            @Bean
+            @ConditionalOnMissingBean
+            public PreparedStatementCacheMetricsBinder preparedStatementCacheMetricsBinder(PreparedStatementCache cache)
+            {
+                return new PreparedStatementCacheMetricsBinder(cache);
+            }
+        }
+    }
+
+    @Configuration
+    @ConditionalOnClass({Caffeine.class, MeterBinder.class})
+    @ConditionalOnProperty("cassandra.contact-points")
+    protected static class CassandraEntityCacheMetricsConfig
+    {
+        @Bean
+        @ConditionalOnMissingBean
+        public EntityCacheMetricsBinder entityCacheMetricsBinder(ObjectProvider<CachingMapper<?>> mappers, ObjectProvider<CassandraBootstrap> bootstrap)
+        {
+            CassandraBootstrap cassandraBootstrap = bootstrap.getIfAvailable();
+            CompletionStage<?> initialized = cassandraBootstrap != null ? cassandraBootstrap.session() : CompletableFuture.completedFuture(null);
+
+            return new EntityCacheMetricsBinder(() -> mappers.orderedStream().collect(Collectors.toList()), initialized);
+        }
+    }
+
     @Configuration
     @ConditionalOnClass(Endpoint.class)
     @ConditionalOnProperty("cassandra.contact-points")
     protected static class CassandraHealthConfig
     {
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnEnabledHealthIndicator("cassandraBootstrap")
+        @ConditionalOnProperty(value = "cassandra.bootstrap-mode", havingValue = "async")
+        public CassandraBootstrapHealthIndicator cassandraBootstrapHealthIndicator(CassandraBootstrap bootstrap)
+        {
+            return new CassandraBootstrapHealthIndicator(bootstrap);
+        }
+
         @Bean
         @ConditionalOnMissingBean
         @ConditionalOnEnabledHealthIndicator("cassandra")
+        @ConditionalOnProperty(value = "cassandra.health.mode", havingValue = "query", matchIfMissing = true)
         public CassandraHealthIndicator cassandraHealthIndicator(Session session)
         {
             return new CassandraHealthIndicator(session);
         }
+
+        @Configuration
+        @ConditionalOnEnabledHealthIndicator("cassandra")
+        @ConditionalOnProperty(value = "cassandra.health.mode", havingValue = "metadata")
+        protected static class CassandraMetadataHealthConfig
+        {
+            @Configuration
+            @ConditionalOnClass(Mono.class)
+            @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+            protected static class CassandraReactiveHealthConfig
+            {
+                @Bean
+                @ConditionalOnMissingBean(name = "cassandraHealthIndicator")
+                public CassandraReactiveHealthIndicator cassandraHealthIndicator(CassandraMetadataHealth health)
+                {
+                    return new CassandraReactiveHealthIndicator(health);
+                }
+            }
+
+            @Bean
+            @ConditionalOnMissingBean(name = "cassandraHealthIndicator")
+            public CassandraMetadataHealthIndicator cassandraHealthIndicator(CassandraMetadataHealth health)
+            {
+                return new CassandraMetadataHealthIndicator(health);
+            }
+
+            @Bean(destroyMethod = "close")
+            @ConditionalOnMissingBean
+            public CassandraMetadataHealth cassandraMetadataHealth(Cluster cluster, Session session, CassandraProperties props)
+            {
+                CassandraProperties.HealthOptions health = props.getHealth();
+                String localDc = props.getDcaware() != null ? props.getDcaware().getLocalDc() : null;
+
+                return new CassandraMetadataHealth(cluster, session, props.getKeyspaceName(), localDc,
+                                                   health.getRefreshIntervalMs(), health.getTtlMs(), health.isRequireLocalQuorum());
+            }
+        }
+    }
+
+    @Configuration
+    @ConditionalOnClass(MeterBinder.class)
+    @ConditionalOnProperty("cassandra.contact-points")
+    protected static class CassandraMetricsConfig
+    {
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnProperty(value = "cassandra.micrometer-reporting-enabled", matchIfMissing = true)
+        public CassandraMetricsBinder cassandraMetricsBinder(Cluster cluster, Session session, CassandraProperties props,
+                                                             ObjectProvider<CassandraBootstrap> bootstrap)
+        {
+            CassandraProperties.MicrometerOptions micrometer = props.getMicrometer() != null
+                    ? props.getMicrometer()
+                    : new CassandraProperties.MicrometerOptions();
+
+            CassandraBootstrap cassandraBootstrap = bootstrap.getIfAvailable();
+
+            //bind meters once cluster is initialized in background
+            CompletionStage<?> initialized = cassandraBootstrap != null ? cassandraBootstrap.session() : CompletableFuture.completedFuture(null);
+
+            return new CassandraMetricsBinder(cluster, session, micrometer.getPercentiles(), micrometer.isPerHostEnabled(), initialized);
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnProperty(value = "cassandra.micrometer-reporting-enabled", matchIfMissing = true)
+        public LoadBalancingMetricsBinder cassandraLoadBalancingMetricsBinder(Cluster cluster, ObjectProvider<CassandraBootstrap> bootstrap)
+        {
+            CassandraBootstrap cassandraBootstrap = bootstrap.getIfAvailable();
+            CompletionStage<?> initialized = cassandraBootstrap != null ? cassandraBootstrap.session() : CompletableFuture.completedFuture(null);
+
+            return new LoadBalancingMetricsBinder(cluster, initialized);
+        }
+    }
+
+    @Configuration
+    @ConditionalOnClass(Flux.class)
+    @ConditionalOnProperty("cassandra.contact-points")
+    protected static class CassandraReactiveConfig
+    {
+        @Bean
+        @ConditionalOnMissingBean
+        public ReactiveCassandraSession reactiveCassandraSession(Session session)
+        {
+            return new ReactiveCassandraSession(session);
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty({"cassandra.contact-points", "cassandra.limiter.enabled"})
+    protected static class CassandraLimiterConfig
+    {
+        @Bean(destroyMethod = "close")
+        @ConditionalOnMissingBean
+        public InFlightLimiter cassandraInFlightLimiter(CassandraProperties props, ObjectProvider<AdaptiveConcurrencyLimit> adaptiveLimit)
+        {
+            InFlightLimiter limiter = new InFlightLimiter(props.getLimiter());
+
+            adaptiveLimit.ifAvailable(limit -> limit.attach(limiter));
+
+            return limiter;
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnProperty(value = "cassandra.limiter.mode", havingValue = "adaptive")
+        public AdaptiveConcurrencyLimit cassandraAdaptiveConcurrencyLimit(CassandraProperties props)
+        {
+            return new AdaptiveConcurrencyLimit(props.getLimiter());
+        }
+
+        @Configuration
+        @ConditionalOnClass(MeterBinder.class)
+        protected static class CassandraLimiterMetricsConfig
+        {
+            @Bean
+            @ConditionalOnMissingBean
+            public InFlightLimiterMetricsBinder inFlightLimiterMetricsBinder(InFlightLimiter limiter)
+            {
+                return new InFlightLimiterMetricsBinder(limiter);
+            }
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty({"cassandra.contact-points", "cassandra.warmup.enabled"})
+    protected static class CassandraWarmupConfig
+    {
+        @Bean(CASSANDRA_WARMUP_BEAN)
+        @ConditionalOnMissingBean(name = CASSANDRA_WARMUP_BEAN)
+        public MappingWarmup cassandraWarmup(ConfigurableListableBeanFactory beanFactory, CassandraProperties props)
+        {
+            Map<MapperFactory, List<Class<?>>> mappers = new LinkedHashMap<>();
+            Map<MapperFactory, List<Class<?>>> accessors = new LinkedHashMap<>();
+
+            //collect auto registered mappers & accessors waiting for warm-up, grouped by factory of their session
+            for (String name : beanFactory.getBeanDefinitionNames())
+            {
+                BeanDefinition bd = beanFactory.getBeanDefinition(name);
+
+                if (bd.getDependsOn() != null && Arrays.asList(bd.getDependsOn()).contains(CASSANDRA_WARMUP_BEAN))
+                {
+                    Class<?> type = (Class<?>) bd.getConstructorArgumentValues().getIndexedArgumentValue(0, Class.class).getValue();
+                    MapperFactory factory = beanFactory.getBean(bd.getFactoryBeanName(), MapperFactory.class);
+
+                    if ("newMapper".equals(bd.getFactoryMethodName()))
+                    {
+                        mappers.computeIfAbsent(factory, f -> new ArrayList<>()).add(type);
+                    }
+                    else if ("newAccessor".equals(bd.getFactoryMethodName()))
+                    {
+                        accessors.computeIfAbsent(factory, f -> new ArrayList<>()).add(type);
+                    }
+                }
+            }
+
+            return new MappingWarmup(mappers, accessors, props.getWarmup());
+        }
     }
 }
@@ -23,15 +23,23 @@ import com.datastax.driver.core.ProtocolOptions;
 import com.datastax.driver.core.policies.TokenAwarePolicy.ReplicaOrdering;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @ConfigurationProperties("cassandra")
 public class CassandraProperties
 {
     public enum LoadBalancingPolicies { DC_AWARE, ROUND_ROBIN }
+    public enum LoadBalancingLayer { SLOW_START, LEAST_OUTSTANDING, TOKEN_AWARE, LATENCY_AWARE, RACK_AWARE, DC_AWARE, ROUND_ROBIN }
     public enum RetryPolicies { DEFAULT, FALLTHROUGH }
     public enum ReconnectionPolicies { CONSTANT, EXPONENTIAL }
     public enum AddressTranslator { IDENTITY, EC2 }
     public enum TimestampGenerator { SERVER_SIDE, ATOMIC, THREAD_LOCAL }
     public enum SpeculativeExecution { NONE, CONSTANT, PERCENTILE}
+    public enum HealthCheckMode { QUERY, METADATA }
+    public enum LimiterMode { STATIC, ADAPTIVE }
+    public enum BootstrapMode { SYNC, ASYNC }
 
     /**
      * Name of cluster
@@ -43,6 +51,16 @@ public class CassandraProperties
      */
     private String keyspaceName;
 
+    /**
+     * Additional keyspaces, comma separated. Every keyspace gets own session on the shared cluster.
+     */
+    private String keyspaces;
+
+    /**
+     * Packages of mappers and accessors bound to additional keyspace sessions, comma separated per keyspace
+     */
+    private Map<String, String> keyspacePackages = new HashMap<>();
+
     /**
      *  List of cluster contact points, comma separated
      */
@@ -78,6 +96,11 @@ public class CassandraProperties
      */
     private Integer maxSchemaAgreementWaitSeconds;
 
+    /**
+     * Cluster initialization: SYNC blocks context startup, ASYNC initializes cluster in background
+     */
+    private BootstrapMode bootstrapMode = BootstrapMode.SYNC;
+
     /**
      * Client-side timestamp generator strategy
      */
@@ -107,9 +130,17 @@ public class CassandraProperties
      * Load-balancing strategy.
      */
     private LoadBalancingPolicies loadBalancingPolicy;
+
+    /**
+     * Load balancing policy stack, outermost layer first, ends with base policy
+     */
+    private List<LoadBalancingLayer> loadBalancingChain;
     private DcAwarePolicy dcaware;
     private LatencyAwarePolicy latencyaware;
     private TokenAwarePolicy tokenaware;
+    private RackAwarePolicy rackaware;
+    private LeastOutstandingPolicy leastoutstanding;
+    private SlowStartPolicy slowstart;
     private SocketOptions socket;
     private PoolOptions pool;
     private RetryPolicyOptions retry;
@@ -126,11 +157,35 @@ public class CassandraProperties
      */
     private boolean jmxReportingEnabled=true;
 
+    /**
+     * Metrics reporting over Micrometer
+     */
+    private boolean micrometerReportingEnabled=true;
+    private MicrometerOptions micrometer;
+    private HealthOptions health;
+    private BatchingOptions batching;
+    private LimiterOptions limiter;
+    private WarmupOptions warmup;
+    private JsonOptions json;
+    private CacheOptions cache;
+    private TableScanOptions tableScan;
+    private MultiGetOptions multiGet;
+
+    /**
+     * Named execution profiles applied with @ExecutionProfile annotation
+     */
+    private Map<String, ProfileOptions> profiles = new HashMap<>();
+
     /**
      * Packages to scan for mappers and accessors, comma separated.
      */
     private String scanPackages;
 
+    /**
+     * Use build time index of mappers and accessors (META-INF/cassandra4j.index) instead of classpath scanning when present.
+     */
+    private boolean scanIndexEnabled = true;
+
     public static class Generator
     {
         /**
@@ -264,6 +319,16 @@ public class CassandraProperties
          */
         private Integer maxPendingRefreshNodeRequests;
 
+        /**
+         * Max number of prepared statements kept in statement cache
+         */
+        private long statementCacheMaxSize = 1000;
+
+        /**
+         * Expire cached prepared statements after last access, ms
+         */
+        private Long statementCacheExpireAfterAccessMs;
+
         public ConsistencyLevel getConsistencyLevel()
         {
             return consistencyLevel;
@@ -393,6 +458,26 @@ public class CassandraProperties
         {
             this.maxPendingRefreshNodeRequests = maxPendingRefreshNodeRequests;
         }
+
+        public long getStatementCacheMaxSize()
+        {
+            return statementCacheMaxSize;
+        }
+
+        public void setStatementCacheMaxSize(long statementCacheMaxSize)
+        {
+            this.statementCacheMaxSize = statementCacheMaxSize;
+        }
+
+        public Long getStatementCacheExpireAfterAccessMs()
+        {
+            return statementCacheExpireAfterAccessMs;
+        }
+
+        public void setStatementCacheExpireAfterAccessMs(Long statementCacheExpireAfterAccessMs)
+        {
+            this.statementCacheExpireAfterAccessMs = statementCacheExpireAfterAccessMs;
+        }
     }
 
     public static class ReconnectionPolicyOptions
@@ -899,65 +984,133 @@ public class CassandraProperties
         }
     }
 
-    public static class DcAwarePolicy
+    public static class MicrometerOptions
     {
         /**
-         * Name of the "local" data center
+         * Request latency percentiles to publish
          */
-        private String localDc;
+        private double[] percentiles = {0.5, 0.75, 0.95, 0.99, 0.999};
 
         /**
-         * Number of hosts per remote data center to consider
+         * Per host connection and in-flight requests gauges
          */
-        private int usedHostsPerRemoteDc;
+        private boolean perHostEnabled = true;
+
+        public double[] getPercentiles()
+        {
+            return percentiles;
+        }
 
+        public void setPercentiles(double[] percentiles)
+        {
+            this.percentiles = percentiles;
+        }
+
+        public boolean isPerHostEnabled()
+        {
+            return perHostEnabled;
+        }
+
+        public void setPerHostEnabled(boolean perHostEnabled)
+        {
+            this.perHostEnabled = perHostEnabled;
+        }
+    }
+
+    public static class HealthOptions
+    {
         /**
-         * Return remote hosts for query plans with LOCAL levels
+         * Health check strategy: probing query or cluster metadata
          */
-        private boolean allowRemoteDcsForLocalConsistencyLevel;
+        private HealthCheckMode mode = HealthCheckMode.QUERY;
 
-        public String getLocalDc()
+        /**
+         * Background health refresh interval for METADATA mode, ms
+         */
+        private long refreshIntervalMs = 5000;
+
+        /**
+         * Max age of cached health result for METADATA mode, ms
+         */
+        private long ttlMs = 15000;
+
+        /**
+         * Report DOWN when LOCAL_QUORUM is not achievable for the keyspace
+         */
+        private boolean requireLocalQuorum = true;
+
+        public HealthCheckMode getMode()
         {
-            return localDc;
+            return mode;
         }
 
-        public void setLocalDc(String localDc)
+        public void setMode(HealthCheckMode mode)
         {
-            this.localDc = localDc;
+            this.mode = mode;
         }
 
-        public int getUsedHostsPerRemoteDc()
+        public long getRefreshIntervalMs()
         {
-            return usedHostsPerRemoteDc;
+            return refreshIntervalMs;
         }
 
-        public void setUsedHostsPerRemoteDc(int usedHostsPerRemoteDc)
+        public void setRefreshIntervalMs(long refreshIntervalMs)
         {
-            this.usedHostsPerRemoteDc = usedHostsPerRemoteDc;
+            this.refreshIntervalMs = refreshIntervalMs;
         }
 
-        public boolean isAllowRemoteDcsForLocalConsistencyLevel()
+        public long getTtlMs()
         {
-            return allowRemoteDcsForLocalConsistencyLevel;
+            return ttlMs;
         }
 
-        public void setAllowRemoteDcsForLocalConsistencyLevel(boolean allowRemoteDcsForLocalConsistencyLevel)
+        public void setTtlMs(long ttlMs)
         {
-            this.allowRemoteDcsForLocalConsistencyLevel = allowRemoteDcsForLocalConsistencyLevel;
+            this.ttlMs = ttlMs;
+        }
+
+        public boolean isRequireLocalQuorum()
+        {
+            return requireLocalQuorum;
+        }
+
+        public void setRequireLocalQuorum(boolean requireLocalQuorum)
+        {
+            this.requireLocalQuorum = requireLocalQuorum;
         }
     }
 
-    public static class TokenAwarePolicy
+    public static class BatchingOptions
     {
         /**
-         * Token awareness for load balancing policy
+         * Register BatchingMapper beans for scanned entities
          */
-        private boolean enabled;
+        private boolean enabled = false;
+
+        /**
+         * Max number of statements in single partition batch
+         */
+        private int maxStatements = 50;
+
+        /**
+         * Max estimated batch size in bytes, keep below cassandra batch_size_warn_threshold_in_kb
+         */
+        private int maxBytes = 5120;
+
+        /**
+         * Max time save can wait in buffer before flush, ms
+         */
+        private long flushIntervalMs = 10;
 
         /**
-         * Replica ordering
+         * Max number of buffered and in flight saves per mapper
          */
-        private ReplicaOrdering replicaOrdering = ReplicaOrdering.RANDOM;
+        private int maxPending = 10000;
+
+        /**
+         * Max time blocking save waits for buffer space before rejection, ms
+         */
+        private long pendingTimeoutMs = 1000;
 
         public boolean isEnabled()
         {
@@ -969,159 +1122,853 @@ public class CassandraProperties
             this.enabled = enabled;
         }
 
-        public ReplicaOrdering getReplicaOrdering()
+        public int getMaxStatements()
         {
-            return replicaOrdering;
+            return maxStatements;
         }
 
-        public void setReplicaOrdering(ReplicaOrdering replicaOrdering)
+        public void setMaxStatements(int maxStatements)
         {
-            this.replicaOrdering = replicaOrdering;
+            this.maxStatements = maxStatements;
+        }
+
+        public int getMaxBytes()
+        {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(int maxBytes)
+        {
+            this.maxBytes = maxBytes;
+        }
+
+        public long getFlushIntervalMs()
+        {
+            return flushIntervalMs;
+        }
+
+        public void setFlushIntervalMs(long flushIntervalMs)
+        {
+            this.flushIntervalMs = flushIntervalMs;
+        }
+
+        public int getMaxPending()
+        {
+            return maxPending;
+        }
+
+        public void setMaxPending(int maxPending)
+        {
+            this.maxPending = maxPending;
+        }
+
+        public long getPendingTimeoutMs()
+        {
+            return pendingTimeoutMs;
+        }
+
+        public void setPendingTimeoutMs(long pendingTimeoutMs)
+        {
+            this.pendingTimeoutMs = pendingTimeoutMs;
         }
     }
 
-    public static class LatencyAwarePolicy
+    public static class LimiterOptions
     {
         /**
-         * Exclusion threshold
+         * Wrap session with client side in-flight requests limiter
          */
-        private double exclusionThreshold;
+        private boolean enabled = false;
 
         /**
-         * Minimum number of measurements to consider, per host
+         * Max number of concurrently executing requests per session
          */
-        private int minimumMeasurements;
+        private int maxInFlight = 1024;
 
         /**
-         * Retry period, ms
+         * Max number of requests waiting for in-flight permit, requests above are rejected immediately
          */
-        private long retryPeriod;
+        private int maxQueueSize = 1024;
 
         /**
-         * Scale, ms
+         * Max time request can wait for in-flight permit before rejection, ms
          */
-        private long scale;
+        private long queueTimeoutMs = 500;
 
         /**
-         * Update rate, ms
+         * Limit mode: fixed max in-flight or adaptive, adjusted by observed per host latencies
          */
-        private long updateRate;
+        private LimiterMode mode = LimiterMode.STATIC;
 
-        public double getExclusionThreshold()
+        /**
+         * Adaptive mode: initial per host concurrency limit
+         */
+        private int initialLimitPerHost = 32;
+
+        /**
+         * Adaptive mode: min per host concurrency limit
+         */
+        private int minLimitPerHost = 4;
+
+        /**
+         * Adaptive mode: max per host concurrency limit
+         */
+        private int maxLimitPerHost = 512;
+
+        /**
+         * Adaptive mode: weight of new limit estimation, 0..1
+         */
+        private double smoothing = 0.2;
+
+        public boolean isEnabled()
         {
-            return exclusionThreshold;
+            return enabled;
         }
 
-        public void setExclusionThreshold(double exclusionThreshold)
+        public void setEnabled(boolean enabled)
         {
-            this.exclusionThreshold = exclusionThreshold;
+            this.enabled = enabled;
         }
 
-        public int getMinimumMeasurements()
+        public int getMaxInFlight()
         {
-            return minimumMeasurements;
+            return maxInFlight;
         }
 
-        public void setMinimumMeasurements(int minimumMeasurements)
+        public void setMaxInFlight(int maxInFlight)
         {
-            this.minimumMeasurements = minimumMeasurements;
+            this.maxInFlight = maxInFlight;
         }
 
-        public long getRetryPeriod()
+        public int getMaxQueueSize()
         {
-            return retryPeriod;
+            return maxQueueSize;
         }
 
-        public void setRetryPeriod(long retryPeriod)
+        public void setMaxQueueSize(int maxQueueSize)
         {
-            this.retryPeriod = retryPeriod;
+            this.maxQueueSize = maxQueueSize;
         }
 
-        public long getScale()
+        public long getQueueTimeoutMs()
         {
-            return scale;
+            return queueTimeoutMs;
         }
 
-        public void setScale(long scale)
+        public void setQueueTimeoutMs(long queueTimeoutMs)
         {
-            this.scale = scale;
+            this.queueTimeoutMs = queueTimeoutMs;
         }
 
-        public long getUpdateRate()
+        public LimiterMode getMode()
         {
-            return updateRate;
+            return mode;
         }
 
-        public void setUpdateRate(long updateRate)
+        public void setMode(LimiterMode mode)
         {
-            this.updateRate = updateRate;
+            this.mode = mode;
         }
-    }
-
-    public String getClusterName()
-    {
-        return clusterName;
-    }
 
-    public void setClusterName(String clusterName)
-    {
-        this.clusterName = clusterName;
-    }
+        public int getInitialLimitPerHost()
+        {
+            return initialLimitPerHost;
+        }
 
-    public String getKeyspaceName()
-    {
-        return keyspaceName;
-    }
+        public void setInitialLimitPerHost(int initialLimitPerHost)
+        {
+            this.initialLimitPerHost = initialLimitPerHost;
+        }
 
-    public void setKeyspaceName(String keyspaceName)
-    {
-        this.keyspaceName = keyspaceName;
-    }
+        public int getMinLimitPerHost()
+        {
+            return minLimitPerHost;
+        }
 
-    public String[] getContactPoints()
-    {
-        return contactPoints;
-    }
+        public void setMinLimitPerHost(int minLimitPerHost)
+        {
+            this.minLimitPerHost = minLimitPerHost;
+        }
 
-    public void setContactPoints(String[] contactPoints)
-    {
-        this.contactPoints = contactPoints;
-    }
+        public int getMaxLimitPerHost()
+        {
+            return maxLimitPerHost;
+        }
 
-    public Integer getPort()
-    {
-        return port;
-    }
+        public void setMaxLimitPerHost(int maxLimitPerHost)
+        {
+            this.maxLimitPerHost = maxLimitPerHost;
+        }
 
-    public void setPort(Integer port)
-    {
-        this.port = port;
-    }
+        public double getSmoothing()
+        {
+            return smoothing;
+        }
 
-    public Integer getProtocolVersion()
-    {
-        return protocolVersion;
+        public void setSmoothing(double smoothing)
+        {
+            this.smoothing = smoothing;
+        }
     }
 
-    public void setProtocolVersion(Integer protocolVersion)
+    public static class WarmupOptions
     {
-        this.protocolVersion = protocolVersion;
-    }
+        /**
+         * Instantiate mappers and accessors and prepare their statements at startup
+         */
+        private boolean enabled = false;
 
-    public ProtocolOptions.Compression getCompression()
-    {
-        return compression;
-    }
+        /**
+         * Max number of statements prepared concurrently
+         */
+        private int parallelism = 4;
 
-    public void setCompression(ProtocolOptions.Compression compression)
-    {
-        this.compression = compression;
-    }
+        /**
+         * Max time to wait for warm-up completion, ms
+         */
+        private long timeoutMs = 60000;
 
-    public Auth getAuth()
-    {
-        return auth;
-    }
+        public boolean isEnabled()
+        {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled)
+        {
+            this.enabled = enabled;
+        }
+
+        public int getParallelism()
+        {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism)
+        {
+            this.parallelism = parallelism;
+        }
+
+        public long getTimeoutMs()
+        {
+            return timeoutMs;
+        }
+
+        public void setTimeoutMs(long timeoutMs)
+        {
+            this.timeoutMs = timeoutMs;
+        }
+    }
+
+    public static class JsonOptions
+    {
+        /**
+         * Flush JSON output of driver results once per page
+         */
+        private boolean flushPerPage = true;
+
+        /**
+         * Request next page of driver result when that many rows left unread in the current one, 0 disables prefetch
+         */
+        private int prefetchRows = 100;
+
+        public boolean isFlushPerPage()
+        {
+            return flushPerPage;
+        }
+
+        public void setFlushPerPage(boolean flushPerPage)
+        {
+            this.flushPerPage = flushPerPage;
+        }
+
+        public int getPrefetchRows()
+        {
+            return prefetchRows;
+        }
+
+        public void setPrefetchRows(int prefetchRows)
+        {
+            this.prefetchRows = prefetchRows;
+        }
+    }
+
+    public static class CacheOptions
+    {
+        /**
+         * Default max number of cached entities per entity class
+         */
+        private long maximumSize = 10000;
+
+        /**
+         * Default time to live of cached entity since load, ms
+         */
+        private long ttlMs = 60000;
+
+        /**
+         * Per entity limits keyed by entity simple class name, entities listed here are cached even without @CachedEntity
+         */
+        private Map<String, EntityCacheOptions> entities = new HashMap<>();
+
+        public long getMaximumSize()
+        {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize)
+        {
+            this.maximumSize = maximumSize;
+        }
+
+        public long getTtlMs()
+        {
+            return ttlMs;
+        }
+
+        public void setTtlMs(long ttlMs)
+        {
+            this.ttlMs = ttlMs;
+        }
+
+        public Map<String, EntityCacheOptions> getEntities()
+        {
+            return entities;
+        }
+
+        public void setEntities(Map<String, EntityCacheOptions> entities)
+        {
+            this.entities = entities;
+        }
+    }
+
+    public static class EntityCacheOptions
+    {
+        /**
+         * Max number of cached entities
+         */
+        private Long maximumSize;
+
+        /**
+         * Time to live of cached entity since load, ms
+         */
+        private Long ttlMs;
+
+        public Long getMaximumSize()
+        {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(Long maximumSize)
+        {
+            this.maximumSize = maximumSize;
+        }
+
+        public Long getTtlMs()
+        {
+            return ttlMs;
+        }
+
+        public void setTtlMs(Long ttlMs)
+        {
+            this.ttlMs = ttlMs;
+        }
+    }
+
+    public static class TableScanOptions
+    {
+        /**
+         * Max number of token subranges scanned concurrently
+         */
+        private int concurrency = 4;
+
+        /**
+         * Min number of subranges token ring is split into
+         */
+        private int minSplits = 64;
+
+        /**
+         * Page size of subrange queries, cluster default when omitted
+         */
+        private Integer fetchSize;
+
+        public int getConcurrency()
+        {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency)
+        {
+            this.concurrency = concurrency;
+        }
+
+        public int getMinSplits()
+        {
+            return minSplits;
+        }
+
+        public void setMinSplits(int minSplits)
+        {
+            this.minSplits = minSplits;
+        }
+
+        public Integer getFetchSize()
+        {
+            return fetchSize;
+        }
+
+        public void setFetchSize(Integer fetchSize)
+        {
+            this.fetchSize = fetchSize;
+        }
+    }
+
+    public static class MultiGetOptions
+    {
+        /**
+         * Max number of reads in flight per getAll call
+         */
+        private int concurrency = 32;
+
+        /**
+         * Fetch keys owned by same replica set with single IN query, single column primary keys only
+         */
+        private boolean groupByReplica = false;
+
+        /**
+         * Max number of keys per grouped IN query
+         */
+        private int maxGroupSize = 10;
+
+        public int getConcurrency()
+        {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency)
+        {
+            this.concurrency = concurrency;
+        }
+
+        public boolean isGroupByReplica()
+        {
+            return groupByReplica;
+        }
+
+        public void setGroupByReplica(boolean groupByReplica)
+        {
+            this.groupByReplica = groupByReplica;
+        }
+
+        public int getMaxGroupSize()
+        {
+            return maxGroupSize;
+        }
+
+        public void setMaxGroupSize(int maxGroupSize)
+        {
+            this.maxGroupSize = maxGroupSize;
+        }
+    }
+
+    public static class ProfileOptions
+    {
+        /**
+         * Consistency level, cluster default when omitted
+         */
+        private ConsistencyLevel consistencyLevel;
+
+        /**
+         * Serial consistency level of conditional updates, cluster default when omitted
+         */
+        private ConsistencyLevel serialConsistencyLevel;
+
+        /**
+         * Read timeout in milliseconds, socket read timeout when omitted
+         */
+        private Integer readTimeoutMs;
+
+        /**
+         * Page size, cluster default when omitted
+         */
+        private Integer fetchSize;
+
+        /**
+         * Whether statements are idempotent (thus can be retried and speculatively executed), cluster default when omitted
+         */
+        private Boolean idempotent;
+
+        public ConsistencyLevel getConsistencyLevel()
+        {
+            return consistencyLevel;
+        }
+
+        public void setConsistencyLevel(ConsistencyLevel consistencyLevel)
+        {
+            this.consistencyLevel = consistencyLevel;
+        }
+
+        public ConsistencyLevel getSerialConsistencyLevel()
+        {
+            return serialConsistencyLevel;
+        }
+
+        public void setSerialConsistencyLevel(ConsistencyLevel serialConsistencyLevel)
+        {
+            this.serialConsistencyLevel = serialConsistencyLevel;
+        }
+
+        public Integer getReadTimeoutMs()
+        {
+            return readTimeoutMs;
+        }
+
+        public void setReadTimeoutMs(Integer readTimeoutMs)
+        {
+            this.readTimeoutMs = readTimeoutMs;
+        }
+
+        public Integer getFetchSize()
+        {
+            return fetchSize;
+        }
+
+        public void setFetchSize(Integer fetchSize)
+        {
+            this.fetchSize = fetchSize;
+        }
+
+        public Boolean getIdempotent()
+        {
+            return idempotent;
+        }
+
+        public void setIdempotent(Boolean idempotent)
+        {
+            this.idempotent = idempotent;
+        }
+    }
+
+    public static class DcAwarePolicy
+    {
+        /**
+         * Name of the "local" data center
+         */
+        private String localDc;
+
+        /**
+         * Number of hosts per remote data center to consider
+         */
+        private int usedHostsPerRemoteDc;
+
+        /**
+         * Return remote hosts for query plans with LOCAL levels
+         */
+        private boolean allowRemoteDcsForLocalConsistencyLevel;
+
+        public String getLocalDc()
+        {
+            return localDc;
+        }
+
+        public void setLocalDc(String localDc)
+        {
+            this.localDc = localDc;
+        }
+
+        public int getUsedHostsPerRemoteDc()
+        {
+            return usedHostsPerRemoteDc;
+        }
+
+        public void setUsedHostsPerRemoteDc(int usedHostsPerRemoteDc)
+        {
+            this.usedHostsPerRemoteDc = usedHostsPerRemoteDc;
+        }
+
+        public boolean isAllowRemoteDcsForLocalConsistencyLevel()
+        {
+            return allowRemoteDcsForLocalConsistencyLevel;
+        }
+
+        public void setAllowRemoteDcsForLocalConsistencyLevel(boolean allowRemoteDcsForLocalConsistencyLevel)
+        {
+            this.allowRemoteDcsForLocalConsistencyLevel = allowRemoteDcsForLocalConsistencyLevel;
+        }
+    }
+
+    public static class RackAwarePolicy
+    {
+        /**
+         * Name of the local rack (availability zone)
+         */
+        private String localRack;
+
+        /**
+         * Detect local rack from EC2 instance availability zone when not configured
+         */
+        private boolean detectEc2Zone = false;
+
+        public String getLocalRack()
+        {
+            return localRack;
+        }
+
+        public void setLocalRack(String localRack)
+        {
+            this.localRack = localRack;
+        }
+
+        public boolean isDetectEc2Zone()
+        {
+            return detectEc2Zone;
+        }
+
+        public void setDetectEc2Zone(boolean detectEc2Zone)
+        {
+            this.detectEc2Zone = detectEc2Zone;
+        }
+    }
+
+    public static class LeastOutstandingPolicy
+    {
+        /**
+         * Time host is demoted for after client timeout or overload, ms
+         */
+        private long penaltyMs = 1000;
+
+        /**
+         * How long snapshot of session in-flight requests is reused, ms
+         */
+        private long stateRefreshMs = 5;
+
+        public long getPenaltyMs()
+        {
+            return penaltyMs;
+        }
+
+        public void setPenaltyMs(long penaltyMs)
+        {
+            this.penaltyMs = penaltyMs;
+        }
+
+        public long getStateRefreshMs()
+        {
+            return stateRefreshMs;
+        }
+
+        public void setStateRefreshMs(long stateRefreshMs)
+        {
+            this.stateRefreshMs = stateRefreshMs;
+        }
+    }
+
+    public static class SlowStartPolicy
+    {
+        /**
+         * Time to ramp up host that came up to its full share of traffic, ms
+         */
+        private long windowMs = 60000;
+
+        /**
+         * Initial share of traffic of host that came up, 0..1
+         */
+        private double minWeight = 0.1;
+
+        public long getWindowMs()
+        {
+            return windowMs;
+        }
+
+        public void setWindowMs(long windowMs)
+        {
+            this.windowMs = windowMs;
+        }
+
+        public double getMinWeight()
+        {
+            return minWeight;
+        }
+
+        public void setMinWeight(double minWeight)
+        {
+            this.minWeight = minWeight;
+        }
+    }
+
+    public static class TokenAwarePolicy
+    {
+        /**
+         * Token awareness for load balancing policy
+         */
+        private boolean enabled;
+
+        /**
+         * Replica ordering, RANDOM when omitted (NEUTRAL when latency aware or rack aware layer is below token aware)
+         */
+        private ReplicaOrdering replicaOrdering;
+
+        public boolean isEnabled()
+        {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled)
+        {
+            this.enabled = enabled;
+        }
+
+        public ReplicaOrdering getReplicaOrdering()
+        {
+            return replicaOrdering;
+        }
+
+        public void setReplicaOrdering(ReplicaOrdering replicaOrdering)
+        {
+            this.replicaOrdering = replicaOrdering;
+        }
+    }
+
+    public static class LatencyAwarePolicy
+    {
+        /**
+         * Exclusion threshold
+         */
+        private double exclusionThreshold;
+
+        /**
+         * Minimum number of measurements to consider, per host
+         */
+        private int minimumMeasurements;
+
+        /**
+         * Retry period, ms
+         */
+        private long retryPeriod;
+
+        /**
+         * Scale, ms
+         */
+        private long scale;
+
+        /**
+         * Update rate, ms
+         */
+        private long updateRate;
+
+        public double getExclusionThreshold()
+        {
+            return exclusionThreshold;
+        }
+
+        public void setExclusionThreshold(double exclusionThreshold)
+        {
+            this.exclusionThreshold = exclusionThreshold;
+        }
+
+        public int getMinimumMeasurements()
+        {
+            return minimumMeasurements;
+        }
+
+        public void setMinimumMeasurements(int minimumMeasurements)
+        {
+            this.minimumMeasurements = minimumMeasurements;
+        }
+
+        public long getRetryPeriod()
+        {
+            return retryPeriod;
+        }
+
+        public void setRetryPeriod(long retryPeriod)
+        {
+            this.retryPeriod = retryPeriod;
+        }
+
+        public long getScale()
+        {
+            return scale;
+        }
+
+        public void setScale(long scale)
+        {
+            this.scale = scale;
+        }
+
+        public long getUpdateRate()
+        {
+            return updateRate;
+        }
+
+        public void setUpdateRate(long updateRate)
+        {
+            this.updateRate = updateRate;
+        }
+    }
+
+    public String getClusterName()
+    {
+        return clusterName;
+    }
+
+    public void setClusterName(String clusterName)
+    {
+        this.clusterName = clusterName;
+    }
+
+    public String getKeyspaceName()
+    {
+        return keyspaceName;
+    }
+
+    public void setKeyspaceName(String keyspaceName)
+    {
+        this.keyspaceName = keyspaceName;
+    }
+
+    public String[] getContactPoints()
+    {
+        return contactPoints;
+    }
+
+    public void setContactPoints(String[] contactPoints)
+    {
+        this.contactPoints = contactPoints;
+    }
+
+    public Integer getPort()
+    {
+        return port;
+    }
+
+    public void setPort(Integer port)
+    {
+        this.port = port;
+    }
+
+    public Integer getProtocolVersion()
+    {
+        return protocolVersion;
+    }
+
+    public void setProtocolVersion(Integer protocolVersion)
+    {
+        this.protocolVersion = protocolVersion;
+    }
+
+    public ProtocolOptions.Compression getCompression()
+    {
+        return compression;
+    }
+
+    public void setCompression(ProtocolOptions.Compression compression)
+    {
+        this.compression = compression;
+    }
+
+    public Auth getAuth()
+    {
+        return auth;
+    }
 
     public void setAuth(Auth auth)
     {
@@ -1138,6 +1985,16 @@ public class CassandraProperties
         this.loadBalancingPolicy = loadBalancingPolicy;
     }
 
+    public List<LoadBalancingLayer> getLoadBalancingChain()
+    {
+        return loadBalancingChain;
+    }
+
+    public void setLoadBalancingChain(List<LoadBalancingLayer> loadBalancingChain)
+    {
+        this.loadBalancingChain = loadBalancingChain;
+    }
+
     public DcAwarePolicy getDcaware()
     {
         return dcaware;
@@ -1158,6 +2015,36 @@ public class CassandraProperties
         this.latencyaware = latencyaware;
     }
 
+    public RackAwarePolicy getRackaware()
+    {
+        return rackaware;
+    }
+
+    public void setRackaware(RackAwarePolicy rackaware)
+    {
+        this.rackaware = rackaware;
+    }
+
+    public LeastOutstandingPolicy getLeastoutstanding()
+    {
+        return leastoutstanding;
+    }
+
+    public void setLeastoutstanding(LeastOutstandingPolicy leastoutstanding)
+    {
+        this.leastoutstanding = leastoutstanding;
+    }
+
+    public SlowStartPolicy getSlowstart()
+    {
+        return slowstart;
+    }
+
+    public void setSlowstart(SlowStartPolicy slowstart)
+    {
+        this.slowstart = slowstart;
+    }
+
     public TokenAwarePolicy getTokenaware()
     {
         return tokenaware;
@@ -1238,6 +2125,146 @@ public class CassandraProperties
         this.jmxReportingEnabled = jmxReportingEnabled;
     }
 
+    public boolean isMicrometerReportingEnabled()
+    {
+        return micrometerReportingEnabled;
+    }
+
+    public void setMicrometerReportingEnabled(boolean micrometerReportingEnabled)
+    {
+        this.micrometerReportingEnabled = micrometerReportingEnabled;
+    }
+
+    public MicrometerOptions getMicrometer()
+    {
+        return micrometer;
+    }
+
+    public void setMicrometer(MicrometerOptions micrometer)
+    {
+        this.micrometer = micrometer;
+    }
+
+    public HealthOptions getHealth()
+    {
+        return health;
+    }
+
+    public void setHealth(HealthOptions health)
+    {
+        this.health = health;
+    }
+
+    public BatchingOptions getBatching()
+    {
+        return batching;
+    }
+
+    public void setBatching(BatchingOptions batching)
+    {
+        this.batching = batching;
+    }
+
+    public LimiterOptions getLimiter()
+    {
+        return limiter;
+    }
+
+    public void setLimiter(LimiterOptions limiter)
+    {
+        this.limiter = limiter;
+    }
+
+    public boolean isScanIndexEnabled()
+    {
+        return scanIndexEnabled;
+    }
+
+    public void setScanIndexEnabled(boolean scanIndexEnabled)
+    {
+        this.scanIndexEnabled = scanIndexEnabled;
+    }
+
+    public WarmupOptions getWarmup()
+    {
+        return warmup;
+    }
+
+    public void setWarmup(WarmupOptions warmup)
+    {
+        this.warmup = warmup;
+    }
+
+    public JsonOptions getJson()
+    {
+        return json;
+    }
+
+    public void setJson(JsonOptions json)
+    {
+        this.json = json;
+    }
+
+    public CacheOptions getCache()
+    {
+        return cache;
+    }
+
+    public void setCache(CacheOptions cache)
+    {
+        this.cache = cache;
+    }
+
+    public TableScanOptions getTableScan()
+    {
+        return tableScan;
+    }
+
+    public void setTableScan(TableScanOptions tableScan)
+    {
+        this.tableScan = tableScan;
+    }
+
+    public MultiGetOptions getMultiGet()
+    {
+        return multiGet;
+    }
+
+    public void setMultiGet(MultiGetOptions multiGet)
+    {
+        this.multiGet = multiGet;
+    }
+
+    public Map<String, ProfileOptions> getProfiles()
+    {
+        return profiles;
+    }
+
+    public void setProfiles(Map<String, ProfileOptions> profiles)
+    {
+        this.profiles = profiles;
+    }
+
+    public String getKeyspaces()
+    {
+        return keyspaces;
+    }
+
+    public void setKeyspaces(String keyspaces)
+    {
+        this.keyspaces = keyspaces;
+    }
+
+    public Map<String, String> getKeyspacePackages()
+    {
+        return keyspacePackages;
+    }
+
+    public void setKeyspacePackages(Map<String, String> keyspacePackages)
+    {
+        this.keyspacePackages = keyspacePackages;
+    }
+
     public String getScanPackages()
     {
         return scanPackages;
@@ -1288,6 +2315,16 @@ public class CassandraProperties
         this.maxSchemaAgreementWaitSeconds = maxSchemaAgreementWaitSeconds;
     }
 
+    public BootstrapMode getBootstrapMode()
+    {
+        return bootstrapMode;
+    }
+
+    public void setBootstrapMode(BootstrapMode bootstrapMode)
+    {
+        this.bootstrapMode = bootstrapMode;
+    }
+
     public TimestampGenerator getTimestampGenerator()
     {
         return timestampGenerator;
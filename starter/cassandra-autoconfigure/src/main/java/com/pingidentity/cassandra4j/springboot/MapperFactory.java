@@ -18,25 +18,147 @@
 
 package com.pingidentity.cassandra4j.springboot;
 
+import com.datastax.driver.core.ConsistencyLevel;
 import com.datastax.driver.mapping.Mapper;
 import com.datastax.driver.mapping.MappingManager;
+import com.pingidentity.cassandra4j.springboot.mapping.AccessorInvocationHandler;
+import com.pingidentity.cassandra4j.springboot.mapping.AsyncMapper;
+import com.pingidentity.cassandra4j.springboot.mapping.BatchingMapper;
+import com.pingidentity.cassandra4j.springboot.mapping.CachedEntity;
+import com.pingidentity.cassandra4j.springboot.mapping.CachingMapper;
+import com.pingidentity.cassandra4j.springboot.mapping.ExecutionProfiles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 public class MapperFactory
 {
+    private static final Logger log = LoggerFactory.getLogger(MapperFactory.class);
+
     private MappingManager manager;
+    private CassandraProperties.BatchingOptions batching;
+    private CassandraProperties.CacheOptions cache;
+    private CassandraProperties.MultiGetOptions multiGet;
+    private ExecutionProfiles profiles;
+    private Map<Class<?>, Object> accessors = new ConcurrentHashMap<>();
+    private Map<Class<?>, CachingMapper<?>> cachingMappers = new ConcurrentHashMap<>();
 
-    public MapperFactory(MappingManager manager)
+    /**
+     * @param props    batching, entity cache and multi-get settings, defaults when null
+     * @param profiles execution profiles of entities and accessors, profiles of {@code props} when null
+     */
+    public MapperFactory(MappingManager manager, CassandraProperties props, ExecutionProfiles profiles)
     {
+        CassandraProperties options = props != null ? props : new CassandraProperties();
+
         this.manager = manager;
+        this.batching = options.getBatching() != null ? options.getBatching() : new CassandraProperties.BatchingOptions();
+        this.cache = options.getCache() != null ? options.getCache() : new CassandraProperties.CacheOptions();
+        this.multiGet = options.getMultiGet() != null ? options.getMultiGet() : new CassandraProperties.MultiGetOptions();
+        this.profiles = profiles != null ? profiles : new ExecutionProfiles(options.getProfiles());
     }
 
     public Object newAccessor(Class type) throws ClassNotFoundException
     {
-        return manager.createAccessor(type);
+        //accessors may be created ahead of time by warm-up
+        return accessors.computeIfAbsent(type, t -> AccessorInvocationHandler.newAccessor(manager, t, profiles));
     }
 
     public Mapper<?> newMapper(Class type) throws ClassNotFoundException
     {
-        return manager.mapper(type);
+        CassandraProperties.ProfileOptions profile = profiles.forElement(type);
+
+        if (profile != null && (profile.getSerialConsistencyLevel() != null || profile.getReadTimeoutMs() != null
+                || profile.getFetchSize() != null || profile.getIdempotent() != null))
+        {
+            log.warn("Execution profile of {} sets options datastax Mapper can't apply, only consistency level is honored by Mapper<T>. " +
+                     "Use AsyncMapper<T> or accessor to apply whole profile.", type.getName());
+        }
+
+        return mapper(type);
+    }
+
+    @SuppressWarnings("unchecked")
+    public AsyncMapper<?> newAsyncMapper(Class type) throws ClassNotFoundException
+    {
+        return new AsyncMapper<>((Mapper<Object>) mapper(type), profiles.forElement(type), multiGet.getConcurrency(), multiGet.isGroupByReplica(),
+                                 multiGet.getMaxGroupSize(), cachingMapper(type));
+    }
+
+    @SuppressWarnings("unchecked")
+    public BatchingMapper<?> newBatchingMapper(Class type) throws ClassNotFoundException
+    {
+        return new BatchingMapper<>((Mapper<Object>) mapper(type), batching, cachingMapper(type));
+    }
+
+    public CachingMapper<?> newCachingMapper(Class type) throws ClassNotFoundException
+    {
+        //async and batching mappers of the entity invalidate this instance
+        return cachingMappers.computeIfAbsent(type, this::createCachingMapper);
+    }
+
+    /**
+     * @return lazy lookup, caching mapper bean may be created after mappers writing the entity
+     */
+    @SuppressWarnings("unchecked")
+    private Supplier<CachingMapper<Object>> cachingMapper(Class<?> type)
+    {
+        return () -> (CachingMapper<Object>) cachingMappers.get(type);
+    }
+
+    @SuppressWarnings("unchecked")
+    private CachingMapper<?> createCachingMapper(Class<?> type)
+    {
+        CachedEntity annotation = type.getAnnotation(CachedEntity.class);
+        CassandraProperties.EntityCacheOptions options = entityCacheOptions(cache, type);
+
+        long maximumSize = options != null && options.getMaximumSize() != null ? options.getMaximumSize()
+                : annotation != null && annotation.maximumSize() >= 0 ? annotation.maximumSize()
+                : cache.getMaximumSize();
+
+        long ttlMs = options != null && options.getTtlMs() != null ? options.getTtlMs()
+                : annotation != null && annotation.ttlMs() >= 0 ? annotation.ttlMs()
+                : cache.getTtlMs();
+
+        return new CachingMapper<>((Class<Object>) type, (Mapper<Object>) mapper(type), maximumSize, ttlMs);
+    }
+
+    /**
+     * Mappers are shared by manager, so consistency level of entity execution profile becomes mapper default.
+     * Other profile settings can't be applied to driver mapper and are honored by {@link AsyncMapper} only.
+     */
+    private Mapper<?> mapper(Class<?> type)
+    {
+        Mapper<?> mapper = manager.mapper(type);
+        CassandraProperties.ProfileOptions profile = profiles.forElement(type);
+        ConsistencyLevel consistency = profile != null ? profile.getConsistencyLevel() : null;
+
+        if (consistency != null)
+        {
+            mapper.setDefaultGetOptions(Mapper.Option.consistencyLevel(consistency));
+            mapper.setDefaultSaveOptions(Mapper.Option.consistencyLevel(consistency));
+            mapper.setDefaultDeleteOptions(Mapper.Option.consistencyLevel(consistency));
+        }
+
+        return mapper;
+    }
+
+    /**
+     * @return per entity cache options keyed by simple (case insensitive) or fully qualified class name, null when not configured
+     */
+    static CassandraProperties.EntityCacheOptions entityCacheOptions(CassandraProperties.CacheOptions cache, Class<?> type)
+    {
+        for (Map.Entry<String, CassandraProperties.EntityCacheOptions> entry : cache.getEntities().entrySet())
+        {
+            if (entry.getKey().equalsIgnoreCase(type.getSimpleName()) || entry.getKey().equals(type.getName()))
+            {
+                return entry.getValue();
+            }
+        }
+
+        return null;
     }
 }
@@ -0,0 +1,106 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.bootstrap;
+
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static com.pingidentity.cassandra4j.springboot.utils.FutureUtils.toCompletableFuture;
+
+/**
+ * Initializes cluster (contact points negotiation, peers and schema metadata) and connects session in background thread,
+ * so application context doesn't wait for it.
+ */
+public class CassandraBootstrap implements AutoCloseable
+{
+    private static final Logger log = LoggerFactory.getLogger(CassandraBootstrap.class);
+
+    private final CompletableFuture<Session> session = new CompletableFuture<>();
+    private final Thread thread;
+
+    public CassandraBootstrap(Cluster cluster, String keyspace, Consumer<Cluster> postInit)
+    {
+        this.thread = new Thread(() -> bootstrap(cluster, keyspace, postInit), "cassandra-bootstrap");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    private void bootstrap(Cluster cluster, String keyspace, Consumer<Cluster> postInit)
+    {
+        long start = System.currentTimeMillis();
+
+        try
+        {
+            cluster.init();
+            postInit.accept(cluster);
+
+            session.complete(cluster.connect(keyspace));
+
+            log.info("Cassandra cluster '{}' initialized in {} ms", cluster.getClusterName(), System.currentTimeMillis() - start);
+        }
+        catch (Throwable t)
+        {
+            log.error("Cassandra cluster '{}' initialization failed", cluster.getClusterName(), t);
+
+            session.completeExceptionally(t);
+        }
+    }
+
+    /**
+     * @return session future, completed once cluster is initialized and session is connected
+     */
+    public CompletableFuture<Session> session()
+    {
+        return session;
+    }
+
+    /**
+     * @return future of additional session logged into given keyspace, connected once cluster is initialized
+     */
+    public CompletableFuture<Session> session(String keyspace)
+    {
+        return session.thenCompose(connected -> toCompletableFuture(connected.getCluster().connectAsync(keyspace)));
+    }
+
+    public boolean isReady()
+    {
+        return session.isDone() && !session.isCompletedExceptionally();
+    }
+
+    public boolean isFailed()
+    {
+        return session.isCompletedExceptionally();
+    }
+
+    @Override
+    public void close()
+    {
+        if (!session.isDone())
+        {
+            thread.interrupt();
+            session.cancel(false);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.bootstrap;
+
+import com.datastax.driver.core.AbstractSession;
+import com.datastax.driver.core.CloseFuture;
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.RegularStatement;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.Statement;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.pingidentity.cassandra4j.springboot.utils.DeferredResultSetFuture;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static com.pingidentity.cassandra4j.springboot.utils.FutureUtils.propagate;
+
+/**
+ * {@link Session} available before cluster initialization is completed by {@link CassandraBootstrap}.
+ * Asynchronous calls are queued until session is connected, blocking calls wait for it.
+ */
+public class DeferredSession extends AbstractSession
+{
+    private final Cluster cluster;
+    private final CompletableFuture<Session> delegate;
+
+    public DeferredSession(Cluster cluster, CassandraBootstrap bootstrap)
+    {
+        this(cluster, bootstrap.session());
+    }
+
+    public DeferredSession(Cluster cluster, CompletableFuture<Session> delegate)
+    {
+        this.cluster = cluster;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public ResultSetFuture executeAsync(Statement statement)
+    {
+        Session session = connected();
+
+        if (session != null)
+        {
+            return session.executeAsync(statement);
+        }
+
+        DeferredResultSetFuture result = new DeferredResultSetFuture();
+
+        delegate.whenComplete((connected, error) ->
+        {
+            if (error != null)
+            {
+                result.fail(error);
+            }
+            else if (!result.isCancelled())
+            {
+                result.run(connected.executeAsync(statement));
+            }
+        });
+
+        return result;
+    }
+
+    @Override
+    public ListenableFuture<PreparedStatement> prepareAsync(String query)
+    {
+        return deferred(session -> session.prepareAsync(query));
+    }
+
+    @Override
+    public ListenableFuture<PreparedStatement> prepareAsync(RegularStatement statement)
+    {
+        return deferred(session -> session.prepareAsync(statement));
+    }
+
+    @Override
+    protected ListenableFuture<PreparedStatement> prepareAsync(String query, Map<String, ByteBuffer> customPayload)
+    {
+        SimpleStatement statement = new SimpleStatement(query);
+
+        if (customPayload != null)
+        {
+            statement.setOutgoingPayload(customPayload);
+        }
+
+        return prepareAsync(statement);
+    }
+
+    private <T> ListenableFuture<T> deferred(Function<Session, ListenableFuture<T>> call)
+    {
+        Session session = connected();
+
+        if (session != null)
+        {
+            return call.apply(session);
+        }
+
+        SettableFuture<T> result = SettableFuture.create();
+
+        delegate.whenComplete((connected, error) ->
+        {
+            if (error != null)
+            {
+                result.setException(error);
+                return;
+            }
+
+            Futures.addCallback(call.apply(connected), new FutureCallback<T>()
+            {
+                @Override
+                public void onSuccess(T value)
+                {
+                    result.set(value);
+                }
+
+                @Override
+                public void onFailure(Throwable t)
+                {
+                    result.setException(t);
+                }
+            }, MoreExecutors.directExecutor());
+        });
+
+        return result;
+    }
+
+    /**
+     * @return connected session, null while connecting or when bootstrap failed or was cancelled
+     */
+    private Session connected()
+    {
+        //getNow would rethrow bootstrap failure
+        return isReady() ? delegate.join() : null;
+    }
+
+    private Session await()
+    {
+        try
+        {
+            return delegate.join();
+        }
+        catch (Exception e)
+        {
+            throw propagate(e);
+        }
+    }
+
+    @Override
+    public String getLoggedKeyspace()
+    {
+        return await().getLoggedKeyspace();
+    }
+
+    @Override
+    public Session init()
+    {
+        await();
+        return this;
+    }
+
+    @Override
+    public ListenableFuture<Session> initAsync()
+    {
+        return deferred(session -> Futures.immediateFuture(this));
+    }
+
+    @Override
+    public CloseFuture closeAsync()
+    {
+        Session session = connected();
+
+        //session was never connected, closing cluster aborts pending initialization
+        return session != null ? session.closeAsync() : cluster.closeAsync();
+    }
+
+    @Override
+    public boolean isClosed()
+    {
+        Session session = connected();
+
+        return session != null ? session.isClosed() : cluster.isClosed();
+    }
+
+    @Override
+    public Cluster getCluster()
+    {
+        return cluster;
+    }
+
+    @Override
+    public State getState()
+    {
+        return await().getState();
+    }
+
+    public boolean isReady()
+    {
+        return delegate.isDone() && !delegate.isCompletedExceptionally();
+    }
+}
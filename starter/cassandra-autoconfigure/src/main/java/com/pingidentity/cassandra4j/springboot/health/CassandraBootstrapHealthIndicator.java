@@ -0,0 +1,56 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.health;
+
+import com.pingidentity.cassandra4j.springboot.bootstrap.CassandraBootstrap;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+
+import static com.pingidentity.cassandra4j.springboot.utils.FutureUtils.unwrap;
+
+/**
+ * Reports OUT_OF_SERVICE until background cluster initialization completes, so readiness probes keep traffic away.
+ */
+public class CassandraBootstrapHealthIndicator extends AbstractHealthIndicator
+{
+    private final CassandraBootstrap bootstrap;
+
+    public CassandraBootstrapHealthIndicator(CassandraBootstrap bootstrap)
+    {
+        this.bootstrap = bootstrap;
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder)
+    {
+        if (bootstrap.isReady())
+        {
+            builder.up();
+        }
+        else if (bootstrap.isFailed())
+        {
+            builder.down(unwrap(bootstrap.session().handle((session, error) -> error).join()));
+        }
+        else
+        {
+            builder.outOfService().withDetail("reason", "cluster initialization is in progress");
+        }
+    }
+}
@@ -0,0 +1,261 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+package com.pingidentity.cassandra4j.springboot.health;
+
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.HostDistance;
+import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.Session;
+import org.springframework.boot.actuate.health.Health;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Derives cluster health from driver metadata (host states) and session state instead of probing query.
+ * Health is recomputed in background and served from cache, so probes never touch the network.
+ *
+ * LOCAL_QUORUM availability is approximated by number of up hosts per data center against keyspace replication factor.
+ * Only local data center (configured one, otherwise data centers of hosts load balancing policy considers LOCAL) affects status,
+ * quorum loss in remote data centers is reported as detail.
+ */
+public class CassandraMetadataHealth implements AutoCloseable
+{
+    private final Cluster cluster;
+    private final Session session;
+    private final String keyspace;
+    private final String localDc;
+    private final long ttlMs;
+    private final boolean requireLocalQuorum;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private volatile Health cached;
+    private volatile long cachedAt;
+
+    public CassandraMetadataHealth(Cluster cluster, Session session, String keyspace, String localDc,
+                                   long refreshIntervalMs, long ttlMs, boolean requireLocalQuorum)
+    {
+        this.cluster = cluster;
+        this.session = session;
+        this.keyspace = keyspace;
+        this.localDc = localDc;
+        this.ttlMs = ttlMs;
+        this.requireLocalQuorum = requireLocalQuorum;
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r ->
+        {
+            Thread thread = new Thread(r, "cassandra-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.scheduler.scheduleWithFixedDelay(this::refresh, 0, refreshIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return last computed health, never blocks. Stale result triggers asynchronous refresh and reported as UNKNOWN.
+     */
+    public Health current()
+    {
+        Health health = cached;
+
+        if (health == null)
+        {
+            return Health.unknown().withDetail("reason", "health is not computed yet").build();
+        }
+
+        long age = System.currentTimeMillis() - cachedAt;
+
+        if (age > ttlMs)
+        {
+            //single pending refresh at most, so hanging metadata doesn't pile up probes
+            if (refreshing.compareAndSet(false, true))
+            {
+                scheduler.execute(() ->
+                {
+                    try
+                    {
+                        refresh();
+                    }
+                    finally
+                    {
+                        refreshing.set(false);
+                    }
+                });
+            }
+
+            return Health.unknown()
+                         .withDetails(health.getDetails())
+                         .withDetail("reason", "cached health is stale")
+                         .withDetail("ageMs", age)
+                         .build();
+        }
+
+        return health;
+    }
+
+    void refresh()
+    {
+        Health health;
+
+        try
+        {
+            health = compute();
+        }
+        catch (Exception e)
+        {
+            health = Health.down(e).build();
+        }
+
+        cached = health;
+        cachedAt = System.currentTimeMillis();
+    }
+
+    private Health compute()
+    {
+        Metadata metadata = cluster.getMetadata();
+        Map<String, int[]> dcs = new TreeMap<>();
+        Set<String> localDcs = new HashSet<>();
+
+        for (Host host : metadata.getAllHosts())
+        {
+            String dcName = String.valueOf(host.getDatacenter());
+            int[] counts = dcs.computeIfAbsent(dcName, dc -> new int[2]);
+
+            if (localDc == null && cluster.getConfiguration().getPolicies().getLoadBalancingPolicy().distance(host) == HostDistance.LOCAL)
+            {
+                localDcs.add(dcName);
+            }
+
+            counts[1]++;
+
+            if (host.isUp())
+            {
+                counts[0]++;
+            }
+        }
+
+        Collection<Host> connected = session.getState().getConnectedHosts();
+        Map<String, String> replication = replication(metadata);
+
+        Health.Builder builder = Health.up()
+                                       .withDetail("clusterName", String.valueOf(metadata.getClusterName()))
+                                       .withDetail("connectedHosts", connected.size());
+
+        if (localDc != null)
+        {
+            localDcs.add(localDc);
+        }
+
+        boolean anyUp = false;
+        boolean quorum = true;
+
+        for (Map.Entry<String, int[]> dc : dcs.entrySet())
+        {
+            int up = dc.getValue()[0];
+            Map<String, Object> details = new LinkedHashMap<>();
+
+            details.put("up", up);
+            details.put("total", dc.getValue()[1]);
+
+            Integer rf = replicationFactor(replication, dc.getKey());
+
+            if (rf != null && rf > 0)
+            {
+                boolean localQuorum = up >= rf / 2 + 1;
+
+                details.put("replicationFactor", rf);
+                details.put("localQuorum", localQuorum);
+
+                //remote data center without quorum doesn't make this application unhealthy
+                if (localDcs.contains(dc.getKey()))
+                {
+                    quorum &= localQuorum;
+                }
+            }
+
+            details.put("local", localDcs.contains(dc.getKey()));
+
+            anyUp |= up > 0;
+            builder.withDetail("dc." + dc.getKey(), details);
+        }
+
+        if (!anyUp || connected.isEmpty())
+        {
+            builder.down();
+        }
+        else if (requireLocalQuorum && !quorum)
+        {
+            builder.down().withDetail("reason", "LOCAL_QUORUM is not achievable for keyspace " + keyspace);
+        }
+
+        return builder.build();
+    }
+
+    private Map<String, String> replication(Metadata metadata)
+    {
+        if (keyspace == null)
+        {
+            return null;
+        }
+
+        KeyspaceMetadata ks = metadata.getKeyspace(keyspace);
+
+        return ks != null ? ks.getReplication() : null;
+    }
+
+    private Integer replicationFactor(Map<String, String> replication, String dc)
+    {
+        if (replication == null)
+        {
+            return null;
+        }
+
+        String rf = replication.get("class") != null && replication.get("class").endsWith("SimpleStrategy")
+                ? replication.get("replication_factor")
+                : replication.get(dc);
+
+        try
+        {
+            return rf != null ? Integer.valueOf(rf.trim()) : null;
+        }
+        catch (NumberFormatException e)
+        {
+            //transient replication notation, e.g. '3/1'
+            return null;
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        scheduler.shutdownNow();
+    }
+}
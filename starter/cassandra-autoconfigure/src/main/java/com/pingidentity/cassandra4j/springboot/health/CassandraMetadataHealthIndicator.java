@@ -0,0 +1,39 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.health;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+public class CassandraMetadataHealthIndicator implements HealthIndicator
+{
+    private CassandraMetadataHealth health;
+
+    public CassandraMetadataHealthIndicator(CassandraMetadataHealth health)
+    {
+        this.health = health;
+    }
+
+    @Override
+    public Health health()
+    {
+        return health.current();
+    }
+}
@@ -0,0 +1,95 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.json;
+
+import com.datastax.driver.core.PagingIterable;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Serializes {@link Iterable} as JSON array. Driver results ({@code ResultSet}, {@code Result<T>}) are streamed page by page:
+ * output is flushed once current page is written, before blocking on the next one, and next page is requested in advance,
+ * so rows are written while driver is fetching. Only current and prefetched pages are kept in heap regardless of result size.
+ *
+ * Client disconnect surfaces as {@link IOException} on write or flush, which stops iteration and no further pages are fetched.
+ */
+public class PagingIterableSerializer extends JsonSerializer<Iterable>
+{
+    private final int prefetchRows;
+    private final boolean flushPerPage;
+
+    /**
+     * @param prefetchRows request next page when that many rows left unread in the current one, 0 disables prefetch
+     * @param flushPerPage flush output once every page
+     */
+    public PagingIterableSerializer(int prefetchRows, boolean flushPerPage)
+    {
+        this.prefetchRows = prefetchRows;
+        this.flushPerPage = flushPerPage;
+    }
+
+    @Override
+    public void serialize(Iterable value, JsonGenerator gen, SerializerProvider serializers) throws IOException
+    {
+        if (!(value instanceof PagingIterable))
+        {
+            serializers.findValueSerializer(Iterator.class, null)
+                       .serialize(value.iterator(), gen, serializers);
+            return;
+        }
+
+        PagingIterable<?, ?> result = (PagingIterable<?, ?>) value;
+        Iterator<?> iterator = result.iterator();
+
+        gen.writeStartArray();
+
+        while (true)
+        {
+            int available = result.getAvailableWithoutFetching();
+
+            if (available == 0)
+            {
+                //page is written, push it to the client before blocking on the next one
+                if (flushPerPage)
+                {
+                    gen.flush();
+                }
+            }
+            else if (available <= prefetchRows && !result.isFullyFetched())
+            {
+                //pages smaller than prefetch threshold are covered too, driver reuses fetch already in flight
+                result.fetchMoreResults();
+            }
+
+            if (!iterator.hasNext())
+            {
+                break;
+            }
+
+            serializers.defaultSerializeValue(iterator.next(), gen);
+        }
+
+        gen.writeEndArray();
+    }
+}
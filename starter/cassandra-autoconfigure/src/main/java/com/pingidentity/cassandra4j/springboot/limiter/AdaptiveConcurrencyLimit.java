@@ -0,0 +1,350 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.limiter;
+
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.LatencyTracker;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.exceptions.OperationTimedOutException;
+import com.datastax.driver.core.exceptions.OverloadedException;
+import com.datastax.driver.core.exceptions.ReadTimeoutException;
+import com.datastax.driver.core.exceptions.WriteTimeoutException;
+import com.pingidentity.cassandra4j.springboot.CassandraProperties.LimiterOptions;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gradient based concurrency limit fed by driver latency tracker. Every host limit is continuously adjusted
+ * by ratio of observed minimum latency to current smoothed latency: limit grows while latency stays close to minimum
+ * and shrinks as soon as host starts queueing requests. Timeouts and overloaded responses halve host limit.
+ *
+ * Every host limit is enforced by attached limiter on requests planned for the host, so degraded host is throttled
+ * on its own. Session in-flight limit is kept equal to sum of limits of hosts currently up, capped by max in-flight.
+ *
+ * Host utilization is taken from driver connection pools ({@link Session.State#getInFlightQueries(Host)}) of sessions
+ * added with {@link #addSession(Session)}, summed up. Driver snapshots all host pools for every {@link Session#getState()} call,
+ * so session state is reused for state refresh interval. Until session is added limiter per host count is used.
+ *
+ * Must be registered with cluster both as {@link LatencyTracker} and {@link Host.StateListener}.
+ */
+public class AdaptiveConcurrencyLimit implements LatencyTracker, Host.StateListener
+{
+    private static final int MIN_RTT_WINDOW = 500;
+    private static final double RTT_ALPHA = 0.1;
+    private static final long STATE_REFRESH_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int initialLimit;
+    private final int maxInFlight;
+    private final double smoothing;
+
+    private final Map<Host, HostLimit> hosts = new ConcurrentHashMap<>();
+    private final Set<Host> upHosts = ConcurrentHashMap.newKeySet();
+    private final List<SessionState> sessions = new CopyOnWriteArrayList<>();
+
+    private volatile InFlightLimiter limiter;
+    private volatile Cluster cluster;
+    private volatile boolean seeded;
+
+    public AdaptiveConcurrencyLimit(LimiterOptions options)
+    {
+        this.minLimit = options.getMinLimitPerHost();
+        this.maxLimit = options.getMaxLimitPerHost();
+        this.initialLimit = options.getInitialLimitPerHost();
+        this.maxInFlight = options.getMaxInFlight();
+        this.smoothing = options.getSmoothing();
+    }
+
+    /**
+     * Binds limiter which in-flight limit and per host limits are controlled by this instance.
+     */
+    public void attach(InFlightLimiter limiter)
+    {
+        this.limiter = limiter;
+        limiter.setHostLimit(this::getLimit);
+        publish();
+    }
+
+    /**
+     * @param session source of per host in-flight request counts, counts of all added sessions are summed up
+     */
+    public void addSession(Session session)
+    {
+        sessions.add(new SessionState(session));
+    }
+
+    @Override
+    public void update(Host host, Statement statement, Exception exception, long newLatencyNanos)
+    {
+        seed();
+
+        HostLimit limit = hosts.computeIfAbsent(host, h -> new HostLimit(initialLimit));
+        int inFlight = currentInFlight(host);
+        boolean changed;
+
+        if (exception == null)
+        {
+            changed = limit.sample(newLatencyNanos, inFlight);
+        }
+        else if (isDrop(exception))
+        {
+            changed = limit.drop();
+        }
+        else
+        {
+            //other errors say nothing about host saturation
+            return;
+        }
+
+        if (changed)
+        {
+            publish();
+        }
+    }
+
+    public int getLimit(Host host)
+    {
+        HostLimit limit = hosts.get(host);
+
+        return limit != null ? (int) limit.limit : initialLimit;
+    }
+
+    @Override
+    public void onRegister(Cluster cluster)
+    {
+        //cluster may be not initialized yet, limit is published on first latency update
+        this.cluster = cluster;
+    }
+
+    @Override
+    public void onUnregister(Cluster cluster)
+    {
+        this.cluster = null;
+    }
+
+    @Override
+    public void onAdd(Host host)
+    {
+        onUp(host);
+    }
+
+    @Override
+    public void onUp(Host host)
+    {
+        if (host.isUp())
+        {
+            upHosts.add(host);
+            publish();
+        }
+    }
+
+    @Override
+    public void onDown(Host host)
+    {
+        upHosts.remove(host);
+        publish();
+    }
+
+    @Override
+    public void onRemove(Host host)
+    {
+        upHosts.remove(host);
+        hosts.remove(host);
+
+        InFlightLimiter current = limiter;
+
+        if (current != null)
+        {
+            current.removeHost(host);
+        }
+
+        publish();
+    }
+
+    private void seed()
+    {
+        Cluster known = cluster;
+
+        if (seeded || known == null)
+        {
+            return;
+        }
+
+        seeded = true;
+
+        //latency update means cluster is initialized, so metadata is read once here instead of on every limit change
+        for (Host host : known.getMetadata().getAllHosts())
+        {
+            if (host.isUp())
+            {
+                upHosts.add(host);
+            }
+        }
+    }
+
+    private int currentInFlight(Host host)
+    {
+        if (sessions.isEmpty())
+        {
+            InFlightLimiter current = limiter;
+
+            return current != null ? current.getInFlight(host) : 0;
+        }
+
+        long now = System.nanoTime();
+        int inFlight = 0;
+
+        for (SessionState session : sessions)
+        {
+            inFlight += session.inFlight(host, now);
+        }
+
+        return inFlight;
+    }
+
+    private boolean isDrop(Exception e)
+    {
+        return e instanceof OperationTimedOutException
+                || e instanceof ReadTimeoutException
+                || e instanceof WriteTimeoutException
+                || e instanceof OverloadedException;
+    }
+
+    private void publish()
+    {
+        InFlightLimiter current = limiter;
+
+        if (current == null)
+        {
+            return;
+        }
+
+        long total = 0;
+
+        for (Host host : upHosts)
+        {
+            total += getLimit(host);
+        }
+
+        if (total == 0)
+        {
+            total = (long) initialLimit * Math.max(1, hosts.size());
+        }
+
+        current.setLimit((int) Math.min(total, maxInFlight));
+    }
+
+    private class HostLimit
+    {
+        volatile double limit;
+
+        private double rtt;
+        private long minRtt = Long.MAX_VALUE;
+        private long windowMinRtt = Long.MAX_VALUE;
+        private int samples;
+
+        HostLimit(int initial)
+        {
+            this.limit = initial;
+        }
+
+        synchronized boolean sample(long latency, int inFlight)
+        {
+            rtt = rtt == 0 ? latency : rtt * (1 - RTT_ALPHA) + latency * RTT_ALPHA;
+            minRtt = Math.min(minRtt, latency);
+            windowMinRtt = Math.min(windowMinRtt, latency);
+
+            //periodically forget min latency so limit can recover after topology or workload changes
+            if (++samples >= MIN_RTT_WINDOW)
+            {
+                minRtt = windowMinRtt;
+                windowMinRtt = Long.MAX_VALUE;
+                samples = 0;
+            }
+
+            //don't grow limit when it is not actually utilized
+            if (inFlight < limit / 2)
+            {
+                return false;
+            }
+
+            double gradient = Math.max(0.5, Math.min(1.0, minRtt / rtt));
+            double queueSize = Math.sqrt(limit);
+
+            return update(limit * gradient + queueSize);
+        }
+
+        synchronized boolean drop()
+        {
+            return update(limit / 2);
+        }
+
+        private boolean update(double target)
+        {
+            double next = Math.max(minLimit, Math.min(maxLimit, limit * (1 - smoothing) + target * smoothing));
+            boolean changed = (int) next != (int) limit;
+
+            limit = next;
+
+            return changed;
+        }
+    }
+
+    private static class SessionState
+    {
+        final Session session;
+
+        volatile Session.State state;
+        volatile long takenAt;
+
+        SessionState(Session session)
+        {
+            this.session = session;
+        }
+
+        int inFlight(Host host, long now)
+        {
+            Session.State current = state;
+
+            //concurrent refreshes are harmless, last one wins
+            if (current == null || now - takenAt >= STATE_REFRESH_NANOS)
+            {
+                if (session.isClosed())
+                {
+                    return 0;
+                }
+
+                current = session.getState();
+                state = current;
+                takenAt = now;
+            }
+
+            return current.getInFlightQueries(host);
+        }
+    }
+}
@@ -0,0 +1,377 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.limiter;
+
+import com.datastax.driver.core.Host;
+import com.pingidentity.cassandra4j.springboot.CassandraProperties.LimiterOptions;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Limits number of concurrently executing requests. Requests above the limit wait in bounded queue
+ * for limited time, when queue is full or wait timed out request is rejected immediately with {@link RequestRejectedException}
+ * instead of piling up in driver per host queues.
+ *
+ * When per host limit is set, request of a host also needs permit of that host. Queued requests of host at its limit
+ * don't hold back requests of other hosts.
+ *
+ * Queued requests are started on limiter dispatch thread, never on thread releasing the permit, which is usually
+ * driver I/O thread completing previous request.
+ */
+public class InFlightLimiter implements AutoCloseable
+{
+    private final int maxQueueSize;
+    private final long queueTimeoutMs;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<Host, AtomicInteger> hostInFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Queue<Waiter> queue = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService dispatcher;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder dequeued = new LongAdder();
+    private final LongAdder queueTimeNanos = new LongAdder();
+
+    private volatile int limit;
+    private volatile ToIntFunction<Host> hostLimit;
+
+    public InFlightLimiter(LimiterOptions options)
+    {
+        this.limit = options.getMaxInFlight();
+        this.maxQueueSize = options.getMaxQueueSize();
+        this.queueTimeoutMs = options.getQueueTimeoutMs();
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r ->
+        {
+            Thread thread = new Thread(r, "cassandra-limiter");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.dispatcher = Executors.newSingleThreadExecutor(r ->
+        {
+            Thread thread = new Thread(r, "cassandra-limiter-dispatch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Runs task when in-flight permit is available, immediately on calling thread or after waiting in queue on dispatch thread.
+     * Every executed task must be followed by {@link #release()} call when request completes.
+     */
+    public void execute(Runnable task, Consumer<RequestRejectedException> onReject)
+    {
+        execute(null, task, onReject);
+    }
+
+    /**
+     * Same as {@link #execute(Runnable, Consumer)}, request sent to given host also needs permit of the host.
+     * Every executed task must be followed by {@link #release(Host)} call with the same host when request completes.
+     *
+     * @param host coordinator the request is planned for, null when unknown
+     */
+    public void execute(Host host, Runnable task, Consumer<RequestRejectedException> onReject)
+    {
+        if (tryAcquire(host))
+        {
+            task.run();
+            return;
+        }
+
+        if (queued.incrementAndGet() > maxQueueSize)
+        {
+            queued.decrementAndGet();
+            rejected.increment();
+            onReject.accept(new RequestRejectedException("Too many in-flight requests, limit " + limit + " and wait queue of " + maxQueueSize + " are exhausted"));
+            return;
+        }
+
+        Waiter waiter = new Waiter(host, task, onReject);
+
+        queue.offer(waiter);
+        waiter.timeout = scheduler.schedule(() -> expire(waiter), queueTimeoutMs, TimeUnit.MILLISECONDS);
+
+        //permits could be released while waiter was enqueued
+        drain();
+    }
+
+    public void release()
+    {
+        release(null);
+    }
+
+    public void release(Host host)
+    {
+        releasePermits(host);
+        drain();
+    }
+
+    public int getLimit()
+    {
+        return limit;
+    }
+
+    protected void setLimit(int limit)
+    {
+        this.limit = Math.max(1, limit);
+        drain();
+    }
+
+    /**
+     * Limits requests of every host on top of session wide limit.
+     *
+     * @param hostLimit current limit of host, null to stop limiting hosts
+     */
+    protected void setHostLimit(ToIntFunction<Host> hostLimit)
+    {
+        this.hostLimit = hostLimit;
+        drain();
+    }
+
+    public boolean isHostLimited()
+    {
+        return hostLimit != null;
+    }
+
+    public int getInFlight()
+    {
+        return inFlight.get();
+    }
+
+    /**
+     * @return number of executing requests planned for the host
+     */
+    public int getInFlight(Host host)
+    {
+        AtomicInteger count = hostInFlight.get(host);
+
+        return count != null ? count.get() : 0;
+    }
+
+    protected void removeHost(Host host)
+    {
+        hostInFlight.remove(host);
+    }
+
+    public int getQueued()
+    {
+        return queued.get();
+    }
+
+    public long getRejectedCount()
+    {
+        return rejected.sum();
+    }
+
+    public long getTimedOutCount()
+    {
+        return timedOut.sum();
+    }
+
+    public long getDequeuedCount()
+    {
+        return dequeued.sum();
+    }
+
+    public long getQueueTimeNanos()
+    {
+        return queueTimeNanos.sum();
+    }
+
+    @Override
+    public void close()
+    {
+        scheduler.shutdownNow();
+        dispatcher.shutdown();
+    }
+
+    private boolean tryAcquire(Host host)
+    {
+        ToIntFunction<Host> currentHostLimit = hostLimit;
+
+        if (!tryAcquire())
+        {
+            return false;
+        }
+
+        if (host == null)
+        {
+            return true;
+        }
+
+        //host is counted even when not limited, so release always matches acquire
+        AtomicInteger count = hostInFlight.computeIfAbsent(host, h -> new AtomicInteger());
+        int max = currentHostLimit != null ? currentHostLimit.applyAsInt(host) : Integer.MAX_VALUE;
+
+        for (;;)
+        {
+            int current = count.get();
+
+            if (current >= max)
+            {
+                inFlight.decrementAndGet();
+                return false;
+            }
+
+            if (count.compareAndSet(current, current + 1))
+            {
+                return true;
+            }
+        }
+    }
+
+    private void releasePermits(Host host)
+    {
+        AtomicInteger count = host != null ? hostInFlight.get(host) : null;
+
+        if (count != null)
+        {
+            count.decrementAndGet();
+        }
+
+        inFlight.decrementAndGet();
+    }
+
+    private boolean tryAcquire()
+    {
+        for (;;)
+        {
+            int current = inFlight.get();
+
+            if (current >= limit)
+            {
+                return false;
+            }
+
+            if (inFlight.compareAndSet(current, current + 1))
+            {
+                return true;
+            }
+        }
+    }
+
+    private void drain()
+    {
+        //waiter of host at its limit is skipped, next waiters can still go to other hosts
+        for (Iterator<Waiter> it = queue.iterator(); it.hasNext() && inFlight.get() < limit; )
+        {
+            Waiter waiter = it.next();
+
+            if (waiter.isClaimed() || !tryAcquire(waiter.host))
+            {
+                continue;
+            }
+
+            if (!waiter.claim())
+            {
+                //raced with other drain or waiter expired
+                releasePermits(waiter.host);
+                continue;
+            }
+
+            it.remove();
+
+            queued.decrementAndGet();
+            dequeued.increment();
+            queueTimeNanos.add(System.nanoTime() - waiter.enqueuedAt);
+
+            ScheduledFuture<?> timeout = waiter.timeout;
+
+            if (timeout != null)
+            {
+                timeout.cancel(false);
+            }
+
+            dispatch(waiter);
+        }
+    }
+
+    private void dispatch(Waiter waiter)
+    {
+        try
+        {
+            //running task inline would recurse into drain when it releases permit synchronously
+            dispatcher.execute(waiter.task);
+        }
+        catch (RejectedExecutionException e)
+        {
+            inFlight.decrementAndGet();
+            waiter.onReject.accept(new RequestRejectedException("In-flight limiter is closed"));
+        }
+    }
+
+    private void expire(Waiter waiter)
+    {
+        if (waiter.claim())
+        {
+            queue.remove(waiter);
+            queued.decrementAndGet();
+            timedOut.increment();
+            waiter.onReject.accept(new RequestRejectedException("Request waited for in-flight permit longer than " + queueTimeoutMs + "ms"));
+        }
+    }
+
+    private static class Waiter
+    {
+        final Host host;
+        final Runnable task;
+        final Consumer<RequestRejectedException> onReject;
+        final long enqueuedAt = System.nanoTime();
+        final AtomicBoolean claimed = new AtomicBoolean();
+
+        volatile ScheduledFuture<?> timeout;
+
+        Waiter(Host host, Runnable task, Consumer<RequestRejectedException> onReject)
+        {
+            this.host = host;
+            this.task = task;
+            this.onReject = onReject;
+        }
+
+        boolean claim()
+        {
+            return claimed.compareAndSet(false, true);
+        }
+
+        boolean isClaimed()
+        {
+            return claimed.get();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.limiter;
+
+import com.datastax.driver.core.AbstractSession;
+import com.datastax.driver.core.CloseFuture;
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.RegularStatement;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.Statement;
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.pingidentity.cassandra4j.springboot.bootstrap.DeferredSession;
+import com.pingidentity.cassandra4j.springboot.utils.DeferredResultSetFuture;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * {@link Session} executing statements through {@link InFlightLimiter}. Statements preparation and
+ * fetching of next result pages is not limited.
+ *
+ * When limiter limits hosts, statement is gated on the first host of its load balancing query plan.
+ * Plan is computed once more by the driver, so with policies ordering equal hosts randomly or round robin
+ * the gated host is the likely coordinator rather than the actual one.
+ */
+public class LimitedSession extends AbstractSession
+{
+    private final Session delegate;
+    private final InFlightLimiter limiter;
+
+    public LimitedSession(Session delegate, InFlightLimiter limiter)
+    {
+        this.delegate = delegate;
+        this.limiter = limiter;
+    }
+
+    @Override
+    public ResultSetFuture executeAsync(Statement statement)
+    {
+        DeferredResultSetFuture result = new DeferredResultSetFuture();
+        Host host = limiter.isHostLimited() ? plannedHost(statement) : null;
+
+        limiter.execute(host, () -> execute(statement, host, result), result::fail);
+
+        return result;
+    }
+
+    private Host plannedHost(Statement statement)
+    {
+        if (statement.getHost() != null)
+        {
+            return statement.getHost();
+        }
+
+        //load balancing policy is initialized together with cluster, session is not gated by host until then
+        if (delegate instanceof DeferredSession && !((DeferredSession) delegate).isReady())
+        {
+            return null;
+        }
+
+        Iterator<Host> plan = getCluster().getConfiguration().getPolicies().getLoadBalancingPolicy()
+                                          .newQueryPlan(delegate.getLoggedKeyspace(), statement);
+
+        return plan.hasNext() ? plan.next() : null;
+    }
+
+    private void execute(Statement statement, Host host, DeferredResultSetFuture result)
+    {
+        if (result.isCancelled())
+        {
+            limiter.release(host);
+            return;
+        }
+
+        ResultSetFuture future;
+
+        try
+        {
+            future = delegate.executeAsync(statement);
+        }
+        catch (RuntimeException e)
+        {
+            limiter.release(host);
+            result.fail(e);
+            return;
+        }
+
+        future.addListener(() -> limiter.release(host), MoreExecutors.directExecutor());
+        result.run(future);
+    }
+
+    @Override
+    public ListenableFuture<PreparedStatement> prepareAsync(String query)
+    {
+        return delegate.prepareAsync(query);
+    }
+
+    @Override
+    public ListenableFuture<PreparedStatement> prepareAsync(RegularStatement statement)
+    {
+        return delegate.prepareAsync(statement);
+    }
+
+    @Override
+    protected ListenableFuture<PreparedStatement> prepareAsync(String query, Map<String, ByteBuffer> customPayload)
+    {
+        SimpleStatement statement = new SimpleStatement(query);
+
+        if (customPayload != null)
+        {
+            statement.setOutgoingPayload(customPayload);
+        }
+
+        return delegate.prepareAsync(statement);
+    }
+
+    @Override
+    public String getLoggedKeyspace()
+    {
+        return delegate.getLoggedKeyspace();
+    }
+
+    @Override
+    public Session init()
+    {
+        delegate.init();
+        return this;
+    }
+
+    @Override
+    public ListenableFuture<Session> initAsync()
+    {
+        return Futures.transform(delegate.initAsync(), (Function<Session, Session>) session -> this);
+    }
+
+    @Override
+    public CloseFuture closeAsync()
+    {
+        return delegate.closeAsync();
+    }
+
+    @Override
+    public boolean isClosed()
+    {
+        return delegate.isClosed();
+    }
+
+    @Override
+    public Cluster getCluster()
+    {
+        return delegate.getCluster();
+    }
+
+    @Override
+    public State getState()
+    {
+        return delegate.getState();
+    }
+
+    public Session getDelegate()
+    {
+        return delegate;
+    }
+
+    public InFlightLimiter getLimiter()
+    {
+        return limiter;
+    }
+}
@@ -0,0 +1,40 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.limiter;
+
+import com.datastax.driver.core.exceptions.DriverException;
+
+/**
+ * Request was not sent to cluster because client side in-flight limit was reached and wait queue was full,
+ * or request waited in queue for too long.
+ */
+public class RequestRejectedException extends DriverException
+{
+    public RequestRejectedException(String message)
+    {
+        super(message);
+    }
+
+    @Override
+    public RequestRejectedException copy()
+    {
+        return new RequestRejectedException(getMessage());
+    }
+}
@@ -0,0 +1,247 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.mapping;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.PagingIterable;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.mapping.Mapper;
+import com.datastax.driver.mapping.MappingManager;
+import com.datastax.driver.mapping.Result;
+import com.datastax.driver.mapping.annotations.Accessor;
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.pingidentity.cassandra4j.springboot.reactive.ReactiveResults;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import static com.pingidentity.cassandra4j.springboot.utils.FutureUtils.propagate;
+import static com.pingidentity.cassandra4j.springboot.utils.FutureUtils.toCompletableFuture;
+
+/**
+ * Implementation of {@link Accessor} interfaces with return types not supported by datastax mapper,
+ * e.g. lazy {@link java.util.stream.Stream} or {@link java.util.Iterator} of mapped entities, reactor Flux/Mono or {@link java.util.concurrent.CompletionStage}.
+ *
+ * Interfaces with only standard return types are left to datastax mapper.
+ */
+public class AccessorInvocationHandler implements InvocationHandler
+{
+    private final Class<?> type;
+    private final Session session;
+    private final MappingManager manager;
+    private final Map<Method, AccessorMethod> methods = new HashMap<>();
+
+    AccessorInvocationHandler(Class<?> type, MappingManager manager, ExecutionProfiles profiles)
+    {
+        this.type = type;
+        this.manager = manager;
+        this.session = manager.getSession();
+
+        for (Method method : type.getDeclaredMethods())
+        {
+            if (AccessorMethod.isQuery(method))
+            {
+                methods.put(method, new AccessorMethod(method, profiles.forElement(method, type)));
+            }
+        }
+
+        prepare();
+    }
+
+    public static <T> T newAccessor(MappingManager manager, Class<T> type)
+    {
+        return newAccessor(manager, type, new ExecutionProfiles(null));
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> T newAccessor(MappingManager manager, Class<T> type, ExecutionProfiles profiles)
+    {
+        if (isDriverSupported(type))
+        {
+            return manager.createAccessor(type);
+        }
+
+        if (!type.isInterface() || type.getAnnotation(Accessor.class) == null)
+        {
+            throw new IllegalArgumentException("@Accessor annotation is only allowed on interfaces, got " + type);
+        }
+
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new AccessorInvocationHandler(type, manager, profiles));
+    }
+
+    public static boolean isDriverSupported(Class<?> type)
+    {
+        //datastax accessors can't apply execution profiles
+        if (type.getAnnotation(ExecutionProfile.class) != null)
+        {
+            return false;
+        }
+
+        for (Method method : type.getDeclaredMethods())
+        {
+            if (AccessorMethod.isQuery(method) && (method.getAnnotation(ExecutionProfile.class) != null || !new AccessorMethod(method).kind.isDriverSupported()))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void prepare()
+    {
+        List<AccessorMethod> pending = new ArrayList<>(methods.values());
+        List<ListenableFuture<PreparedStatement>> statements = new ArrayList<>();
+
+        for (AccessorMethod method : pending)
+        {
+            statements.add(session.prepareAsync(method.query));
+
+            if (method.elementType != null && !Row.class.equals(method.elementType) && !ResultSet.class.equals(method.elementType))
+            {
+                //fail fast on non mapped return types
+                manager.mapper(method.elementType);
+            }
+        }
+
+        try
+        {
+            List<PreparedStatement> prepared = Uninterruptibles.getUninterruptibly(Futures.allAsList(statements));
+
+            for (int i = 0; i < pending.size(); i++)
+            {
+                pending.get(i).prepare(prepared.get(i));
+            }
+        }
+        catch (ExecutionException e)
+        {
+            throw propagate(e);
+        }
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+    {
+        if (method.getDeclaringClass().equals(Object.class))
+        {
+            switch (method.getName())
+            {
+                case "toString":
+                    return type.getSimpleName() + " implementation generated by cassandra4j";
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return method.invoke(this, args);
+            }
+        }
+
+        AccessorMethod accessor = methods.get(method);
+
+        if (accessor == null)
+        {
+            throw new UnsupportedOperationException(method.toString());
+        }
+
+        BoundStatement statement = accessor.bind(args);
+
+        switch (accessor.kind)
+        {
+            case STATEMENT:
+                return statement;
+
+            case VOID:
+                session.execute(statement);
+                return null;
+
+            case RESULT_SET:
+                return session.execute(statement);
+
+            case RESULT_SET_FUTURE:
+                return session.executeAsync(statement);
+
+            case RESULT:
+                return mapper(accessor).map(session.execute(statement));
+
+            case ONE:
+                return mapper(accessor).map(session.execute(statement)).one();
+
+            case FUTURE_RESULT:
+                return mapper(accessor).mapAsync(session.executeAsync(statement));
+
+            case FUTURE_ONE:
+                ListenableFuture<? extends Result<?>> result = mapper(accessor).mapAsync(session.executeAsync(statement));
+                return Futures.transform(result, (Function<Result<?>, Object>) Result::one);
+
+            case STAGE_RESULT_SET:
+                return toCompletableFuture(session.executeAsync(statement));
+
+            case STAGE_RESULT:
+                return toCompletableFuture(session.executeAsync(statement)).thenApply(rs -> rows(accessor, rs));
+
+            case STAGE_ONE:
+                return toCompletableFuture(session.executeAsync(statement)).thenApply(rs -> rows(accessor, rs).one());
+
+            case ITERATOR:
+                return new PagingIterator<>(rows(accessor, session.execute(statement)));
+
+            case STREAM:
+                return new PagingIterator<>(rows(accessor, session.execute(statement))).stream();
+
+            case FLUX:
+                return ReactiveResults.flux(() -> session.executeAsync(statement), rs -> rows(accessor, rs));
+
+            case MONO:
+                return ReactiveResults.mono(() -> session.executeAsync(statement), rs -> one(accessor, rs));
+
+            default:
+                throw new UnsupportedOperationException(method.toString());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> PagingIterable<?, T> rows(AccessorMethod accessor, ResultSet rs)
+    {
+        return (PagingIterable<?, T>) (Row.class.equals(accessor.elementType) ? rs : mapper(accessor).map(rs));
+    }
+
+    private Object one(AccessorMethod accessor, ResultSet rs)
+    {
+        return ResultSet.class.equals(accessor.elementType) ? rs : rows(accessor, rs).one();
+    }
+
+    private Mapper<?> mapper(AccessorMethod accessor)
+    {
+        return manager.mapper(accessor.elementType);
+    }
+}
@@ -0,0 +1,374 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.mapping;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.TypeCodec;
+import com.datastax.driver.mapping.Result;
+import com.datastax.driver.mapping.annotations.Defaults;
+import com.datastax.driver.mapping.annotations.Param;
+import com.datastax.driver.mapping.annotations.Query;
+import com.datastax.driver.mapping.annotations.QueryParameters;
+import com.google.common.reflect.TypeToken;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.pingidentity.cassandra4j.springboot.CassandraProperties.ProfileOptions;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Stream;
+
+/**
+ * Parsed {@link Query} method of {@link com.datastax.driver.mapping.annotations.Accessor} interface.
+ *
+ * Follows datastax mapper conventions for parameters binding and {@link QueryParameters}.
+ */
+class AccessorMethod
+{
+    enum ReturnKind
+    {
+        VOID, RESULT_SET, STATEMENT, RESULT_SET_FUTURE, FUTURE_RESULT, FUTURE_ONE, RESULT, ONE,
+
+        //not supported by datastax accessors
+        STREAM, ITERATOR, FLUX, MONO, STAGE_RESULT_SET, STAGE_RESULT, STAGE_ONE;
+
+        boolean isDriverSupported()
+        {
+            return ordinal() <= ONE.ordinal();
+        }
+    }
+
+    //compared by name to keep reactor optional
+    private static final String FLUX_CLASS = "reactor.core.publisher.Flux";
+    private static final String MONO_CLASS = "reactor.core.publisher.Mono";
+
+    final Method method;
+    final String query;
+    final ReturnKind kind;
+
+    /**
+     * Mapped entity class, {@link Row} for raw rows or {@link ResultSet} for reactive result set, null when not applicable
+     */
+    final Class<?> elementType;
+
+    private final String[] names;
+    private final TypeToken<Object>[] types;
+    private final TypeCodec<Object>[] codecs;
+
+    private final ConsistencyLevel consistency;
+    private final int fetchSize;
+    private final boolean tracing;
+    private final Boolean idempotent;
+    private final ProfileOptions profile;
+
+    private volatile PreparedStatement statement;
+
+    AccessorMethod(Method method)
+    {
+        this(method, null);
+    }
+
+    /**
+     * @param profile execution profile of the method, null when not set
+     */
+    @SuppressWarnings("unchecked")
+    AccessorMethod(Method method, ProfileOptions profile)
+    {
+        if (method.isVarArgs())
+        {
+            throw new IllegalArgumentException(String.format("Invalid varargs method %s in @Accessor interface", method.getName()));
+        }
+
+        this.method = method;
+        this.profile = profile;
+        this.query = method.getAnnotation(Query.class).value();
+
+        Type[] paramTypes = method.getGenericParameterTypes();
+        Annotation[][] paramAnnotations = method.getParameterAnnotations();
+
+        names = new String[paramTypes.length];
+        types = new TypeToken[paramTypes.length];
+        codecs = new TypeCodec[paramTypes.length];
+
+        Boolean named = null;
+
+        for (int i = 0; i < paramTypes.length; i++)
+        {
+            Param param = param(paramAnnotations[i]);
+            boolean hasName = param != null && !param.value().isEmpty();
+
+            if (named == null)
+            {
+                named = hasName;
+            }
+            else if (named != hasName)
+            {
+                throw new IllegalArgumentException(String.format("For method '%s', either all or none of the parameters must be named", method.getName()));
+            }
+
+            names[i] = hasName ? param.value() : null;
+            types[i] = (TypeToken<Object>) TypeToken.of(paramTypes[i]);
+            codecs[i] = param != null && !Defaults.NoCodec.class.equals(param.codec()) ? (TypeCodec<Object>) newInstance(param.codec()) : null;
+        }
+
+        QueryParameters options = method.getAnnotation(QueryParameters.class);
+
+        if (options != null)
+        {
+            if (options.idempotent().length > 1)
+            {
+                throw new IllegalArgumentException("idempotent() attribute can only accept one value");
+            }
+
+            consistency = options.consistency().isEmpty() ? null : ConsistencyLevel.valueOf(options.consistency().toUpperCase());
+            fetchSize = options.fetchSize();
+            tracing = options.tracing();
+            idempotent = options.idempotent().length == 0 ? null : options.idempotent()[0];
+        }
+        else
+        {
+            consistency = null;
+            fetchSize = -1;
+            tracing = false;
+            idempotent = null;
+        }
+
+        Class<?> raw = method.getReturnType();
+        Type generic = method.getGenericReturnType();
+
+        if (Void.TYPE.equals(raw))
+        {
+            kind = ReturnKind.VOID;
+            elementType = null;
+        }
+        else if (ResultSet.class.isAssignableFrom(raw))
+        {
+            kind = ReturnKind.RESULT_SET;
+            elementType = Row.class;
+        }
+        else if (Statement.class.isAssignableFrom(raw))
+        {
+            kind = ReturnKind.STATEMENT;
+            elementType = null;
+        }
+        else if (ResultSetFuture.class.isAssignableFrom(raw))
+        {
+            kind = ReturnKind.RESULT_SET_FUTURE;
+            elementType = Row.class;
+        }
+        else if (ListenableFuture.class.isAssignableFrom(raw))
+        {
+            Type arg = typeArgument(generic);
+
+            if (arg instanceof Class && ResultSet.class.isAssignableFrom((Class<?>) arg))
+            {
+                kind = ReturnKind.RESULT_SET_FUTURE;
+                elementType = Row.class;
+            }
+            else if (isResult(arg))
+            {
+                kind = ReturnKind.FUTURE_RESULT;
+                elementType = elementClass(typeArgument(arg));
+            }
+            else
+            {
+                kind = ReturnKind.FUTURE_ONE;
+                elementType = elementClass(arg);
+            }
+        }
+        else if (CompletionStage.class.equals(raw) || CompletableFuture.class.equals(raw))
+        {
+            Type arg = typeArgument(generic);
+
+            if (arg instanceof Class && ResultSet.class.isAssignableFrom((Class<?>) arg))
+            {
+                kind = ReturnKind.STAGE_RESULT_SET;
+                elementType = Row.class;
+            }
+            else if (isResult(arg))
+            {
+                kind = ReturnKind.STAGE_RESULT;
+                elementType = elementClass(typeArgument(arg));
+            }
+            else
+            {
+                kind = ReturnKind.STAGE_ONE;
+                elementType = elementClass(arg);
+            }
+        }
+        else if (Result.class.isAssignableFrom(raw))
+        {
+            kind = ReturnKind.RESULT;
+            elementType = elementClass(typeArgument(generic));
+        }
+        else if (Stream.class.equals(raw))
+        {
+            kind = ReturnKind.STREAM;
+            elementType = elementClass(typeArgument(generic));
+        }
+        else if (Iterator.class.equals(raw))
+        {
+            kind = ReturnKind.ITERATOR;
+            elementType = elementClass(typeArgument(generic));
+        }
+        else if (FLUX_CLASS.equals(raw.getName()))
+        {
+            kind = ReturnKind.FLUX;
+            elementType = elementClass(typeArgument(generic));
+        }
+        else if (MONO_CLASS.equals(raw.getName()))
+        {
+            kind = ReturnKind.MONO;
+            elementType = elementClass(typeArgument(generic));
+        }
+        else
+        {
+            kind = ReturnKind.ONE;
+            elementType = raw;
+        }
+    }
+
+    static boolean isQuery(Method method)
+    {
+        return method.getAnnotation(Query.class) != null;
+    }
+
+    void prepare(PreparedStatement statement)
+    {
+        this.statement = statement;
+    }
+
+    BoundStatement bind(Object[] args)
+    {
+        BoundStatement bs = statement.bind();
+
+        if (args != null)
+        {
+            for (int i = 0; i < args.length; i++)
+            {
+                if (names[i] == null)
+                {
+                    if (codecs[i] == null)
+                    {
+                        bs.set(i, args[i], types[i]);
+                    }
+                    else
+                    {
+                        bs.set(i, args[i], codecs[i]);
+                    }
+                }
+                else
+                {
+                    if (codecs[i] == null)
+                    {
+                        bs.set(names[i], args[i], types[i]);
+                    }
+                    else
+                    {
+                        bs.set(names[i], args[i], codecs[i]);
+                    }
+                }
+            }
+        }
+
+        ExecutionProfiles.apply(profile, bs);
+
+        if (consistency != null)
+        {
+            bs.setConsistencyLevel(consistency);
+        }
+        if (fetchSize > 0)
+        {
+            bs.setFetchSize(fetchSize);
+        }
+        if (tracing)
+        {
+            bs.enableTracing();
+        }
+        if (idempotent != null)
+        {
+            bs.setIdempotent(idempotent);
+        }
+
+        return bs;
+    }
+
+    private static Param param(Annotation[] annotations)
+    {
+        for (Annotation annotation : annotations)
+        {
+            if (annotation instanceof Param)
+            {
+                return (Param) annotation;
+            }
+        }
+
+        return null;
+    }
+
+    private static boolean isResult(Type type)
+    {
+        return type instanceof ParameterizedType
+                && ((ParameterizedType) type).getRawType() instanceof Class
+                && Result.class.isAssignableFrom((Class<?>) ((ParameterizedType) type).getRawType());
+    }
+
+    private Type typeArgument(Type type)
+    {
+        if (type instanceof ParameterizedType)
+        {
+            return ((ParameterizedType) type).getActualTypeArguments()[0];
+        }
+
+        throw new IllegalArgumentException(String.format("Cannot map return of method %s to raw type %s", method.getName(), type));
+    }
+
+    private Class<?> elementClass(Type type)
+    {
+        if (type instanceof Class)
+        {
+            return (Class<?>) type;
+        }
+
+        throw new IllegalArgumentException(String.format("Cannot map return of method %s to unsupported type %s", method.getName(), type));
+    }
+
+    private static Object newInstance(Class<?> type)
+    {
+        try
+        {
+            return type.getDeclaredConstructor().newInstance();
+        }
+        catch (Exception e)
+        {
+            throw new IllegalArgumentException("Cannot create codec instance " + type.getName(), e);
+        }
+    }
+}
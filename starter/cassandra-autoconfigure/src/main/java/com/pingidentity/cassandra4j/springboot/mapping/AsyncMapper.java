@@ -0,0 +1,191 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.mapping;
+
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.mapping.Mapper;
+import com.datastax.driver.mapping.Result;
+import com.pingidentity.cassandra4j.springboot.CassandraProperties.ProfileOptions;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+import static com.pingidentity.cassandra4j.springboot.utils.FutureUtils.toCompletableFuture;
+
+/**
+ * Datastax {@link Mapper} asynchronous operations exposed as {@link CompletionStage} instead of guava futures.
+ * Stages are completed on driver I/O threads, blocking work should be moved to own executor with *Async stage methods.
+ *
+ * When entity is cached, completed saves and deletes evict it from {@link CachingMapper} of the entity.
+ */
+public class AsyncMapper<T>
+{
+    private final Mapper<T> mapper;
+    private final Session session;
+    private final ProfileOptions profile;
+    private final MultiGet<T> multiGet;
+    private final Supplier<CachingMapper<T>> cache;
+
+    public AsyncMapper(Mapper<T> mapper)
+    {
+        this(mapper, 32, false, 10);
+    }
+
+    public AsyncMapper(Mapper<T> mapper, int concurrency, boolean groupByReplica, int maxGroupSize)
+    {
+        this(mapper, null, concurrency, groupByReplica, maxGroupSize);
+    }
+
+    /**
+     * @param profile execution profile applied to every statement, null to use mapper defaults
+     */
+    public AsyncMapper(Mapper<T> mapper, ProfileOptions profile, int concurrency, boolean groupByReplica, int maxGroupSize)
+    {
+        this(mapper, profile, concurrency, groupByReplica, maxGroupSize, () -> null);
+    }
+
+    /**
+     * @param cache caching mapper of the entity to invalidate on writes, supplying null when entity is not cached
+     */
+    public AsyncMapper(Mapper<T> mapper, ProfileOptions profile, int concurrency, boolean groupByReplica, int maxGroupSize,
+                       Supplier<CachingMapper<T>> cache)
+    {
+        this.mapper = mapper;
+        this.session = mapper.getManager().getSession();
+        this.profile = profile;
+        this.multiGet = new MultiGet<>(mapper, profile, concurrency, groupByReplica, maxGroupSize);
+        this.cache = cache;
+    }
+
+    public CompletionStage<Void> saveAsync(T entity)
+    {
+        CachingMapper<T> cached = cache.get();
+
+        if (profile == null && cached == null)
+        {
+            return toCompletableFuture(mapper.saveAsync(entity));
+        }
+
+        return execute(mapper.saveQuery(entity), cached);
+    }
+
+    public CompletionStage<Void> saveAsync(T entity, Mapper.Option... options)
+    {
+        CachingMapper<T> cached = cache.get();
+
+        if (profile == null && cached == null)
+        {
+            return toCompletableFuture(mapper.saveAsync(entity, options));
+        }
+
+        return execute(mapper.saveQuery(entity, options), cached);
+    }
+
+    public CompletionStage<T> getAsync(Object... primaryKey)
+    {
+        return multiGet.get(primaryKey);
+    }
+
+    /**
+     * Concurrently fetches entities by primary keys, composite keys are passed as {@code Object[]}.
+     *
+     * @return entities in keys order, null for keys without row. Fails on first failed read.
+     */
+    public CompletionStage<List<T>> getAllAsync(Collection<?> primaryKeys)
+    {
+        return multiGet.getAll(new ArrayList<>(primaryKeys));
+    }
+
+    /**
+     * Same as {@link #getAllAsync(Collection)}, but returns entities keyed by primary key in keys order, keys without row are omitted.
+     */
+    public <K> CompletionStage<Map<K, T>> getAllAsMapAsync(Collection<K> primaryKeys)
+    {
+        return multiGet.getAllAsMap(new ArrayList<>(primaryKeys));
+    }
+
+    public CompletionStage<Void> deleteAsync(T entity)
+    {
+        CachingMapper<T> cached = cache.get();
+
+        if (profile == null && cached == null)
+        {
+            return toCompletableFuture(mapper.deleteAsync(entity));
+        }
+
+        return execute(mapper.deleteQuery(entity), cached);
+    }
+
+    public CompletionStage<Void> deleteAsync(T entity, Mapper.Option... options)
+    {
+        CachingMapper<T> cached = cache.get();
+
+        if (profile == null && cached == null)
+        {
+            return toCompletableFuture(mapper.deleteAsync(entity, options));
+        }
+
+        return execute(mapper.deleteQuery(entity, options), cached);
+    }
+
+    public CompletionStage<Void> deleteAsync(Object... primaryKey)
+    {
+        CachingMapper<T> cached = cache.get();
+
+        if (profile == null && cached == null)
+        {
+            return toCompletableFuture(mapper.deleteAsync(primaryKey));
+        }
+
+        return execute(mapper.deleteQuery(primaryKey), cached);
+    }
+
+    public CompletionStage<Result<T>> mapAsync(ResultSetFuture resultSetFuture)
+    {
+        return toCompletableFuture(mapper.mapAsync(resultSetFuture));
+    }
+
+    private CompletionStage<Void> execute(Statement statement, CachingMapper<T> cached)
+    {
+        CompletionStage<Void> result = toCompletableFuture(session.executeAsync(ExecutionProfiles.apply(profile, statement))).thenApply(rs -> null);
+
+        if (cached == null)
+        {
+            return result;
+        }
+
+        //evicted after write, so concurrent read can't cache entity being replaced; failed write may be applied as well
+        List<ByteBuffer> key = cached.key(statement);
+
+        return result.whenComplete((ignored, error) -> cached.invalidate(key));
+    }
+
+    public Mapper<T> getMapper()
+    {
+        return mapper;
+    }
+}
@@ -0,0 +1,467 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.mapping;
+
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.CodecRegistry;
+import com.datastax.driver.core.ColumnMetadata;
+import com.datastax.driver.core.Configuration;
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.mapping.Mapper;
+import com.pingidentity.cassandra4j.springboot.CassandraProperties.BatchingOptions;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static com.pingidentity.cassandra4j.springboot.utils.FutureUtils.propagate;
+import static com.pingidentity.cassandra4j.springboot.utils.FutureUtils.toCompletableFuture;
+
+/**
+ * Buffers {@link Mapper} saves and writes them as UNLOGGED batches grouped by partition key, so every batch
+ * is applied by single replica set. Batch is sent when statements count or estimated size limit is reached,
+ * or when oldest buffered save waited for flush interval.
+ *
+ * Saves of primary key already buffered are never put into the same batch (statements of the batch share write timestamp,
+ * so conflict would be resolved by value instead of submission order), pending batch is sent first. Same goes for saves
+ * with other consistency level, serial consistency level or tracing than the pending batch of the partition. Batches are
+ * sent in submission order, so later save of a key is always written with later client side timestamp.
+ *
+ * Conditional saves ({@link Mapper.Option#ifNotExists}) are sent on their own right after pending batch of the partition,
+ * as a batch with condition is applied all or nothing. Like {@link Mapper#saveAsync}, the {@code [applied]} flag is not
+ * reported back.
+ *
+ * When entity is cached, written saves evict it from {@link CachingMapper} of the entity.
+ *
+ * Save statements are built on dedicated thread, as {@link Mapper#saveQuery} blocks while query is prepared
+ * for the first time.
+ *
+ * Number of buffered and in flight saves is bounded, {@link #saveAsync} is rejected with {@link RejectedExecutionException}
+ * right away when limit is reached, blocking {@link #save} waits for up to pending timeout first.
+ */
+public class BatchingMapper<T> implements AutoCloseable
+{
+    //single timer thread flushes expired batches of all mappers
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r ->
+    {
+        Thread thread = new Thread(r, "cassandra-batching");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    //single thread keeps saves in submission order, prepare of new query shape blocks it only once
+    private static final ExecutorService binder = Executors.newSingleThreadExecutor(r ->
+    {
+        Thread thread = new Thread(r, "cassandra-batching-bind");
+        thread.setDaemon(true);
+        binderThread = thread;
+        return thread;
+    });
+
+    private static volatile Thread binderThread;
+
+    private final Mapper<T> mapper;
+    private final Session session;
+    private final ProtocolVersion protocolVersion;
+    private final CodecRegistry codecRegistry;
+
+    private final int maxStatements;
+    private final int maxBytes;
+    private final long flushIntervalNanos;
+    private final long pendingTimeoutMs;
+
+    private final List<String> primaryKey = new ArrayList<>();
+
+    private final Semaphore pending;
+    private final ScheduledFuture<?> flushTask;
+    private final Map<ByteBuffer, Batch> batches = new HashMap<>();
+    private final Supplier<CachingMapper<T>> cache;
+
+    private volatile boolean closed;
+
+    public BatchingMapper(Mapper<T> mapper, BatchingOptions options)
+    {
+        this(mapper, options, () -> null);
+    }
+
+    /**
+     * @param cache caching mapper of the entity to invalidate on writes, supplying null when entity is not cached
+     */
+    public BatchingMapper(Mapper<T> mapper, BatchingOptions options, Supplier<CachingMapper<T>> cache)
+    {
+        this.mapper = mapper;
+        this.cache = cache;
+        this.session = mapper.getManager().getSession();
+
+        Configuration configuration = session.getCluster().getConfiguration();
+
+        this.protocolVersion = configuration.getProtocolOptions().getProtocolVersion();
+        this.codecRegistry = configuration.getCodecRegistry();
+
+        this.maxStatements = options.getMaxStatements();
+        this.maxBytes = options.getMaxBytes();
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(options.getFlushIntervalMs());
+        this.pendingTimeoutMs = options.getPendingTimeoutMs();
+        this.pending = new Semaphore(options.getMaxPending());
+
+        for (ColumnMetadata column : mapper.getTableMetadata().getPrimaryKey())
+        {
+            primaryKey.add(Metadata.quoteIfNecessary(column.getName()));
+        }
+
+        this.flushTask = scheduler.scheduleWithFixedDelay(this::flushExpired, options.getFlushIntervalMs(), options.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Buffers entity save, returned stage is completed when batch containing the save is written.
+     * Never blocks, stage fails with {@link RejectedExecutionException} when there are too many pending saves.
+     */
+    public CompletionStage<Void> saveAsync(T entity, Mapper.Option... options)
+    {
+        return submit(entity, 0, options);
+    }
+
+    /**
+     * Buffers entity save and waits for batch to be written.
+     */
+    public void save(T entity, Mapper.Option... options)
+    {
+        try
+        {
+            submit(entity, pendingTimeoutMs, options).join();
+        }
+        catch (Exception e)
+        {
+            throw propagate(e);
+        }
+    }
+
+    private CompletableFuture<Void> submit(T entity, long timeoutMs, Mapper.Option... options)
+    {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+
+        if (closed)
+        {
+            result.completeExceptionally(new IllegalStateException("Batching mapper is closed"));
+            return result;
+        }
+
+        try
+        {
+            if (!pending.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS))
+            {
+                result.completeExceptionally(new RejectedExecutionException("Too many pending saves for table " + mapper.getTableMetadata().getName()));
+                return result;
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        result.whenComplete((ignored, error) -> pending.release());
+
+        try
+        {
+            binder.execute(() ->
+            {
+                try
+                {
+                    Statement statement = mapper.saveQuery(entity, options);
+                    CachingMapper<T> cached = cache.get();
+
+                    if (cached != null)
+                    {
+                        List<ByteBuffer> key = cached.key(statement);
+                        result.whenComplete((ignored, error) -> cached.invalidate(key));
+                    }
+
+                    add(statement, result);
+                }
+                catch (Exception e)
+                {
+                    result.completeExceptionally(e);
+                }
+            });
+        }
+        catch (RejectedExecutionException e)
+        {
+            result.completeExceptionally(e);
+        }
+
+        return result;
+    }
+
+    /**
+     * Sends all buffered saves immediately, including saves submitted before whose statement is not built yet.
+     */
+    public void flush()
+    {
+        if (Thread.currentThread() == binderThread)
+        {
+            flushBuffered();
+            return;
+        }
+
+        try
+        {
+            CompletableFuture.runAsync(this::flushBuffered, binder).join();
+        }
+        catch (Exception e)
+        {
+            throw propagate(e);
+        }
+    }
+
+    private void flushBuffered()
+    {
+        synchronized (batches)
+        {
+            batches.values().forEach(this::execute);
+            batches.clear();
+        }
+    }
+
+    public Mapper<T> getMapper()
+    {
+        return mapper;
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+        flushTask.cancel(false);
+        flush();
+    }
+
+    private void add(Statement statement, CompletableFuture<Void> result)
+    {
+        ByteBuffer key = statement.getRoutingKey(protocolVersion, codecRegistry);
+
+        if (key == null)
+        {
+            //partition is unknown, nothing to group with
+            execute(new Batch(statement, null, result, 0));
+            return;
+        }
+
+        int size = statement.requestSizeInBytes(protocolVersion, codecRegistry);
+        Object identity = identity(statement);
+        boolean conditional = isConditional(statement);
+
+        //batches are sent while holding the lock, so client side timestamps follow submission order
+        synchronized (batches)
+        {
+            Batch batch = batches.get(key);
+
+            //repeated primary key or other options go to next batch, which is written with later client side timestamp
+            if (batch != null && (conditional || batch.bytes + size > maxBytes || !batch.accepts(statement, identity)))
+            {
+                batches.remove(key);
+                execute(batch);
+                batch = null;
+            }
+
+            //mapper closed meanwhile won't flush buffered saves anymore
+            if (conditional || closed)
+            {
+                execute(new Batch(statement, identity, result, size));
+                return;
+            }
+
+            if (batch == null)
+            {
+                batch = new Batch(statement, identity, result, size);
+                batches.put(key, batch);
+            }
+            else
+            {
+                batch.add(statement, identity, result, size);
+            }
+
+            if (batch.statements.size() >= maxStatements || batch.bytes >= maxBytes)
+            {
+                batches.remove(key);
+                execute(batch);
+            }
+        }
+    }
+
+    private static boolean isConditional(Statement statement)
+    {
+        return statement instanceof BoundStatement
+                && ((BoundStatement) statement).preparedStatement().getQueryString().toUpperCase().contains(" IF ");
+    }
+
+    /**
+     * @return values of primary key columns, null when statement is not bound by mapper
+     */
+    private Object identity(Statement statement)
+    {
+        if (!(statement instanceof BoundStatement))
+        {
+            return null;
+        }
+
+        BoundStatement bound = (BoundStatement) statement;
+        List<ByteBuffer> values = new ArrayList<>(primaryKey.size());
+
+        for (String column : primaryKey)
+        {
+            values.add(bound.getBytesUnsafe(column));
+        }
+
+        return values;
+    }
+
+    private void flushExpired()
+    {
+        long now = System.nanoTime();
+
+        synchronized (batches)
+        {
+            for (Iterator<Batch> it = batches.values().iterator(); it.hasNext(); )
+            {
+                Batch batch = it.next();
+
+                if (now - batch.createdAt >= flushIntervalNanos)
+                {
+                    it.remove();
+                    execute(batch);
+                }
+            }
+        }
+    }
+
+    private void execute(Batch batch)
+    {
+        Statement statement;
+
+        if (batch.statements.size() == 1)
+        {
+            statement = batch.statements.get(0);
+        }
+        else
+        {
+            //all statements of the batch share these options
+            statement = new BatchStatement(BatchStatement.Type.UNLOGGED).addAll(batch.statements);
+
+            if (batch.consistency != null)
+            {
+                statement.setConsistencyLevel(batch.consistency);
+            }
+
+            if (batch.serialConsistency != null)
+            {
+                statement.setSerialConsistencyLevel(batch.serialConsistency);
+            }
+
+            if (batch.tracing)
+            {
+                statement.enableTracing();
+            }
+        }
+
+        try
+        {
+            toCompletableFuture(session.executeAsync(statement)).whenComplete((rs, error) -> batch.complete(error));
+        }
+        catch (Exception e)
+        {
+            batch.complete(e);
+        }
+    }
+
+    private static class Batch
+    {
+        final long createdAt = System.nanoTime();
+        final ConsistencyLevel consistency;
+        final ConsistencyLevel serialConsistency;
+        final boolean tracing;
+        final List<Statement> statements = new ArrayList<>();
+        final List<CompletableFuture<Void>> results = new ArrayList<>();
+        final Set<Object> keys = new HashSet<>();
+        int bytes;
+
+        Batch(Statement statement, Object identity, CompletableFuture<Void> result, int size)
+        {
+            this.consistency = statement.getConsistencyLevel();
+            this.serialConsistency = statement.getSerialConsistencyLevel();
+            this.tracing = statement.isTracing();
+
+            add(statement, identity, result, size);
+        }
+
+        boolean accepts(Statement statement, Object identity)
+        {
+            //unknown primary key may repeat any buffered one
+            return identity != null && !keys.contains(identity)
+                    && consistency == statement.getConsistencyLevel()
+                    && serialConsistency == statement.getSerialConsistencyLevel()
+                    && tracing == statement.isTracing();
+        }
+
+        void add(Statement statement, Object identity, CompletableFuture<Void> result, int size)
+        {
+            keys.add(identity);
+            statements.add(statement);
+            results.add(result);
+            bytes += size;
+        }
+
+        void complete(Throwable error)
+        {
+            for (CompletableFuture<Void> result : results)
+            {
+                if (error == null)
+                {
+                    result.complete(null);
+                }
+                else
+                {
+                    result.completeExceptionally(error);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.mapping;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Opts {@code @Table} entity into read-through caching, registers {@link CachingMapper} bean alongside the mapper.
+ * Limits configured with {@code cassandra.cache.entities.<SimpleClassName>.*} properties take precedence.
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CachedEntity
+{
+    /**
+     * @return max number of cached entities, negative to use {@code cassandra.cache.maximum-size}
+     */
+    long maximumSize() default -1;
+
+    /**
+     * @return time to live of cached entity since load, negative to use {@code cassandra.cache.ttl-ms}
+     */
+    long ttlMs() default -1;
+}
@@ -0,0 +1,216 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.mapping;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.ColumnMetadata;
+import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.mapping.Mapper;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.pingidentity.cassandra4j.springboot.utils.FutureUtils.propagate;
+import static com.pingidentity.cassandra4j.springboot.utils.FutureUtils.toCompletableFuture;
+
+/**
+ * Read-through cache in front of datastax {@link Mapper#get(Object...)}, bounded by size and time to live.
+ *
+ * Entities are cached by serialized primary key, so keys passed to {@code get} and keys taken from saved/deleted entities
+ * always match regardless of java types and codecs involved. Missing entities are not cached. Entity is loaded with
+ * {@link Mapper#getAsync(Object...)} outside of cache locks, concurrent gets of the same key share one load.
+ *
+ * Cache is coherent only with writes through this mapper and through {@link AsyncMapper} and {@link BatchingMapper} of the same
+ * {@code MapperFactory}, they invalidate cached entity once write completes (partial saves skipping null fields would make
+ * entity differ from the row). <b>Writes through datastax {@code Mapper<T>}, accessors or any other query are not seen
+ * until time to live expires</b>, call {@link #invalidate(Object)} after such writes.
+ */
+public class CachingMapper<T>
+{
+    private final Class<T> type;
+    private final Mapper<T> mapper;
+    private final AsyncLoadingCache<List<ByteBuffer>, T> cache;
+    private final List<String> primaryKey = new ArrayList<>();
+
+    public CachingMapper(Class<T> type, Mapper<T> mapper, long maximumSize, long ttlMs)
+    {
+        this.type = type;
+        this.mapper = mapper;
+        this.cache = Caffeine.newBuilder()
+                             .maximumSize(maximumSize)
+                             .expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS)
+                             .recordStats()
+                             //entities are always loaded by their primary key values, which can't be restored from cache key
+                             .buildAsync(key -> null);
+
+        for (ColumnMetadata column : mapper.getTableMetadata().getPrimaryKey())
+        {
+            primaryKey.add(Metadata.quoteIfNecessary(column.getName()));
+        }
+    }
+
+    /**
+     * @see Mapper#get(Object...)
+     */
+    public T get(Object... primaryKey)
+    {
+        try
+        {
+            return getAsync(primaryKey).join();
+        }
+        catch (Exception e)
+        {
+            throw propagate(e);
+        }
+    }
+
+    /**
+     * @return entity or null when there is no row, stage is completed on driver I/O thread when entity is loaded
+     */
+    public CompletableFuture<T> getAsync(Object... primaryKey)
+    {
+        List<ByteBuffer> key = key(mapper.getQuery(primaryKey));
+
+        //invalidation drops in-flight load of the key, so load racing with write doesn't cache stale entity
+        return cache.get(key, (k, executor) -> toCompletableFuture(mapper.getAsync(primaryKey)));
+    }
+
+    public void save(T entity)
+    {
+        mapper.save(entity);
+        invalidate(entity);
+    }
+
+    public void save(T entity, Mapper.Option... options)
+    {
+        mapper.save(entity, options);
+        invalidate(entity);
+    }
+
+    public void delete(T entity)
+    {
+        mapper.delete(entity);
+        invalidate(entity);
+    }
+
+    public void delete(T entity, Mapper.Option... options)
+    {
+        mapper.delete(entity, options);
+        invalidate(entity);
+    }
+
+    public void delete(Object... primaryKey)
+    {
+        mapper.delete(primaryKey);
+        invalidate(key(mapper.deleteQuery(primaryKey)));
+    }
+
+    /**
+     * Evicts entity with same primary key as given one, e.g. after it was changed bypassing this mapper.
+     */
+    public void invalidate(T entity)
+    {
+        invalidate(key(mapper.deleteQuery(entity)));
+    }
+
+    public void invalidateAll()
+    {
+        entries().invalidateAll();
+    }
+
+    void invalidate(List<ByteBuffer> key)
+    {
+        entries().invalidate(key);
+    }
+
+    /**
+     * @param statement bound save, get or delete statement of the table
+     */
+    List<ByteBuffer> key(Statement statement)
+    {
+        BoundStatement bound = (BoundStatement) statement;
+        List<ByteBuffer> key = new ArrayList<>(primaryKey.size());
+
+        for (String column : primaryKey)
+        {
+            key.add(bound.getBytesUnsafe(column));
+        }
+
+        return key;
+    }
+
+    public Mapper<T> getMapper()
+    {
+        return mapper;
+    }
+
+    public String getKeyspace()
+    {
+        return mapper.getTableMetadata().getKeyspace().getName();
+    }
+
+    public String getClusterName()
+    {
+        return mapper.getManager().getSession().getCluster().getClusterName();
+    }
+
+    public Class<T> getEntityClass()
+    {
+        return type;
+    }
+
+    public long size()
+    {
+        return entries().estimatedSize();
+    }
+
+    public CacheStats stats()
+    {
+        return entries().stats();
+    }
+
+    public long getHitCount()
+    {
+        return stats().hitCount();
+    }
+
+    public long getMissCount()
+    {
+        return stats().missCount();
+    }
+
+    public long getEvictionCount()
+    {
+        return stats().evictionCount();
+    }
+
+    private LoadingCache<List<ByteBuffer>, T> entries()
+    {
+        return cache.synchronous();
+    }
+}
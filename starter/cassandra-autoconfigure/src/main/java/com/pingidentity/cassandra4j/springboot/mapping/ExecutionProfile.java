@@ -0,0 +1,42 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.mapping;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Applies named {@code cassandra.profiles.<name>.*} execution profile to statements of {@code @Accessor} method,
+ * all methods of {@code @Accessor} interface or {@code @Table} entity mappers. Method annotation takes precedence over interface one,
+ * {@link com.datastax.driver.mapping.annotations.QueryParameters} of the method are applied on top of the profile.
+ */
+@Documented
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ExecutionProfile
+{
+    /**
+     * @return profile name, must be configured under {@code cassandra.profiles}
+     */
+    String value();
+}
@@ -0,0 +1,117 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.mapping;
+
+import com.datastax.driver.core.Statement;
+import com.pingidentity.cassandra4j.springboot.CassandraProperties.ProfileOptions;
+
+import java.lang.reflect.AnnotatedElement;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Named statement execution profiles configured with {@code cassandra.profiles.<name>.*} properties.
+ * Profile overrides cluster wide query options of single statement, settings omitted in profile are left intact.
+ */
+public class ExecutionProfiles
+{
+    private final Map<String, ProfileOptions> profiles;
+
+    public ExecutionProfiles(Map<String, ProfileOptions> profiles)
+    {
+        this.profiles = profiles != null ? new LinkedHashMap<>(profiles) : Collections.emptyMap();
+    }
+
+    public Set<String> getNames()
+    {
+        return Collections.unmodifiableSet(profiles.keySet());
+    }
+
+    /**
+     * @throws IllegalArgumentException when profile is not configured
+     */
+    public ProfileOptions get(String name)
+    {
+        ProfileOptions profile = profiles.get(name);
+
+        if (profile == null)
+        {
+            throw new IllegalArgumentException("Unknown execution profile '" + name + "', configured profiles are " + profiles.keySet());
+        }
+
+        return profile;
+    }
+
+    public <S extends Statement> S apply(String name, S statement)
+    {
+        return apply(get(name), statement);
+    }
+
+    /**
+     * @return profile of first element annotated with {@link ExecutionProfile}, null when none is annotated
+     */
+    public ProfileOptions forElement(AnnotatedElement... candidates)
+    {
+        for (AnnotatedElement candidate : candidates)
+        {
+            ExecutionProfile annotation = candidate.getAnnotation(ExecutionProfile.class);
+
+            if (annotation != null)
+            {
+                return get(annotation.value());
+            }
+        }
+
+        return null;
+    }
+
+    static <S extends Statement> S apply(ProfileOptions profile, S statement)
+    {
+        if (profile == null)
+        {
+            return statement;
+        }
+
+        if (profile.getConsistencyLevel() != null)
+        {
+            statement.setConsistencyLevel(profile.getConsistencyLevel());
+        }
+        if (profile.getSerialConsistencyLevel() != null)
+        {
+            statement.setSerialConsistencyLevel(profile.getSerialConsistencyLevel());
+        }
+        if (profile.getReadTimeoutMs() != null)
+        {
+            statement.setReadTimeoutMillis(profile.getReadTimeoutMs());
+        }
+        if (profile.getFetchSize() != null)
+        {
+            statement.setFetchSize(profile.getFetchSize());
+        }
+        if (profile.getIdempotent() != null)
+        {
+            statement.setIdempotent(profile.getIdempotent());
+        }
+
+        return statement;
+    }
+}
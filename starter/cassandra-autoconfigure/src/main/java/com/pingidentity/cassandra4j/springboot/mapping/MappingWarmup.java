@@ -0,0 +1,211 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.mapping;
+
+import com.datastax.driver.mapping.Mapper;
+import com.datastax.driver.mapping.annotations.Query;
+import com.pingidentity.cassandra4j.springboot.CassandraProperties.WarmupOptions;
+import com.pingidentity.cassandra4j.springboot.MapperFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates mappers and accessors and prepares their statements concurrently before application starts serving requests,
+ * so first requests after deploy don't pay statements preparation round trips.
+ *
+ * Mapper save, get and delete statements are prepared through mapper itself to populate its statements cache.
+ * Mappers and accessors are grouped by factory that registered them, so each is warmed on the session it is bound to.
+ */
+public class MappingWarmup implements InitializingBean
+{
+    private static final Logger log = LoggerFactory.getLogger(MappingWarmup.class);
+
+    private final Map<MapperFactory, ? extends Collection<Class<?>>> mappers;
+    private final Map<MapperFactory, ? extends Collection<Class<?>>> accessors;
+    private final int parallelism;
+    private final long timeoutMs;
+
+    public MappingWarmup(MapperFactory factory, Collection<Class<?>> mappers, Collection<Class<?>> accessors, WarmupOptions options)
+    {
+        this(Collections.singletonMap(factory, mappers), Collections.singletonMap(factory, accessors), options);
+    }
+
+    public MappingWarmup(Map<MapperFactory, ? extends Collection<Class<?>>> mappers, Map<MapperFactory, ? extends Collection<Class<?>>> accessors,
+                         WarmupOptions options)
+    {
+        this.mappers = mappers;
+        this.accessors = accessors;
+        this.parallelism = Math.max(1, options.getParallelism());
+        this.timeoutMs = options.getTimeoutMs();
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception
+    {
+        AtomicInteger counter = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, r ->
+        {
+            Thread thread = new Thread(r, "cassandra-warmup-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long start = System.nanoTime();
+
+        try
+        {
+            for (Map.Entry<MapperFactory, ? extends Collection<Class<?>>> entry : mappers.entrySet())
+            {
+                for (Class<?> type : entry.getValue())
+                {
+                    Mapper<?> mapper = entry.getKey().newMapper(type);
+                    int keySize = mapper.getTableMetadata().getPrimaryKey().size();
+
+                    executor.execute(() -> timed(type.getSimpleName() + " save", () -> save(mapper, type)));
+                    executor.execute(() -> timed(type.getSimpleName() + " get", () -> byKey(() -> mapper.getQuery(new Object[keySize]))));
+                    executor.execute(() -> timed(type.getSimpleName() + " delete", () -> byKey(() -> mapper.deleteQuery(new Object[keySize]))));
+                }
+            }
+
+            for (Map.Entry<MapperFactory, ? extends Collection<Class<?>>> entry : accessors.entrySet())
+            {
+                MapperFactory factory = entry.getKey();
+
+                for (Class<?> type : entry.getValue())
+                {
+                    executor.execute(() -> timed(type.getSimpleName() + " accessor (" + queries(type) + " statements)", () -> factory.newAccessor(type)));
+                }
+            }
+
+            executor.shutdown();
+
+            if (!executor.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS))
+            {
+                log.warn("Cassandra warm-up didn't complete in {} ms, remaining statements will be prepared on first use", timeoutMs);
+            }
+            else
+            {
+                log.info("Cassandra warm-up of {} mappers and {} accessors completed in {} ms",
+                         count(mappers), count(accessors), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private void timed(String name, Action action)
+    {
+        long start = System.nanoTime();
+
+        try
+        {
+            action.run();
+
+            log.info("Prepared {} in {} ms", name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        catch (Exception e)
+        {
+            log.warn("Unable to prepare {}, will retry on first use", name, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void save(Mapper<?> mapper, Class<?> type) throws Exception
+    {
+        Constructor<?> constructor = type.getDeclaredConstructor();
+        constructor.setAccessible(true);
+
+        ((Mapper<Object>) mapper).saveQuery(constructor.newInstance());
+    }
+
+    private void byKey(Action query) throws Exception
+    {
+        try
+        {
+            query.run();
+        }
+        catch (RuntimeException e)
+        {
+            //statement is prepared before primary key values are validated, empty key rejection is expected
+            if (!(rootCause(e) instanceof IllegalArgumentException))
+            {
+                throw e;
+            }
+        }
+    }
+
+    private static Throwable rootCause(Throwable t)
+    {
+        Throwable result = t;
+
+        while (result.getCause() != null && result.getCause() != result)
+        {
+            result = result.getCause();
+        }
+
+        return result;
+    }
+
+    private static int count(Map<MapperFactory, ? extends Collection<Class<?>>> types)
+    {
+        int count = 0;
+
+        for (Collection<Class<?>> group : types.values())
+        {
+            count += group.size();
+        }
+
+        return count;
+    }
+
+    private static int queries(Class<?> type)
+    {
+        int count = 0;
+
+        for (Method method : type.getDeclaredMethods())
+        {
+            if (method.getAnnotation(Query.class) != null)
+            {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    private interface Action
+    {
+        void run() throws Exception;
+    }
+}
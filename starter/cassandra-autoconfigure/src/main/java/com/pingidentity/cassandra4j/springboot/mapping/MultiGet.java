@@ -0,0 +1,350 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.mapping;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.ColumnMetadata;
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.TableMetadata;
+import com.datastax.driver.mapping.Mapper;
+import com.datastax.driver.mapping.Result;
+import com.pingidentity.cassandra4j.springboot.CassandraProperties.ProfileOptions;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+import static com.pingidentity.cassandra4j.springboot.utils.FutureUtils.toCompletableFuture;
+
+/**
+ * Concurrent multi-get of mapped entities by primary keys. Every key is fetched with own token aware single partition read,
+ * at most {@code concurrency} reads are in flight per call.
+ *
+ * With replica grouping enabled keys owned by the same replica set are fetched together with {@code IN} query routed to that
+ * replica set (up to {@code maxGroupSize} keys per query), which saves requests without extra coordinator hops.
+ * Grouping applies to tables with single column primary key only, other tables are always fetched key by key.
+ */
+class MultiGet<T>
+{
+    private final Mapper<T> mapper;
+    private final ProfileOptions profile;
+    private final int concurrency;
+    private final boolean groupByReplica;
+    private final int maxGroupSize;
+
+    //prepared 'IN (?, ?, ...)' queries by number of keys
+    private final Map<Integer, CompletableFuture<PreparedStatement>> inQueries = new ConcurrentHashMap<>();
+
+    MultiGet(Mapper<T> mapper, ProfileOptions profile, int concurrency, boolean groupByReplica, int maxGroupSize)
+    {
+        this.mapper = mapper;
+        this.profile = profile;
+        this.concurrency = Math.max(1, concurrency);
+        this.groupByReplica = groupByReplica && maxGroupSize > 1 && isSingleColumnKey(mapper.getTableMetadata());
+        this.maxGroupSize = maxGroupSize;
+    }
+
+    /**
+     * @param keys primary keys, {@code Object[]} for composite ones
+     * @return entities in keys order, null for missing ones
+     */
+    CompletableFuture<List<T>> getAll(List<?> keys)
+    {
+        AtomicReferenceArray<T> results = new AtomicReferenceArray<>(keys.size());
+        List<Supplier<CompletableFuture<Void>>> reads = groupByReplica ? groupedReads(keys, results) : singleReads(keys, results);
+
+        return runBounded(reads, concurrency).thenApply(ignored ->
+        {
+            List<T> entities = new ArrayList<>(results.length());
+
+            for (int i = 0; i < results.length(); i++)
+            {
+                entities.add(results.get(i));
+            }
+
+            return entities;
+        });
+    }
+
+    /**
+     * Single partition read, with execution profile applied when set
+     */
+    CompletableFuture<T> get(Object... primaryKey)
+    {
+        if (profile == null)
+        {
+            return toCompletableFuture(mapper.getAsync(primaryKey));
+        }
+
+        Statement statement = ExecutionProfiles.apply(profile, mapper.getQuery(primaryKey));
+
+        return toCompletableFuture(mapper.mapAsync(mapper.getManager().getSession().executeAsync(statement))).thenApply(Result::one);
+    }
+
+    <K> CompletableFuture<Map<K, T>> getAllAsMap(List<K> keys)
+    {
+        return getAll(keys).thenApply(entities ->
+        {
+            Map<K, T> result = new LinkedHashMap<>();
+
+            for (int i = 0; i < keys.size(); i++)
+            {
+                if (entities.get(i) != null)
+                {
+                    result.put(keys.get(i), entities.get(i));
+                }
+            }
+
+            return result;
+        });
+    }
+
+    private List<Supplier<CompletableFuture<Void>>> singleReads(List<?> keys, AtomicReferenceArray<T> results)
+    {
+        List<Supplier<CompletableFuture<Void>>> reads = new ArrayList<>(keys.size());
+
+        for (int i = 0; i < keys.size(); i++)
+        {
+            int index = i;
+            Object[] key = primaryKey(keys.get(i));
+
+            reads.add(() -> get(key).thenAccept(entity -> results.set(index, entity)));
+        }
+
+        return reads;
+    }
+
+    private List<Supplier<CompletableFuture<Void>>> groupedReads(List<?> keys, AtomicReferenceArray<T> results)
+    {
+        Session session = mapper.getManager().getSession();
+        Cluster cluster = session.getCluster();
+        Metadata metadata = cluster.getMetadata();
+        String keyspace = Metadata.quoteIfNecessary(mapper.getTableMetadata().getKeyspace().getName());
+
+        //distinct serialized keys grouped by owning replica set, every key mapped to all its positions
+        Map<Set<Host>, List<Integer>> groups = new LinkedHashMap<>();
+        Map<ByteBuffer, List<Integer>> positions = new HashMap<>();
+        List<ByteBuffer> serialized = new ArrayList<>(keys.size());
+
+        for (int i = 0; i < keys.size(); i++)
+        {
+            BoundStatement get = (BoundStatement) mapper.getQuery(primaryKey(keys.get(i)));
+            ByteBuffer key = get.getBytesUnsafe(0);
+            List<Integer> same = positions.get(key);
+
+            serialized.add(key);
+
+            if (same != null)
+            {
+                //repeated key is read once
+                same.add(i);
+                continue;
+            }
+
+            positions.put(key, new ArrayList<>(Collections.singletonList(i)));
+
+            ByteBuffer routingKey = get.getRoutingKey(cluster.getConfiguration().getProtocolOptions().getProtocolVersion(),
+                                                      cluster.getConfiguration().getCodecRegistry());
+
+            groups.computeIfAbsent(metadata.getReplicas(keyspace, routingKey), r -> new ArrayList<>()).add(i);
+        }
+
+        List<Supplier<CompletableFuture<Void>>> reads = new ArrayList<>();
+
+        for (List<Integer> group : groups.values())
+        {
+            for (int from = 0; from < group.size(); from += maxGroupSize)
+            {
+                List<Integer> chunk = group.subList(from, Math.min(group.size(), from + maxGroupSize));
+
+                reads.add(() -> chunk.size() == 1
+                        ? get(primaryKey(keys.get(chunk.get(0)))).thenAccept(entity -> fill(positions.get(serialized.get(chunk.get(0))), entity, results))
+                        : readGroup(chunk, serialized, positions, results));
+            }
+        }
+
+        return reads;
+    }
+
+    private CompletableFuture<Void> readGroup(List<Integer> indexes, List<ByteBuffer> serialized, Map<ByteBuffer, List<Integer>> positions,
+                                              AtomicReferenceArray<T> results)
+    {
+        Session session = mapper.getManager().getSession();
+
+        return inQuery(indexes.size()).thenCompose(prepared ->
+        {
+            BoundStatement statement = ExecutionProfiles.apply(profile, prepared.bind());
+
+            for (int i = 0; i < indexes.size(); i++)
+            {
+                statement.setBytesUnsafe(i, serialized.get(indexes.get(i)));
+            }
+
+            //route to replica set of the group
+            statement.setRoutingKey(serialized.get(indexes.get(0)));
+
+            return toCompletableFuture(mapper.mapAsync(session.executeAsync(statement))).thenAccept(entities ->
+            {
+                for (T entity : entities)
+                {
+                    //match entity back to requested key by its serialized primary key
+                    List<Integer> same = positions.get(((BoundStatement) mapper.deleteQuery(entity)).getBytesUnsafe(0));
+
+                    if (same != null)
+                    {
+                        fill(same, entity, results);
+                    }
+                }
+            });
+        });
+    }
+
+    private void fill(List<Integer> indexes, T entity, AtomicReferenceArray<T> results)
+    {
+        for (int index : indexes)
+        {
+            results.set(index, entity);
+        }
+    }
+
+    private CompletableFuture<PreparedStatement> inQuery(int size)
+    {
+        CompletableFuture<PreparedStatement> prepared = inQueries.get(size);
+
+        //concurrent callers may prepare same query twice, which is harmless
+        if (prepared == null || prepared.isCompletedExceptionally())
+        {
+            TableMetadata table = mapper.getTableMetadata();
+            String query = "SELECT * FROM " + Metadata.quoteIfNecessary(table.getKeyspace().getName()) + "." + Metadata.quoteIfNecessary(table.getName())
+                    + " WHERE " + Metadata.quoteIfNecessary(table.getPrimaryKey().get(0).getName())
+                    + " IN (" + String.join(", ", Collections.nCopies(size, "?")) + ")";
+
+            prepared = toCompletableFuture(mapper.getManager().getSession().prepareAsync(query));
+            inQueries.put(size, prepared);
+        }
+
+        return prepared;
+    }
+
+    /**
+     * Runs reads keeping at most {@code concurrency} of them in flight, fails on first failed read.
+     * Reads completing synchronously don't recurse, next reads are launched by the loop already running.
+     */
+    static CompletableFuture<Void> runBounded(List<Supplier<CompletableFuture<Void>>> reads, int concurrency)
+    {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+
+        if (reads.isEmpty())
+        {
+            done.complete(null);
+            return done;
+        }
+
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger remaining = new AtomicInteger(reads.size());
+        AtomicInteger slots = new AtomicInteger(concurrency);
+        AtomicInteger wip = new AtomicInteger();
+
+        Runnable drain = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                if (wip.getAndIncrement() != 0)
+                {
+                    return;
+                }
+
+                int missed = 1;
+
+                do
+                {
+                    while (slots.get() > 0 && next.get() < reads.size() && !done.isDone())
+                    {
+                        slots.decrementAndGet();
+
+                        CompletableFuture<Void> read;
+
+                        try
+                        {
+                            read = reads.get(next.getAndIncrement()).get();
+                        }
+                        catch (RuntimeException e)
+                        {
+                            done.completeExceptionally(e);
+                            return;
+                        }
+
+                        read.whenComplete((ignored, error) ->
+                        {
+                            if (error != null)
+                            {
+                                done.completeExceptionally(error);
+                            }
+                            else if (remaining.decrementAndGet() == 0)
+                            {
+                                done.complete(null);
+                            }
+                            else
+                            {
+                                slots.incrementAndGet();
+                                run();
+                            }
+                        });
+                    }
+
+                    missed = wip.addAndGet(-missed);
+                }
+                while (missed != 0);
+            }
+        };
+
+        drain.run();
+
+        return done;
+    }
+
+    private static Object[] primaryKey(Object key)
+    {
+        return key instanceof Object[] ? (Object[]) key : new Object[] {key};
+    }
+
+    private static boolean isSingleColumnKey(TableMetadata table)
+    {
+        List<ColumnMetadata> primaryKey = table.getPrimaryKey();
+
+        return primaryKey.size() == 1;
+    }
+}
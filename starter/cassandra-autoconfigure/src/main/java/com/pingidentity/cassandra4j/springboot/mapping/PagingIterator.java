@@ -0,0 +1,74 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.mapping;
+
+import com.datastax.driver.core.PagingIterable;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterator over driver paging results, next page is fetched only when current one is fully consumed.
+ * Closing iterator stops fetching and releases reference to already fetched rows.
+ */
+public class PagingIterator<T> implements Iterator<T>, AutoCloseable
+{
+    private volatile PagingIterable<?, T> source;
+
+    public PagingIterator(PagingIterable<?, T> source)
+    {
+        this.source = source;
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        PagingIterable<?, T> current = source;
+
+        return current != null && !current.isExhausted();
+    }
+
+    @Override
+    public T next()
+    {
+        if (!hasNext())
+        {
+            throw new NoSuchElementException();
+        }
+
+        return source.one();
+    }
+
+    @Override
+    public void close()
+    {
+        source = null;
+    }
+
+    public Stream<T> stream()
+    {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                            .onClose(this::close);
+    }
+}
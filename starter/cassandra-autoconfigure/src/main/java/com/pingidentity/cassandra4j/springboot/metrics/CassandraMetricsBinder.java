@@ -0,0 +1,267 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+package com.pingidentity.cassandra4j.springboot.metrics;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.Metrics;
+import com.datastax.driver.core.Session;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exposes datastax driver metrics (normally reported over dropwizard registry) as micrometer meters.
+ * Driver metrics exist only after cluster initialization, so meters are bound once initialized stage completes.
+ */
+public class CassandraMetricsBinder implements MeterBinder
+{
+    private static final long STATE_TTL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Cluster cluster;
+    private final Session session;
+    private final double[] percentiles;
+    private final boolean perHost;
+    private final Tags tags;
+    private final CompletionStage<?> initialized;
+
+    private final Map<Host, List<Meter>> hostMeters = new ConcurrentHashMap<>();
+
+    //every per host gauge of one scrape reads the same session state snapshot
+    private volatile Session.State state;
+    private volatile long stateTakenAt;
+
+    public CassandraMetricsBinder(Cluster cluster, Session session, double[] percentiles, boolean perHost)
+    {
+        this(cluster, session, percentiles, perHost, CompletableFuture.completedFuture(null));
+    }
+
+    public CassandraMetricsBinder(Cluster cluster, Session session, double[] percentiles, boolean perHost, CompletionStage<?> initialized)
+    {
+        this.initialized = initialized;
+        this.cluster = cluster;
+        this.session = session;
+        this.percentiles = percentiles != null ? percentiles : new double[0];
+        this.perHost = perHost;
+        this.tags = Tags.of("cluster", String.valueOf(cluster.getClusterName()));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry)
+    {
+        initialized.thenRun(() -> bind(registry));
+    }
+
+    private void bind(MeterRegistry registry)
+    {
+        Metrics metrics = cluster.getMetrics();
+
+        if (metrics != null)
+        {
+            bindRequests(registry, metrics.getRequestsTimer());
+            bindGauges(registry, metrics);
+            bindErrors(registry, metrics.getErrorMetrics());
+        }
+
+        if (perHost)
+        {
+            for (Host host : cluster.getMetadata().getAllHosts())
+            {
+                bindHost(registry, host);
+            }
+
+            cluster.register(new Host.StateListener()
+            {
+                @Override
+                public void onAdd(Host host)
+                {
+                    bindHost(registry, host);
+                }
+
+                @Override
+                public void onUp(Host host) {}
+
+                @Override
+                public void onDown(Host host) {}
+
+                @Override
+                public void onRemove(Host host)
+                {
+                    unbindHost(registry, host);
+                }
+
+                @Override
+                public void onRegister(Cluster cluster) {}
+
+                @Override
+                public void onUnregister(Cluster cluster) {}
+            });
+        }
+    }
+
+    private void bindRequests(MeterRegistry registry, Timer timer)
+    {
+        FunctionCounter.builder("cassandra.requests", timer, Timer::getCount)
+                       .tags(tags)
+                       .description("Number of user requests performed by the session")
+                       .register(registry);
+
+        for (double percentile : percentiles)
+        {
+            TimeGauge.builder("cassandra.requests.latency", timer, TimeUnit.NANOSECONDS, t -> t.getSnapshot().getValue(percentile))
+                     .tags(tags)
+                     .tag("quantile", String.valueOf(percentile))
+                     .description("User request latency percentile")
+                     .register(registry);
+        }
+
+        TimeGauge.builder("cassandra.requests.latency.max", timer, TimeUnit.NANOSECONDS, t -> t.getSnapshot().getMax())
+                 .tags(tags)
+                 .description("Max user request latency")
+                 .register(registry);
+    }
+
+    private void bindGauges(MeterRegistry registry, Metrics metrics)
+    {
+        gauge(registry, "cassandra.hosts.known", metrics.getKnownHosts(), "Number of hosts known by the driver");
+        gauge(registry, "cassandra.hosts.connected", metrics.getConnectedToHosts(), "Number of hosts the driver is connected to");
+        gauge(registry, "cassandra.connections.open", metrics.getOpenConnections(), "Number of open connections to all hosts");
+        gauge(registry, "cassandra.connections.trashed", metrics.getTrashedConnections(), "Number of trashed connections to all hosts");
+        gauge(registry, "cassandra.requests.inflight", metrics.getInFlightRequests(), "Number of requests currently in flight");
+        gauge(registry, "cassandra.requests.queued", metrics.getRequestQueueDepth(), "Number of requests waiting for a pool connection");
+        gauge(registry, "cassandra.executor.queue.depth", metrics.getExecutorQueueDepth(), "Number of queued tasks in the main driver executor");
+        gauge(registry, "cassandra.executor.blocking.queue.depth", metrics.getBlockingExecutorQueueDepth(), "Number of queued tasks in the blocking driver executor");
+        gauge(registry, "cassandra.scheduler.reconnection.queue.size", metrics.getReconnectionSchedulerQueueSize(), "Number of queued reconnection tasks");
+        gauge(registry, "cassandra.scheduler.task.queue.size", metrics.getTaskSchedulerQueueSize(), "Number of queued scheduled tasks");
+    }
+
+    private void bindErrors(MeterRegistry registry, Metrics.Errors errors)
+    {
+        counter(registry, "cassandra.errors", "connection", errors.getConnectionErrors());
+        counter(registry, "cassandra.errors", "authentication", errors.getAuthenticationErrors());
+        counter(registry, "cassandra.errors", "read-timeout", errors.getReadTimeouts());
+        counter(registry, "cassandra.errors", "write-timeout", errors.getWriteTimeouts());
+        counter(registry, "cassandra.errors", "unavailable", errors.getUnavailables());
+        counter(registry, "cassandra.errors", "client-timeout", errors.getClientTimeouts());
+        counter(registry, "cassandra.errors", "other", errors.getOthers());
+
+        counter(registry, "cassandra.retries", "read-timeout", errors.getRetriesOnReadTimeout());
+        counter(registry, "cassandra.retries", "write-timeout", errors.getRetriesOnWriteTimeout());
+        counter(registry, "cassandra.retries", "unavailable", errors.getRetriesOnUnavailable());
+        counter(registry, "cassandra.retries", "client-timeout", errors.getRetriesOnClientTimeout());
+        counter(registry, "cassandra.retries", "connection", errors.getRetriesOnConnectionError());
+        counter(registry, "cassandra.retries", "other", errors.getRetriesOnOtherErrors());
+
+        counter(registry, "cassandra.ignores", "read-timeout", errors.getIgnoresOnReadTimeout());
+        counter(registry, "cassandra.ignores", "write-timeout", errors.getIgnoresOnWriteTimeout());
+        counter(registry, "cassandra.ignores", "unavailable", errors.getIgnoresOnUnavailable());
+        counter(registry, "cassandra.ignores", "client-timeout", errors.getIgnoresOnClientTimeout());
+        counter(registry, "cassandra.ignores", "connection", errors.getIgnoresOnConnectionError());
+        counter(registry, "cassandra.ignores", "other", errors.getIgnoresOnOtherErrors());
+
+        FunctionCounter.builder("cassandra.speculative.executions", errors.getSpeculativeExecutions(), Counter::getCount)
+                       .tags(tags)
+                       .description("Number of speculative executions started")
+                       .register(registry);
+    }
+
+    private void bindHost(MeterRegistry registry, Host host)
+    {
+        hostMeters.computeIfAbsent(host, h ->
+        {
+            Tags hostTags = tags.and(Tag.of("host", h.getAddress().getHostAddress()),
+                                     Tag.of("dc", String.valueOf(h.getDatacenter())));
+
+            return Arrays.asList(
+                    Gauge.builder("cassandra.host.connections.open", this, b -> b.state().getOpenConnections(h))
+                         .tags(hostTags)
+                         .description("Number of open connections to the host")
+                         .register(registry),
+
+                    Gauge.builder("cassandra.host.connections.trashed", this, b -> b.state().getTrashedConnections(h))
+                         .tags(hostTags)
+                         .description("Number of trashed connections to the host")
+                         .register(registry),
+
+                    Gauge.builder("cassandra.host.requests.inflight", this, b -> b.state().getInFlightQueries(h))
+                         .tags(hostTags)
+                         .description("Number of requests currently in flight to the host")
+                         .register(registry));
+        });
+    }
+
+    private void unbindHost(MeterRegistry registry, Host host)
+    {
+        List<Meter> meters = hostMeters.remove(host);
+
+        if (meters != null)
+        {
+            meters.forEach(registry::remove);
+        }
+    }
+
+    /**
+     * Driver builds snapshot of all host pools on every {@link Session#getState()} call, so it is reused for all gauges read within one scrape.
+     */
+    private Session.State state()
+    {
+        long now = System.nanoTime();
+        Session.State current = state;
+
+        if (current == null || now - stateTakenAt > STATE_TTL_NANOS)
+        {
+            current = session.getState();
+            state = current;
+            stateTakenAt = now;
+        }
+
+        return current;
+    }
+
+    private void gauge(MeterRegistry registry, String name, com.codahale.metrics.Gauge<Integer> gauge, String description)
+    {
+        Gauge.builder(name, gauge, g -> g.getValue())
+             .tags(tags)
+             .description(description)
+             .register(registry);
+    }
+
+    private void counter(MeterRegistry registry, String name, String type, Counter counter)
+    {
+        FunctionCounter.builder(name, counter, Counter::getCount)
+                       .tags(tags)
+                       .tag("type", type)
+                       .register(registry);
+    }
+}
@@ -0,0 +1,91 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.metrics;
+
+import com.pingidentity.cassandra4j.springboot.mapping.CachingMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+public class EntityCacheMetricsBinder implements MeterBinder
+{
+    private final Supplier<List<CachingMapper<?>>> mappers;
+    private final CompletionStage<?> initialized;
+
+    public EntityCacheMetricsBinder(List<CachingMapper<?>> mappers)
+    {
+        this(() -> mappers, CompletableFuture.completedFuture(null));
+    }
+
+    /**
+     * @param mappers resolved once cluster is initialized, so lazy caching mappers are not created ahead of it
+     */
+    public EntityCacheMetricsBinder(Supplier<List<CachingMapper<?>>> mappers, CompletionStage<?> initialized)
+    {
+        this.mappers = mappers;
+        this.initialized = initialized;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry)
+    {
+        initialized.thenRun(() -> bind(registry));
+    }
+
+    private void bind(MeterRegistry registry)
+    {
+        for (CachingMapper<?> mapper : mappers.get())
+        {
+            //same entity class may be mapped in several clusters or keyspaces
+            Tags tags = Tags.of("entity", mapper.getEntityClass().getSimpleName(),
+                                "keyspace", mapper.getKeyspace(),
+                                "cluster", String.valueOf(mapper.getClusterName()));
+
+            FunctionCounter.builder("cassandra.entity.cache.gets", mapper, CachingMapper::getHitCount)
+                           .tags(tags)
+                           .tag("result", "hit")
+                           .description("Number of entities served from cache")
+                           .register(registry);
+
+            FunctionCounter.builder("cassandra.entity.cache.gets", mapper, CachingMapper::getMissCount)
+                           .tags(tags)
+                           .tag("result", "miss")
+                           .description("Number of entities not found in cache")
+                           .register(registry);
+
+            FunctionCounter.builder("cassandra.entity.cache.evictions", mapper, CachingMapper::getEvictionCount)
+                           .tags(tags)
+                           .description("Number of entities evicted from cache")
+                           .register(registry);
+
+            Gauge.builder("cassandra.entity.cache.size", mapper, CachingMapper::size)
+                 .tags(tags)
+                 .description("Approximate number of cached entities")
+                 .register(registry);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.metrics;
+
+import com.pingidentity.cassandra4j.springboot.limiter.InFlightLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exposes session in-flight limiter state, rejections and queue wait time as micrometer meters.
+ */
+public class InFlightLimiterMetricsBinder implements MeterBinder
+{
+    private final InFlightLimiter limiter;
+
+    public InFlightLimiterMetricsBinder(InFlightLimiter limiter)
+    {
+        this.limiter = limiter;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry)
+    {
+        Gauge.builder("cassandra.limiter.limit", limiter, InFlightLimiter::getLimit)
+             .description("Current max number of in-flight requests")
+             .register(registry);
+
+        Gauge.builder("cassandra.limiter.inflight", limiter, InFlightLimiter::getInFlight)
+             .description("Number of requests currently holding in-flight permit")
+             .register(registry);
+
+        Gauge.builder("cassandra.limiter.queued", limiter, InFlightLimiter::getQueued)
+             .description("Number of requests waiting for in-flight permit")
+             .register(registry);
+
+        FunctionCounter.builder("cassandra.limiter.rejections", limiter, InFlightLimiter::getRejectedCount)
+                       .tag("reason", "queue-full")
+                       .description("Number of requests rejected by in-flight limiter")
+                       .register(registry);
+
+        FunctionCounter.builder("cassandra.limiter.rejections", limiter, InFlightLimiter::getTimedOutCount)
+                       .tag("reason", "timeout")
+                       .description("Number of requests rejected by in-flight limiter")
+                       .register(registry);
+
+        FunctionTimer.builder("cassandra.limiter.queue.time", limiter, InFlightLimiter::getDequeuedCount, InFlightLimiter::getQueueTimeNanos, TimeUnit.NANOSECONDS)
+                     .description("Time requests waited for in-flight permit")
+                     .register(registry);
+    }
+}
@@ -0,0 +1,174 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.metrics;
+
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.policies.LoadBalancingPolicy;
+import com.pingidentity.cassandra4j.springboot.policies.LeastOutstandingPolicy;
+import com.pingidentity.cassandra4j.springboot.policies.LoadBalancingChain;
+import com.pingidentity.cassandra4j.springboot.policies.RackAwarePolicy;
+import com.pingidentity.cassandra4j.springboot.policies.SlowStartPolicy;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Exposes state of starter load balancing policies found in cluster policy stack as micrometer meters.
+ * Per host meters follow host state events and are bound for already known hosts only once initialized stage completes,
+ * so binding never initializes the cluster.
+ */
+public class LoadBalancingMetricsBinder implements MeterBinder
+{
+    private final Cluster cluster;
+    private final LoadBalancingPolicy policy;
+    private final Tags tags;
+    private final CompletionStage<?> initialized;
+
+    private final Map<Host, Meter> weights = new ConcurrentHashMap<>();
+
+    public LoadBalancingMetricsBinder(Cluster cluster)
+    {
+        this(cluster, CompletableFuture.completedFuture(null));
+    }
+
+    public LoadBalancingMetricsBinder(Cluster cluster, CompletionStage<?> initialized)
+    {
+        this.initialized = initialized;
+        this.cluster = cluster;
+        this.policy = cluster.getConfiguration().getPolicies().getLoadBalancingPolicy();
+        this.tags = Tags.of("cluster", String.valueOf(cluster.getClusterName()));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry)
+    {
+        RackAwarePolicy rackAware = LoadBalancingChain.find(policy, RackAwarePolicy.class);
+
+        if (rackAware != null)
+        {
+            FunctionCounter.builder("cassandra.lb.rack.requests", rackAware, RackAwarePolicy::getRackLocalCount)
+                           .tags(tags)
+                           .tag("locality", "local")
+                           .description("Number of requests sent to hosts of the local rack")
+                           .register(registry);
+
+            FunctionCounter.builder("cassandra.lb.rack.requests", rackAware, RackAwarePolicy::getRackRemoteCount)
+                           .tags(tags)
+                           .tag("locality", "remote")
+                           .description("Number of requests sent to hosts of other racks or data centers")
+                           .register(registry);
+        }
+
+        LeastOutstandingPolicy leastOutstanding = LoadBalancingChain.find(policy, LeastOutstandingPolicy.class);
+
+        if (leastOutstanding != null)
+        {
+            FunctionCounter.builder("cassandra.lb.least-outstanding.penalties", leastOutstanding, LeastOutstandingPolicy::getPenaltyCount)
+                           .tags(tags)
+                           .description("Number of penalties given to timing out or overloaded hosts")
+                           .register(registry);
+
+            Gauge.builder("cassandra.lb.least-outstanding.penalized", leastOutstanding, LeastOutstandingPolicy::getPenalizedHostCount)
+                 .tags(tags)
+                 .description("Number of hosts currently penalized")
+                 .register(registry);
+        }
+
+        SlowStartPolicy slowStart = LoadBalancingChain.find(policy, SlowStartPolicy.class);
+
+        if (slowStart != null)
+        {
+            Gauge.builder("cassandra.lb.slow-start.ramping", slowStart, SlowStartPolicy::getRampingHostCount)
+                 .tags(tags)
+                 .description("Number of hosts ramping up after coming up")
+                 .register(registry);
+
+            //registered before initialization completes the listener also sees initial hosts being added
+            cluster.register(new Host.StateListener()
+            {
+                @Override
+                public void onAdd(Host host)
+                {
+                    bindWeight(registry, slowStart, host);
+                }
+
+                @Override
+                public void onUp(Host host)
+                {
+                    bindWeight(registry, slowStart, host);
+                }
+
+                @Override
+                public void onDown(Host host) {}
+
+                @Override
+                public void onRemove(Host host)
+                {
+                    unbindWeight(registry, host);
+                }
+
+                @Override
+                public void onRegister(Cluster cluster) {}
+
+                @Override
+                public void onUnregister(Cluster cluster) {}
+            });
+
+            //cluster initialized before registration, metadata is available without blocking now
+            initialized.thenRun(() ->
+            {
+                for (Host host : cluster.getMetadata().getAllHosts())
+                {
+                    bindWeight(registry, slowStart, host);
+                }
+            });
+        }
+    }
+
+    private void bindWeight(MeterRegistry registry, SlowStartPolicy slowStart, Host host)
+    {
+        weights.computeIfAbsent(host, h ->
+                Gauge.builder("cassandra.lb.slow-start.weight", slowStart, p -> p.getWeight(h))
+                     .tags(tags.and(Tag.of("host", h.getAddress().getHostAddress()),
+                                    Tag.of("dc", String.valueOf(h.getDatacenter()))))
+                     .description("Current share of host traffic, 1 when host is not ramping up")
+                     .register(registry));
+    }
+
+    private void unbindWeight(MeterRegistry registry, Host host)
+    {
+        Meter weight = weights.remove(host);
+
+        if (weight != null)
+        {
+            registry.remove(weight);
+        }
+    }
+}
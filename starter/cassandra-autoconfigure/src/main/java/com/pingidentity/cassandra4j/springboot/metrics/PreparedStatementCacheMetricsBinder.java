@@ -0,0 +1,58 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.metrics;
+
+import com.pingidentity.cassandra4j.springboot.statements.PreparedStatementCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+public class PreparedStatementCacheMetricsBinder implements MeterBinder
+{
+    private final PreparedStatementCache cache;
+
+    public PreparedStatementCacheMetricsBinder(PreparedStatementCache cache)
+    {
+        this.cache = cache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry)
+    {
+        FunctionCounter.builder("cassandra.statements.cache.gets", cache, PreparedStatementCache::getHitCount)
+                       .tag("result", "hit")
+                       .description("Number of prepared statements served from cache")
+                       .register(registry);
+
+        FunctionCounter.builder("cassandra.statements.cache.gets", cache, PreparedStatementCache::getMissCount)
+                       .tag("result", "miss")
+                       .description("Number of prepared statements not found in cache")
+                       .register(registry);
+
+        FunctionCounter.builder("cassandra.statements.cache.evictions", cache, PreparedStatementCache::getEvictionCount)
+                       .description("Number of prepared statements evicted from cache")
+                       .register(registry);
+
+        Gauge.builder("cassandra.statements.cache.size", cache, PreparedStatementCache::size)
+             .description("Approximate number of cached prepared statements")
+             .register(registry);
+    }
+}
@@ -0,0 +1,333 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.policies;
+
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.Configuration;
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.HostDistance;
+import com.datastax.driver.core.LatencyTracker;
+import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.exceptions.BusyPoolException;
+import com.datastax.driver.core.exceptions.OperationTimedOutException;
+import com.datastax.driver.core.exceptions.OverloadedException;
+import com.datastax.driver.core.policies.ChainableLoadBalancingPolicy;
+import com.datastax.driver.core.policies.LoadBalancingPolicy;
+import com.google.common.collect.Iterators;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Power of two choices over leading candidates of child query plan: local replicas of the statement (or local hosts when statement has no routing
+ * information), two random candidates are compared by number of in-flight requests of all sessions of the cluster and the less loaded one goes first.
+ * Host timing out or reporting overload is penalized for a short window, penalized candidates are moved behind healthy ones.
+ *
+ * Driver snapshots all host pools for every {@link Session#getState()} call, so session state is reused for state refresh interval
+ * instead of being taken on every query plan.
+ *
+ * Child plan is used as is until session is attached with {@link #addSession(Session)}.
+ */
+public class LeastOutstandingPolicy implements ChainableLoadBalancingPolicy, LatencyTracker
+{
+    private final LoadBalancingPolicy childPolicy;
+    private final long penaltyNanos;
+    private final long stateRefreshNanos;
+
+    private final Map<Host, Long> penalizedUntil = new ConcurrentHashMap<>();
+    private final AtomicLong penalties = new AtomicLong();
+
+    private final List<SessionState> sessions = new CopyOnWriteArrayList<>();
+
+    private volatile Cluster cluster;
+
+    public LeastOutstandingPolicy(LoadBalancingPolicy childPolicy, long penaltyMs, long stateRefreshMs)
+    {
+        this.childPolicy = childPolicy;
+        this.penaltyNanos = TimeUnit.MILLISECONDS.toNanos(penaltyMs);
+        this.stateRefreshNanos = TimeUnit.MILLISECONDS.toNanos(stateRefreshMs);
+    }
+
+    /**
+     * @param session source of per host in-flight request counts, counts of all added sessions are summed up
+     */
+    public void addSession(Session session)
+    {
+        sessions.add(new SessionState(session));
+    }
+
+    @Override
+    public LoadBalancingPolicy getChildPolicy()
+    {
+        return childPolicy;
+    }
+
+    @Override
+    public void init(Cluster cluster, Collection<Host> hosts)
+    {
+        this.cluster = cluster;
+        childPolicy.init(cluster, hosts);
+        cluster.register(this);
+    }
+
+    @Override
+    public HostDistance distance(Host host)
+    {
+        return childPolicy.distance(host);
+    }
+
+    @Override
+    public Iterator<Host> newQueryPlan(String loggedKeyspace, Statement statement)
+    {
+        Iterator<Host> plan = childPolicy.newQueryPlan(loggedKeyspace, statement);
+
+        if (sessions.isEmpty())
+        {
+            return plan;
+        }
+
+        Set<Host> replicas = replicas(loggedKeyspace, statement);
+        List<Host> candidates = new ArrayList<>();
+        Host next = null;
+
+        while (plan.hasNext())
+        {
+            Host host = plan.next();
+
+            if (childPolicy.distance(host) != HostDistance.LOCAL || replicas != null && !replicas.contains(host))
+            {
+                next = host;
+                break;
+            }
+
+            candidates.add(host);
+        }
+
+        if (candidates.size() >= 2)
+        {
+            order(candidates);
+        }
+
+        return next == null
+                ? candidates.iterator()
+                : Iterators.concat(candidates.iterator(), Iterators.singletonIterator(next), plan);
+    }
+
+    private void order(List<Host> candidates)
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+
+        if (second >= first)
+        {
+            second++;
+        }
+
+        long now = System.nanoTime();
+        int chosen = load(candidates.get(second), now) < load(candidates.get(first), now) ? second : first;
+
+        Collections.swap(candidates, 0, chosen);
+
+        //stable move of penalized candidates behind healthy ones
+        List<Host> penalized = null;
+
+        for (Iterator<Host> it = candidates.iterator(); it.hasNext(); )
+        {
+            Host host = it.next();
+
+            if (isPenalized(host, now))
+            {
+                if (penalized == null)
+                {
+                    penalized = new ArrayList<>();
+                }
+
+                penalized.add(host);
+                it.remove();
+            }
+        }
+
+        if (penalized != null)
+        {
+            candidates.addAll(penalized);
+        }
+    }
+
+    private long load(Host host, long now)
+    {
+        if (isPenalized(host, now))
+        {
+            return Long.MAX_VALUE;
+        }
+
+        long inFlight = 0;
+
+        for (SessionState session : sessions)
+        {
+            inFlight += session.inFlight(host, now);
+        }
+
+        return inFlight;
+    }
+
+    private boolean isPenalized(Host host, long now)
+    {
+        Long until = penalizedUntil.get(host);
+
+        return until != null && until - now > 0;
+    }
+
+    private Set<Host> replicas(String loggedKeyspace, Statement statement)
+    {
+        String keyspace = statement.getKeyspace() != null ? statement.getKeyspace() : loggedKeyspace;
+        Configuration configuration = cluster.getConfiguration();
+        ByteBuffer routingKey = statement.getRoutingKey(configuration.getProtocolOptions().getProtocolVersion(), configuration.getCodecRegistry());
+
+        if (keyspace == null || routingKey == null)
+        {
+            return null;
+        }
+
+        Set<Host> replicas = cluster.getMetadata().getReplicas(Metadata.quote(keyspace), routingKey);
+
+        return replicas.isEmpty() ? null : replicas;
+    }
+
+    @Override
+    public void update(Host host, Statement statement, Exception exception, long newLatencyNanos)
+    {
+        if (exception instanceof OperationTimedOutException || exception instanceof OverloadedException || exception instanceof BusyPoolException)
+        {
+            penalizedUntil.put(host, System.nanoTime() + penaltyNanos);
+            penalties.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return number of penalties given to timing out or overloaded hosts
+     */
+    public long getPenaltyCount()
+    {
+        return penalties.get();
+    }
+
+    /**
+     * @return number of hosts currently penalized
+     */
+    public int getPenalizedHostCount()
+    {
+        long now = System.nanoTime();
+        int count = 0;
+
+        for (Host host : penalizedUntil.keySet())
+        {
+            if (isPenalized(host, now))
+            {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    @Override
+    public void onAdd(Host host)
+    {
+        childPolicy.onAdd(host);
+    }
+
+    @Override
+    public void onUp(Host host)
+    {
+        childPolicy.onUp(host);
+    }
+
+    @Override
+    public void onDown(Host host)
+    {
+        childPolicy.onDown(host);
+    }
+
+    @Override
+    public void onRemove(Host host)
+    {
+        penalizedUntil.remove(host);
+        childPolicy.onRemove(host);
+    }
+
+    @Override
+    public void onRegister(Cluster cluster) {}
+
+    @Override
+    public void onUnregister(Cluster cluster) {}
+
+    @Override
+    public void close()
+    {
+        childPolicy.close();
+    }
+
+    private class SessionState
+    {
+        final Session session;
+
+        volatile Session.State state;
+        volatile long takenAt;
+
+        SessionState(Session session)
+        {
+            this.session = session;
+        }
+
+        int inFlight(Host host, long now)
+        {
+            Session.State current = state;
+
+            //concurrent refreshes are harmless, last one wins
+            if (current == null || now - takenAt >= stateRefreshNanos)
+            {
+                if (session.isClosed())
+                {
+                    return 0;
+                }
+
+                current = session.getState();
+                state = current;
+                takenAt = now;
+            }
+
+            return current.getInFlightQueries(host);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.policies;
+
+import com.datastax.driver.core.policies.ChainableLoadBalancingPolicy;
+import com.datastax.driver.core.policies.DCAwareRoundRobinPolicy;
+import com.datastax.driver.core.policies.LatencyAwarePolicy;
+import com.datastax.driver.core.policies.LoadBalancingPolicy;
+import com.datastax.driver.core.policies.RoundRobinPolicy;
+import com.datastax.driver.core.policies.TokenAwarePolicy;
+import com.pingidentity.cassandra4j.springboot.CassandraProperties;
+import com.pingidentity.cassandra4j.springboot.CassandraProperties.LoadBalancingLayer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load balancing policy stack declared with {@code cassandra.load-balancing-chain}, outermost layer first.
+ * Chain ends with single base policy (DC_AWARE or ROUND_ROBIN), every preceding layer wraps the next one and is configured
+ * with own options block, e.g. {@code token-aware, latency-aware, dc-aware} results in TokenAware(LatencyAware(DCAwareRoundRobin)).
+ *
+ * Without explicit chain it is derived from {@code cassandra.load-balancing-policy}, {@code cassandra.slowstart.*}, {@code cassandra.leastoutstanding.*},
+ * {@code cassandra.tokenaware.enabled}, {@code cassandra.latencyaware.*} and {@code cassandra.rackaware.*} properties, wrappers are stacked in that order.
+ */
+public class LoadBalancingChain
+{
+    private static final Logger log = LoggerFactory.getLogger(LoadBalancingChain.class);
+
+    private static final Set<LoadBalancingLayer> BASE = EnumSet.of(LoadBalancingLayer.DC_AWARE, LoadBalancingLayer.ROUND_ROBIN);
+
+    //layers whose host order token aware layer above them must keep
+    private static final Set<LoadBalancingLayer> ORDERING = EnumSet.of(LoadBalancingLayer.LATENCY_AWARE, LoadBalancingLayer.RACK_AWARE);
+
+    private final List<LoadBalancingLayer> layers;
+    private final CassandraProperties props;
+
+    public LoadBalancingChain(CassandraProperties props)
+    {
+        this.props = props;
+        this.layers = props.getLoadBalancingChain() != null && !props.getLoadBalancingChain().isEmpty()
+                ? validate(props.getLoadBalancingChain())
+                : derive(props);
+    }
+
+    /**
+     * @return layers outermost first, empty when load balancing is not configured and driver default is used
+     */
+    public List<LoadBalancingLayer> getLayers()
+    {
+        return Collections.unmodifiableList(layers);
+    }
+
+    /**
+     * @return new policy stack, null when load balancing is not configured
+     */
+    public LoadBalancingPolicy build()
+    {
+        if (layers.isEmpty())
+        {
+            return null;
+        }
+
+        LoadBalancingPolicy policy = null;
+
+        for (int i = layers.size() - 1; i >= 0; i--)
+        {
+            policy = layer(layers.get(i), policy);
+        }
+
+        return policy;
+    }
+
+    private LoadBalancingPolicy layer(LoadBalancingLayer layer, LoadBalancingPolicy child)
+    {
+        switch (layer)
+        {
+            case DC_AWARE:
+                DCAwareRoundRobinPolicy.Builder dcBuilder = DCAwareRoundRobinPolicy.builder();
+                CassandraProperties.DcAwarePolicy dcaware = props.getDcaware();
+
+                if (dcaware != null)
+                {
+                    dcBuilder.withLocalDc(dcaware.getLocalDc())
+                             .withUsedHostsPerRemoteDc(dcaware.getUsedHostsPerRemoteDc());
+
+                    if (dcaware.isAllowRemoteDcsForLocalConsistencyLevel())
+                    {
+                        dcBuilder.allowRemoteDCsForLocalConsistencyLevel();
+                    }
+                }
+
+                return dcBuilder.build();
+
+            case ROUND_ROBIN:
+                return new RoundRobinPolicy();
+
+            case LATENCY_AWARE:
+                LatencyAwarePolicy.Builder latencyBuilder = LatencyAwarePolicy.builder(child);
+                CassandraProperties.LatencyAwarePolicy latencyaware = props.getLatencyaware();
+
+                if (latencyaware != null)
+                {
+                    latencyBuilder.withExclusionThreshold(latencyaware.getExclusionThreshold())
+                                  .withMininumMeasurements(latencyaware.getMinimumMeasurements())
+                                  .withRetryPeriod(latencyaware.getRetryPeriod(), TimeUnit.MILLISECONDS)
+                                  .withScale(latencyaware.getScale(), TimeUnit.MILLISECONDS)
+                                  .withUpdateRate(latencyaware.getUpdateRate(), TimeUnit.MILLISECONDS);
+                }
+
+                return latencyBuilder.build();
+
+            case SLOW_START:
+                CassandraProperties.SlowStartPolicy slowstart = props.getSlowstart() != null
+                        ? props.getSlowstart()
+                        : new CassandraProperties.SlowStartPolicy();
+
+                return new SlowStartPolicy(child, slowstart.getWindowMs(), slowstart.getMinWeight());
+
+            case LEAST_OUTSTANDING:
+                CassandraProperties.LeastOutstandingPolicy leastoutstanding = props.getLeastoutstanding() != null
+                        ? props.getLeastoutstanding()
+                        : new CassandraProperties.LeastOutstandingPolicy();
+
+                return new LeastOutstandingPolicy(child, leastoutstanding.getPenaltyMs(), leastoutstanding.getStateRefreshMs());
+
+            case RACK_AWARE:
+                CassandraProperties.RackAwarePolicy rackaware = props.getRackaware() != null
+                        ? props.getRackaware()
+                        : new CassandraProperties.RackAwarePolicy();
+
+                return new RackAwarePolicy(child, rackaware.getLocalRack(), rackaware.isDetectEc2Zone());
+
+            case TOKEN_AWARE:
+                TokenAwarePolicy.ReplicaOrdering ordering = props.getTokenaware() != null ? props.getTokenaware().getReplicaOrdering() : null;
+                LoadBalancingLayer ordered = orderingLayerBelow(LoadBalancingLayer.TOKEN_AWARE);
+
+                //shuffled replicas would defeat latency or rack preference of the child
+                if (ordered != null)
+                {
+                    if (ordering != null && ordering != TokenAwarePolicy.ReplicaOrdering.NEUTRAL)
+                    {
+                        log.warn("cassandra.tokenaware.replica-ordering={} is ignored, {} layer requires NEUTRAL replica ordering", ordering, ordered);
+                    }
+                    else
+                    {
+                        log.info("Token aware layer uses NEUTRAL replica ordering to keep {} layer order", ordered);
+                    }
+
+                    return new TokenAwarePolicy(child, TokenAwarePolicy.ReplicaOrdering.NEUTRAL);
+                }
+
+                return new TokenAwarePolicy(child, ordering != null ? ordering : TokenAwarePolicy.ReplicaOrdering.RANDOM);
+
+            default:
+                throw new IllegalArgumentException("Unsupported load balancing layer " + layer);
+        }
+    }
+
+    /**
+     * @return first layer ordering hosts below given one, null when there is none
+     */
+    private LoadBalancingLayer orderingLayerBelow(LoadBalancingLayer layer)
+    {
+        for (int i = layers.indexOf(layer) + 1; i < layers.size(); i++)
+        {
+            if (ORDERING.contains(layers.get(i)))
+            {
+                return layers.get(i);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return first layer of given type in policy stack, null when there is none
+     */
+    public static <P extends LoadBalancingPolicy> P find(LoadBalancingPolicy policy, Class<P> type)
+    {
+        while (policy != null)
+        {
+            if (type.isInstance(policy))
+            {
+                return type.cast(policy);
+            }
+
+            policy = policy instanceof ChainableLoadBalancingPolicy ? ((ChainableLoadBalancingPolicy) policy).getChildPolicy() : null;
+        }
+
+        return null;
+    }
+
+    /**
+     * @return human readable stack of given policy, outermost first, e.g. 'TokenAwarePolicy -> LatencyAwarePolicy -> DCAwareRoundRobinPolicy'
+     */
+    public static String describe(LoadBalancingPolicy policy)
+    {
+        StringBuilder description = new StringBuilder(policy.getClass().getSimpleName());
+
+        while (policy instanceof ChainableLoadBalancingPolicy)
+        {
+            policy = ((ChainableLoadBalancingPolicy) policy).getChildPolicy();
+            description.append(" -> ").append(policy.getClass().getSimpleName());
+        }
+
+        return description.toString();
+    }
+
+    private static List<LoadBalancingLayer> validate(List<LoadBalancingLayer> chain)
+    {
+        Set<LoadBalancingLayer> seen = EnumSet.noneOf(LoadBalancingLayer.class);
+
+        for (int i = 0; i < chain.size(); i++)
+        {
+            LoadBalancingLayer layer = chain.get(i);
+            boolean last = i == chain.size() - 1;
+
+            if (!seen.add(layer))
+            {
+                throw new IllegalArgumentException("Duplicate " + layer + " layer in cassandra.load-balancing-chain " + chain);
+            }
+
+            if (last != BASE.contains(layer))
+            {
+                throw new IllegalArgumentException("cassandra.load-balancing-chain " + chain + " must end with single base policy " + BASE);
+            }
+        }
+
+        return new ArrayList<>(chain);
+    }
+
+    private static List<LoadBalancingLayer> derive(CassandraProperties props)
+    {
+        List<LoadBalancingLayer> layers = new ArrayList<>();
+        LoadBalancingLayer base = null;
+
+        if (CassandraProperties.LoadBalancingPolicies.DC_AWARE.equals(props.getLoadBalancingPolicy()) && props.getDcaware() != null)
+        {
+            base = LoadBalancingLayer.DC_AWARE;
+        }
+        else if (CassandraProperties.LoadBalancingPolicies.ROUND_ROBIN.equals(props.getLoadBalancingPolicy()))
+        {
+            base = LoadBalancingLayer.ROUND_ROBIN;
+        }
+
+        //wrappers are only applied on top of explicitly configured base policy
+        if (base == null)
+        {
+            return layers;
+        }
+
+        if (props.getSlowstart() != null)
+        {
+            layers.add(LoadBalancingLayer.SLOW_START);
+        }
+
+        if (props.getLeastoutstanding() != null)
+        {
+            layers.add(LoadBalancingLayer.LEAST_OUTSTANDING);
+        }
+
+        if (props.getTokenaware() != null && props.getTokenaware().isEnabled())
+        {
+            layers.add(LoadBalancingLayer.TOKEN_AWARE);
+        }
+
+        if (props.getLatencyaware() != null)
+        {
+            layers.add(LoadBalancingLayer.LATENCY_AWARE);
+        }
+
+        if (props.getRackaware() != null)
+        {
+            layers.add(LoadBalancingLayer.RACK_AWARE);
+        }
+
+        layers.add(base);
+
+        return layers;
+    }
+}
@@ -0,0 +1,285 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.policies;
+
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.HostDistance;
+import com.datastax.driver.core.LatencyTracker;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.policies.ChainableLoadBalancingPolicy;
+import com.datastax.driver.core.policies.LoadBalancingPolicy;
+import com.google.common.collect.AbstractIterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prefers hosts of client's own rack (availability zone) within local data center: local hosts of child query plan in the local rack
+ * go first, other local hosts follow in child order, then remote ones. Wrapped with token aware policy (NEUTRAL ordering)
+ * query goes to the local rack replica when there is one.
+ *
+ * Local rack is either configured or detected from EC2 availability zone, in which case both Ec2Snitch rack naming ('1a')
+ * and full zone name ('us-east-1a') are matched. Without local rack child query plan is used as is.
+ *
+ * Counts requests sent to the local rack and elsewhere, as observed by the driver.
+ */
+public class RackAwarePolicy implements ChainableLoadBalancingPolicy, LatencyTracker
+{
+    private static final Logger log = LoggerFactory.getLogger(RackAwarePolicy.class);
+
+    private static final String EC2_ZONE_URL = "http://169.254.169.254/latest/meta-data/placement/availability-zone";
+
+    private final LoadBalancingPolicy childPolicy;
+    private final String configuredRack;
+    private final boolean detectEc2Zone;
+
+    private final AtomicLong rackLocal = new AtomicLong();
+    private final AtomicLong rackRemote = new AtomicLong();
+
+    private volatile String localRack;
+
+    /**
+     * @param localRack     name of the local rack, null to detect
+     * @param detectEc2Zone detect local rack from EC2 instance metadata when not configured
+     */
+    public RackAwarePolicy(LoadBalancingPolicy childPolicy, String localRack, boolean detectEc2Zone)
+    {
+        this.childPolicy = childPolicy;
+        this.configuredRack = localRack;
+        this.detectEc2Zone = detectEc2Zone;
+    }
+
+    @Override
+    public LoadBalancingPolicy getChildPolicy()
+    {
+        return childPolicy;
+    }
+
+    @Override
+    public void init(Cluster cluster, Collection<Host> hosts)
+    {
+        childPolicy.init(cluster, hosts);
+
+        localRack = configuredRack != null ? configuredRack : detectEc2Zone ? ec2Rack(hosts) : null;
+
+        if (localRack == null)
+        {
+            log.warn("Local rack is neither configured nor detected, rack awareness is disabled");
+        }
+        else
+        {
+            log.info("Preferring hosts of local rack '{}'", localRack);
+        }
+
+        cluster.register(this);
+    }
+
+    @Override
+    public HostDistance distance(Host host)
+    {
+        return childPolicy.distance(host);
+    }
+
+    @Override
+    public Iterator<Host> newQueryPlan(String loggedKeyspace, Statement statement)
+    {
+        Iterator<Host> plan = childPolicy.newQueryPlan(loggedKeyspace, statement);
+        String rack = localRack;
+
+        if (rack == null)
+        {
+            return plan;
+        }
+
+        return new AbstractIterator<Host>()
+        {
+            private final List<Host> otherRacks = new ArrayList<>();
+            private Iterator<Host> deferred;
+
+            @Override
+            protected Host computeNext()
+            {
+                //local rack hosts first, other local hosts are deferred until first non local host of child plan
+                while (deferred == null && plan.hasNext())
+                {
+                    Host host = plan.next();
+
+                    if (childPolicy.distance(host) != HostDistance.LOCAL)
+                    {
+                        otherRacks.add(host);
+                        deferred = otherRacks.iterator();
+                        break;
+                    }
+
+                    if (rack.equals(host.getRack()))
+                    {
+                        return host;
+                    }
+
+                    otherRacks.add(host);
+                }
+
+                if (deferred == null)
+                {
+                    deferred = otherRacks.iterator();
+                }
+
+                if (deferred.hasNext())
+                {
+                    return deferred.next();
+                }
+
+                return plan.hasNext() ? plan.next() : endOfData();
+            }
+        };
+    }
+
+    @Override
+    public void update(Host host, Statement statement, Exception exception, long newLatencyNanos)
+    {
+        if (localRack != null && localRack.equals(host.getRack()))
+        {
+            rackLocal.incrementAndGet();
+        }
+        else
+        {
+            rackRemote.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return local rack name, null when rack awareness is disabled
+     */
+    public String getLocalRack()
+    {
+        return localRack;
+    }
+
+    /**
+     * @return number of requests sent to hosts of the local rack
+     */
+    public long getRackLocalCount()
+    {
+        return rackLocal.get();
+    }
+
+    /**
+     * @return number of requests sent to hosts of other racks or data centers
+     */
+    public long getRackRemoteCount()
+    {
+        return rackRemote.get();
+    }
+
+    @Override
+    public void onAdd(Host host)
+    {
+        childPolicy.onAdd(host);
+    }
+
+    @Override
+    public void onUp(Host host)
+    {
+        childPolicy.onUp(host);
+    }
+
+    @Override
+    public void onDown(Host host)
+    {
+        childPolicy.onDown(host);
+    }
+
+    @Override
+    public void onRemove(Host host)
+    {
+        childPolicy.onRemove(host);
+    }
+
+    @Override
+    public void onRegister(Cluster cluster) {}
+
+    @Override
+    public void onUnregister(Cluster cluster) {}
+
+    @Override
+    public void close()
+    {
+        childPolicy.close();
+    }
+
+    private static String ec2Rack(Collection<Host> hosts)
+    {
+        String zone = ec2Zone();
+
+        if (zone == null)
+        {
+            return null;
+        }
+
+        for (Host host : hosts)
+        {
+            String rack = host.getRack();
+
+            if (rack != null && (zone.equals(rack) || zone.endsWith("-" + rack)))
+            {
+                return rack;
+            }
+        }
+
+        log.warn("No hosts found in EC2 availability zone '{}'", zone);
+
+        return null;
+    }
+
+    private static String ec2Zone()
+    {
+        try
+        {
+            HttpURLConnection connection = (HttpURLConnection) new URL(EC2_ZONE_URL).openConnection();
+            connection.setConnectTimeout(500);
+            connection.setReadTimeout(500);
+
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)))
+            {
+                return reader.readLine().trim();
+            }
+            finally
+            {
+                connection.disconnect();
+            }
+        }
+        catch (Exception e)
+        {
+            log.warn("Unable to detect EC2 availability zone: {}", e.toString());
+            return null;
+        }
+    }
+}
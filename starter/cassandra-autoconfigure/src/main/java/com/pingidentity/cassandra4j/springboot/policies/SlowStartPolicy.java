@@ -0,0 +1,195 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.policies;
+
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.HostDistance;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.policies.ChainableLoadBalancingPolicy;
+import com.datastax.driver.core.policies.LoadBalancingPolicy;
+import com.google.common.collect.AbstractIterator;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ramps query share of host that just came up (or joined) from minimal weight to full over ramp window, so cold caches of restarted node
+ * are not hit with full traffic. Ramping host is tried first with probability of its current weight, otherwise it is moved behind
+ * next host of child query plan and still serves as a retry target.
+ */
+public class SlowStartPolicy implements ChainableLoadBalancingPolicy
+{
+    private final LoadBalancingPolicy childPolicy;
+    private final long windowNanos;
+    private final double minWeight;
+
+    //ramp start by host, removed once ramp is over
+    private final Map<Host, Long> rampStarts = new ConcurrentHashMap<>();
+
+    public SlowStartPolicy(LoadBalancingPolicy childPolicy, long windowMs, double minWeight)
+    {
+        this.childPolicy = childPolicy;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.minWeight = Math.max(0, Math.min(1, minWeight));
+    }
+
+    @Override
+    public LoadBalancingPolicy getChildPolicy()
+    {
+        return childPolicy;
+    }
+
+    @Override
+    public void init(Cluster cluster, Collection<Host> hosts)
+    {
+        childPolicy.init(cluster, hosts);
+    }
+
+    @Override
+    public HostDistance distance(Host host)
+    {
+        return childPolicy.distance(host);
+    }
+
+    @Override
+    public Iterator<Host> newQueryPlan(String loggedKeyspace, Statement statement)
+    {
+        Iterator<Host> plan = childPolicy.newQueryPlan(loggedKeyspace, statement);
+
+        if (rampStarts.isEmpty())
+        {
+            return plan;
+        }
+
+        return new AbstractIterator<Host>()
+        {
+            private final Deque<Host> deferred = new ArrayDeque<>();
+            private boolean passed;
+
+            @Override
+            protected Host computeNext()
+            {
+                //ramping hosts deferred from the head of the plan follow first host that passed
+                if (passed && !deferred.isEmpty())
+                {
+                    return deferred.poll();
+                }
+
+                while (plan.hasNext())
+                {
+                    Host host = plan.next();
+
+                    if (!passed && ThreadLocalRandom.current().nextDouble() >= getWeight(host))
+                    {
+                        deferred.add(host);
+                        continue;
+                    }
+
+                    passed = true;
+                    return host;
+                }
+
+                return deferred.isEmpty() ? endOfData() : deferred.poll();
+            }
+        };
+    }
+
+    /**
+     * @return current share of host traffic, 1 when host is not ramping
+     */
+    public double getWeight(Host host)
+    {
+        Long start = rampStarts.get(host);
+
+        if (start == null)
+        {
+            return 1;
+        }
+
+        long elapsed = System.nanoTime() - start;
+
+        if (elapsed >= windowNanos)
+        {
+            rampStarts.remove(host, start);
+            return 1;
+        }
+
+        return minWeight + (1 - minWeight) * elapsed / windowNanos;
+    }
+
+    /**
+     * @return number of hosts currently ramping up
+     */
+    public int getRampingHostCount()
+    {
+        int count = 0;
+
+        for (Host host : rampStarts.keySet())
+        {
+            if (getWeight(host) < 1)
+            {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    @Override
+    public void onAdd(Host host)
+    {
+        rampStarts.put(host, System.nanoTime());
+        childPolicy.onAdd(host);
+    }
+
+    @Override
+    public void onUp(Host host)
+    {
+        rampStarts.put(host, System.nanoTime());
+        childPolicy.onUp(host);
+    }
+
+    @Override
+    public void onDown(Host host)
+    {
+        rampStarts.remove(host);
+        childPolicy.onDown(host);
+    }
+
+    @Override
+    public void onRemove(Host host)
+    {
+        rampStarts.remove(host);
+        childPolicy.onRemove(host);
+    }
+
+    @Override
+    public void close()
+    {
+        childPolicy.close();
+    }
+}
@@ -0,0 +1,89 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.reactive;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.RegularStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.Statement;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+
+import static com.pingidentity.cassandra4j.springboot.utils.FutureUtils.toCompletableFuture;
+
+/**
+ * Non-blocking facade over driver {@link Session} with reactor return types.
+ * Nothing is sent to cluster until returned publisher is subscribed.
+ */
+public class ReactiveCassandraSession
+{
+    private final Session session;
+
+    public ReactiveCassandraSession(Session session)
+    {
+        this.session = session;
+    }
+
+    /**
+     * Executes statement and emits first page of results.
+     */
+    public Mono<ResultSet> execute(Statement statement)
+    {
+        return ReactiveResults.mono(() -> session.executeAsync(statement), Function.identity());
+    }
+
+    public Mono<ResultSet> execute(String query, Object... values)
+    {
+        return execute(new SimpleStatement(query, values));
+    }
+
+    /**
+     * Executes statement and emits all resulting rows, pages are fetched on downstream demand.
+     */
+    public Flux<Row> query(Statement statement)
+    {
+        return ReactiveResults.flux(() -> session.executeAsync(statement), rs -> rs);
+    }
+
+    public Flux<Row> query(String query, Object... values)
+    {
+        return query(new SimpleStatement(query, values));
+    }
+
+    public Mono<PreparedStatement> prepare(String query)
+    {
+        return Mono.defer(() -> Mono.fromFuture(toCompletableFuture(session.prepareAsync(query))));
+    }
+
+    public Mono<PreparedStatement> prepare(RegularStatement statement)
+    {
+        return Mono.defer(() -> Mono.fromFuture(toCompletableFuture(session.prepareAsync(statement))));
+    }
+
+    public Session getSession()
+    {
+        return session;
+    }
+}
@@ -0,0 +1,179 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.reactive;
+
+import com.datastax.driver.core.PagingIterable;
+import com.datastax.driver.core.ResultSet;
+import com.google.common.util.concurrent.ListenableFuture;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.pingidentity.cassandra4j.springboot.utils.FutureUtils.toCompletableFuture;
+
+/**
+ * Adapts driver asynchronous results to reactor publishers. Statement is executed on subscription,
+ * following pages are fetched only when downstream demand can't be served from already fetched rows.
+ */
+public class ReactiveResults
+{
+    public static <T> Mono<T> mono(Supplier<ListenableFuture<ResultSet>> execution, Function<ResultSet, T> mapping)
+    {
+        return Mono.defer(() -> Mono.fromFuture(toCompletableFuture(execution.get())))
+                   .flatMap(rs -> Mono.justOrEmpty(mapping.apply(rs)));
+    }
+
+    public static <T> Flux<T> flux(Supplier<ListenableFuture<ResultSet>> execution, Function<ResultSet, PagingIterable<?, T>> mapping)
+    {
+        return Flux.create(sink ->
+        {
+            PageEmitter<T> emitter = new PageEmitter<>(sink);
+
+            sink.onRequest(n -> emitter.drain());
+            sink.onDispose(emitter::dispose);
+
+            emitter.await(execution.get(), mapping);
+        });
+    }
+
+    private static class PageEmitter<T>
+    {
+        private final FluxSink<T> sink;
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private volatile PagingIterable<?, T> page;
+        private volatile ListenableFuture<?> pending;
+        private volatile boolean disposed;
+
+        PageEmitter(FluxSink<T> sink)
+        {
+            this.sink = sink;
+        }
+
+        void await(ListenableFuture<ResultSet> future, Function<ResultSet, PagingIterable<?, T>> mapping)
+        {
+            pending = future;
+
+            toCompletableFuture(future).whenComplete((rs, error) -> onPage(error, () -> mapping.apply(rs)));
+        }
+
+        private void fetch(PagingIterable<?, T> current)
+        {
+            ListenableFuture<?> future = current.fetchMoreResults();
+            pending = future;
+
+            toCompletableFuture(future).whenComplete((ignored, error) -> onPage(error, () -> current));
+        }
+
+        private void onPage(Throwable error, Supplier<PagingIterable<?, T>> next)
+        {
+            pending = null;
+
+            if (error != null)
+            {
+                sink.error(error);
+                return;
+            }
+
+            try
+            {
+                page = next.get();
+            }
+            catch (Exception e)
+            {
+                sink.error(e);
+                return;
+            }
+
+            drain();
+        }
+
+        void drain()
+        {
+            if (wip.getAndIncrement() != 0)
+            {
+                return;
+            }
+
+            int missed = 1;
+
+            do
+            {
+                PagingIterable<?, T> current = page;
+
+                if (current != null && !disposed)
+                {
+                    try
+                    {
+                        emit(current);
+                    }
+                    catch (Exception e)
+                    {
+                        //row mapping may fail inside page fetch callback, where exception would be lost
+                        page = null;
+                        sink.error(e);
+                    }
+                }
+
+                missed = wip.addAndGet(-missed);
+            }
+            while (missed != 0);
+        }
+
+        private void emit(PagingIterable<?, T> current)
+        {
+            while (sink.requestedFromDownstream() > 0 && current.getAvailableWithoutFetching() > 0)
+            {
+                sink.next(current.one());
+            }
+
+            if (current.getAvailableWithoutFetching() == 0)
+            {
+                if (current.isFullyFetched())
+                {
+                    page = null;
+                    sink.complete();
+                }
+                else if (sink.requestedFromDownstream() > 0)
+                {
+                    page = null;
+                    fetch(current);
+                }
+            }
+        }
+
+        void dispose()
+        {
+            disposed = true;
+            page = null;
+
+            ListenableFuture<?> future = pending;
+
+            if (future != null)
+            {
+                future.cancel(true);
+            }
+        }
+    }
+}
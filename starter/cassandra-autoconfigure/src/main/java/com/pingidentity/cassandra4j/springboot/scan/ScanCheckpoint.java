@@ -0,0 +1,68 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.scan;
+
+import com.datastax.driver.core.TokenRange;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token ranges completed by {@link TokenRangeScanner}. Pass same checkpoint to re-run failed or interrupted scan,
+ * completed ranges are skipped. Ranges are stored as strings, so checkpoint can be persisted and restored.
+ *
+ * Checkpoint is valid as long as ring topology and scanner split settings stay the same.
+ */
+public class ScanCheckpoint
+{
+    private final Set<String> completed = ConcurrentHashMap.newKeySet();
+
+    public ScanCheckpoint() {}
+
+    public ScanCheckpoint(Collection<String> completed)
+    {
+        this.completed.addAll(completed);
+    }
+
+    public boolean isCompleted(TokenRange range)
+    {
+        return completed.contains(key(range));
+    }
+
+    void complete(TokenRange range)
+    {
+        completed.add(key(range));
+    }
+
+    /**
+     * @return completed ranges to persist
+     */
+    public Set<String> getCompleted()
+    {
+        return Collections.unmodifiableSet(completed);
+    }
+
+    private static String key(TokenRange range)
+    {
+        return range.getStart() + ":" + range.getEnd();
+    }
+}
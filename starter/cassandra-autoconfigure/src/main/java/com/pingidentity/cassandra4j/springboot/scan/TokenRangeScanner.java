@@ -0,0 +1,335 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.scan;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.ColumnMetadata;
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.HostDistance;
+import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.TableMetadata;
+import com.datastax.driver.core.TokenRange;
+import com.datastax.driver.core.policies.LoadBalancingPolicy;
+import com.datastax.driver.mapping.Mapper;
+import com.datastax.driver.mapping.MappingManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Parallel full table scan. Token ring is split into subranges (see {@link com.datastax.driver.core.Metadata#getTokenRanges()}),
+ * every subrange is queried with {@code token(pk) > ? AND token(pk) <= ?} directly on one of its replicas (local data center
+ * preferred), so load is spread across the cluster instead of single coordinator.
+ *
+ * Subranges are executed on own fork/join pool, pool parallelism bounds number of concurrently scanned subranges
+ * for all scans sharing the scanner. Consumers are called concurrently from pool threads and must be thread safe.
+ */
+public class TokenRangeScanner implements AutoCloseable
+{
+    private static final Logger log = LoggerFactory.getLogger(TokenRangeScanner.class);
+
+    private final Session session;
+    private final MappingManager manager;
+    private final int concurrency;
+    private final int minSplits;
+    private volatile ForkJoinPool pool;
+    private volatile boolean closed;
+    private final Integer fetchSize;
+
+    /**
+     * @param concurrency max number of subranges scanned concurrently
+     * @param minSplits   min number of subranges ring is split into, vnode ranges are split further when there are less of them
+     * @param fetchSize   page size of subrange queries, null for cluster default
+     */
+    public TokenRangeScanner(Session session, MappingManager manager, int concurrency, int minSplits, Integer fetchSize)
+    {
+        this.session = session;
+        this.manager = manager;
+        this.concurrency = concurrency;
+        this.minSplits = minSplits;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Scans whole table of given mapped entity.
+     *
+     * @return number of scanned entities
+     */
+    public <T> long scan(Class<T> type, Consumer<? super T> consumer)
+    {
+        return scan(type, new ScanCheckpoint(), consumer);
+    }
+
+    /**
+     * Scans table of given mapped entity skipping subranges completed in checkpoint, checkpoint is updated as subranges complete.
+     *
+     * @return number of scanned entities
+     */
+    public <T> long scan(Class<T> type, ScanCheckpoint checkpoint, Consumer<? super T> consumer)
+    {
+        Mapper<T> mapper = manager.mapper(type);
+        TableMetadata table = mapper.getTableMetadata();
+        Queries queries = new Queries(table, "*");
+        LongAdder rows = new LongAdder();
+
+        execute(table, checkpoint, split ->
+        {
+            for (T entity : mapper.map(session.execute(queries.bind(split))))
+            {
+                consumer.accept(entity);
+                rows.increment();
+            }
+        });
+
+        return rows.sum();
+    }
+
+    /**
+     * Counts rows of given mapped entity table, with {@code count(*)} per subrange.
+     */
+    public long count(Class<?> type)
+    {
+        return count(manager.mapper(type).getTableMetadata(), new ScanCheckpoint());
+    }
+
+    public long count(String keyspace, String table)
+    {
+        KeyspaceMetadata ks = session.getCluster().getMetadata().getKeyspace(keyspace);
+        TableMetadata tableMetadata = ks != null ? ks.getTable(table) : null;
+
+        if (tableMetadata == null)
+        {
+            throw new IllegalArgumentException("Unknown table " + keyspace + "." + table);
+        }
+
+        return count(tableMetadata, new ScanCheckpoint());
+    }
+
+    private long count(TableMetadata table, ScanCheckpoint checkpoint)
+    {
+        Queries queries = new Queries(table, "count(*)");
+        LongAdder rows = new LongAdder();
+
+        execute(table, checkpoint, split -> rows.add(session.execute(queries.bind(split)).one().getLong(0)));
+
+        return rows.sum();
+    }
+
+    private void execute(TableMetadata table, ScanCheckpoint checkpoint, Consumer<Split> task)
+    {
+        ForkJoinPool pool = pool();
+        List<Split> splits = splits(table);
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(splits.size());
+        long started = System.currentTimeMillis();
+
+        for (Split split : splits)
+        {
+            if (!checkpoint.isCompleted(split.range))
+            {
+                tasks.add(pool.submit(() ->
+                {
+                    task.accept(split);
+                    checkpoint.complete(split.range);
+                }));
+            }
+        }
+
+        log.debug("Scanning {}.{}: {} of {} subranges", table.getKeyspace().getName(), table.getName(), tasks.size(), splits.size());
+
+        for (int i = 0; i < tasks.size(); i++)
+        {
+            try
+            {
+                tasks.get(i).join();
+            }
+            catch (RuntimeException e)
+            {
+                //fail fast, subranges not started yet are skipped, checkpoint keeps completed ones
+                for (int j = i + 1; j < tasks.size(); j++)
+                {
+                    tasks.get(j).cancel(false);
+                }
+
+                throw e instanceof CancellationException ? new IllegalStateException("Scan was cancelled", e) : e;
+            }
+        }
+
+        log.debug("Scanned {}.{} in {} ms", table.getKeyspace().getName(), table.getName(), System.currentTimeMillis() - started);
+    }
+
+    private List<Split> splits(TableMetadata table)
+    {
+        Metadata metadata = session.getCluster().getMetadata();
+        LoadBalancingPolicy policy = session.getCluster().getConfiguration().getPolicies().getLoadBalancingPolicy();
+        String keyspace = Metadata.quoteIfNecessary(table.getKeyspace().getName());
+
+        List<TokenRange> ranges = new ArrayList<>(metadata.getTokenRanges());
+        ranges.sort(null);
+
+        int splitsPerRange = Math.max(1, (minSplits + ranges.size() - 1) / ranges.size());
+        List<Split> splits = new ArrayList<>();
+
+        for (TokenRange range : ranges)
+        {
+            Set<Host> all = metadata.getReplicas(keyspace, range);
+
+            //prefer local replicas which are up, fallback to load balancing policy when none
+            List<Host> replicas = all.stream().filter(h -> h.isUp() && policy.distance(h) == HostDistance.LOCAL).collect(Collectors.toList());
+
+            if (replicas.isEmpty())
+            {
+                replicas = all.stream().filter(Host::isUp).collect(Collectors.toList());
+            }
+
+            for (TokenRange split : range.splitEvenly(splitsPerRange))
+            {
+                for (TokenRange unwrapped : split.unwrap())
+                {
+                    //spread subranges of the same range across its replicas
+                    Host host = replicas.isEmpty() ? null : replicas.get(splits.size() % replicas.size());
+
+                    splits.add(new Split(unwrapped, host));
+                }
+            }
+        }
+
+        return splits;
+    }
+
+    /**
+     * Pool is created by first scan, so applications which never scan don't keep idle scan threads around.
+     */
+    private ForkJoinPool pool()
+    {
+        if (closed)
+        {
+            throw new IllegalStateException("Scanner is closed");
+        }
+
+        ForkJoinPool current = pool;
+
+        if (current == null)
+        {
+            synchronized (this)
+            {
+                if (closed)
+                {
+                    throw new IllegalStateException("Scanner is closed");
+                }
+
+                if (pool == null)
+                {
+                    AtomicInteger threads = new AtomicInteger();
+
+                    pool = new ForkJoinPool(concurrency, p ->
+                    {
+                        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                        thread.setName("cassandra-scan-" + threads.incrementAndGet());
+                        return thread;
+                    }, null, false);
+                }
+
+                current = pool;
+            }
+        }
+
+        return current;
+    }
+
+    @Override
+    public synchronized void close()
+    {
+        closed = true;
+
+        if (pool != null)
+        {
+            pool.shutdownNow();
+        }
+    }
+
+    private static class Split
+    {
+        final TokenRange range;
+        final Host host;
+
+        Split(TokenRange range, Host host)
+        {
+            this.range = range;
+            this.host = host;
+        }
+    }
+
+    private class Queries
+    {
+        private final PreparedStatement bounded;
+        private final PreparedStatement unbounded;
+
+        Queries(TableMetadata table, String selection)
+        {
+            String token = table.getPartitionKey().stream()
+                                .map(ColumnMetadata::getName)
+                                .map(Metadata::quoteIfNecessary)
+                                .collect(Collectors.joining(", ", "token(", ")"));
+
+            String from = "SELECT " + selection + " FROM " + Metadata.quoteIfNecessary(table.getKeyspace().getName())
+                    + "." + Metadata.quoteIfNecessary(table.getName()) + " WHERE " + token + " > ?";
+
+            this.bounded = session.prepare(from + " AND " + token + " <= ?");
+            this.unbounded = session.prepare(from);
+        }
+
+        BoundStatement bind(Split split)
+        {
+            TokenRange range = split.range;
+
+            //unwrapped range ending with min token means up to the end of the ring
+            BoundStatement statement = range.getEnd().compareTo(range.getStart()) <= 0
+                    ? unbounded.bind().setToken(0, range.getStart())
+                    : bounded.bind().setToken(0, range.getStart()).setToken(1, range.getEnd());
+
+            if (fetchSize != null)
+            {
+                statement.setFetchSize(fetchSize);
+            }
+
+            if (split.host != null)
+            {
+                statement.setHost(split.host);
+            }
+
+            return statement;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.statements;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Session;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.pingidentity.cassandra4j.springboot.utils.FutureUtils.propagate;
+import static com.pingidentity.cassandra4j.springboot.utils.FutureUtils.toCompletableFuture;
+
+/**
+ * Bounded cache of prepared statements keyed by query string.
+ *
+ * Concurrent requests to prepare same query share single in-flight prepare, failed prepares are not cached.
+ * Eviction is size based (W-TinyLFU) with optional expiration after last access.
+ */
+public class PreparedStatementCache
+{
+    private final AsyncLoadingCache<String, PreparedStatement> cache;
+
+    public PreparedStatementCache(Session session, long maxSize, Long expireAfterAccessMs)
+    {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                                                   .maximumSize(maxSize)
+                                                   .recordStats();
+
+        if (expireAfterAccessMs != null)
+        {
+            builder.expireAfterAccess(expireAfterAccessMs, TimeUnit.MILLISECONDS);
+        }
+
+        this.cache = builder.buildAsync((query, executor) -> toCompletableFuture(session.prepareAsync(query)));
+    }
+
+    public CompletableFuture<PreparedStatement> prepareAsync(String query)
+    {
+        return cache.get(query);
+    }
+
+    public PreparedStatement prepare(String query)
+    {
+        try
+        {
+            return prepareAsync(query).join();
+        }
+        catch (Exception e)
+        {
+            throw propagate(e);
+        }
+    }
+
+    public void invalidate(String query)
+    {
+        cache.synchronous().invalidate(query);
+    }
+
+    public void invalidateAll()
+    {
+        cache.synchronous().invalidateAll();
+    }
+
+    public long size()
+    {
+        return cache.synchronous().estimatedSize();
+    }
+
+    public CacheStats stats()
+    {
+        return cache.synchronous().stats();
+    }
+
+    public long getHitCount()
+    {
+        return stats().hitCount();
+    }
+
+    public long getMissCount()
+    {
+        return stats().missCount();
+    }
+
+    public long getEvictionCount()
+    {
+        return stats().evictionCount();
+    }
+}
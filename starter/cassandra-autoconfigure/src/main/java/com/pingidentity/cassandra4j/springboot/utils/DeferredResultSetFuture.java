@@ -0,0 +1,121 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.utils;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.exceptions.DriverException;
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Result of request which is sent to cluster later, e.g. after waiting for in-flight permit or session initialization.
+ */
+public class DeferredResultSetFuture extends AbstractFuture<ResultSet> implements ResultSetFuture
+{
+    private volatile ResultSetFuture delegate;
+
+    public void run(ResultSetFuture delegate)
+    {
+        this.delegate = delegate;
+
+        if (isCancelled())
+        {
+            delegate.cancel(true);
+        }
+
+        Futures.addCallback(delegate, new FutureCallback<ResultSet>()
+        {
+            @Override
+            public void onSuccess(ResultSet rs)
+            {
+                set(rs);
+            }
+
+            @Override
+            public void onFailure(Throwable t)
+            {
+                setException(t);
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    public void fail(Throwable t)
+    {
+        setException(t);
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning)
+    {
+        if (!super.cancel(mayInterruptIfRunning))
+        {
+            return false;
+        }
+
+        ResultSetFuture current = delegate;
+
+        if (current != null)
+        {
+            current.cancel(mayInterruptIfRunning);
+        }
+
+        return true;
+    }
+
+    @Override
+    public ResultSet getUninterruptibly()
+    {
+        try
+        {
+            return Uninterruptibles.getUninterruptibly(this);
+        }
+        catch (ExecutionException e)
+        {
+            throw translate(e);
+        }
+    }
+
+    @Override
+    public ResultSet getUninterruptibly(long timeout, TimeUnit unit) throws TimeoutException
+    {
+        try
+        {
+            return Uninterruptibles.getUninterruptibly(this, timeout, unit);
+        }
+        catch (ExecutionException e)
+        {
+            throw translate(e);
+        }
+    }
+
+    private static RuntimeException translate(ExecutionException e)
+    {
+        //same as driver futures: rethrow copy to keep caller stack trace
+        return e.getCause() instanceof DriverException ? ((DriverException) e.getCause()).copy() : FutureUtils.propagate(e);
+    }
+}
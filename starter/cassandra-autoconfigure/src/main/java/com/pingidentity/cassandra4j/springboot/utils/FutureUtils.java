@@ -0,0 +1,91 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.springboot.utils;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+public class FutureUtils
+{
+    public static <T> CompletableFuture<T> toCompletableFuture(ListenableFuture<T> future)
+    {
+        CompletableFuture<T> result = new CompletableFuture<T>()
+        {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning)
+            {
+                future.cancel(mayInterruptIfRunning);
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+
+        Futures.addCallback(future, new FutureCallback<T>()
+        {
+            @Override
+            public void onSuccess(T value)
+            {
+                result.complete(value);
+            }
+
+            @Override
+            public void onFailure(Throwable t)
+            {
+                result.completeExceptionally(t);
+            }
+        }, MoreExecutors.directExecutor());
+
+        return result;
+    }
+
+    public static Throwable unwrap(Throwable t)
+    {
+        Throwable result = t;
+
+        while ((result instanceof CompletionException || result instanceof ExecutionException) && result.getCause() != null)
+        {
+            result = result.getCause();
+        }
+
+        return result;
+    }
+
+    public static RuntimeException propagate(Throwable t)
+    {
+        Throwable cause = unwrap(t);
+
+        if (cause instanceof RuntimeException)
+        {
+            return (RuntimeException) cause;
+        }
+
+        if (cause instanceof Error)
+        {
+            throw (Error) cause;
+        }
+
+        return new CompletionException(cause);
+    }
+}
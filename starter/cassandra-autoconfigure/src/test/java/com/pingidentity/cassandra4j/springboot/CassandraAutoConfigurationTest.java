@@ -0,0 +1,206 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+package com.pingidentity.cassandra4j.springboot;
+
+import com.datastax.driver.core.Row;
+import com.datastax.driver.mapping.Mapper;
+import com.pingidentity.cassandra4j.springboot.fixtures.Video;
+import com.pingidentity.cassandra4j.springboot.fixtures.queries.VideoQueries;
+import com.pingidentity.cassandra4j.springboot.mapping.AsyncMapper;
+import com.pingidentity.cassandra4j.test.CassandraStub;
+import com.pingidentity.cassandra4j.test.CassandraStubInitializer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.asm.AnnotationVisitor;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Opcodes;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.ResolvableType;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Properties;
+
+import static com.datastax.oss.simulacron.common.stubbing.PrimeDsl.query;
+import static com.datastax.oss.simulacron.common.stubbing.PrimeDsl.rows;
+import static com.datastax.oss.simulacron.common.stubbing.PrimeDsl.when;
+import static com.pingidentity.cassandra4j.springboot.CassandraAutoConfiguration.CASSANDRA_WARMUP_BEAN;
+import static com.pingidentity.cassandra4j.springboot.CassandraAutoConfiguration.DATASTAX_MAPPER_FACTORY_BEAN;
+import static com.pingidentity.cassandra4j.springboot.CassandraAutoConfiguration.KEYSPACE_MAPPER_FACTORY_SUFFIX;
+import static com.pingidentity.cassandra4j.springboot.CassandraAutoConfiguration.SCAN_INDEX_LOCATION;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mapper and accessor beans registration against CQL stub. Stub has no schema, so entity mappers are only registered
+ * (lazily, with async bootstrap) while accessors are created and executed.
+ */
+public class CassandraAutoConfigurationTest
+{
+    private static final String GENERATED_PACKAGE = "com.pingidentity.cassandra4j.springboot.generated";
+
+    @Rule
+    public final TemporaryFolder classes = new TemporaryFolder();
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withInitializer(new CassandraStubInitializer())
+            .withConfiguration(AutoConfigurations.of(CassandraAutoConfiguration.class))
+            .withPropertyValues("cassandra.stub.enabled=true", "cassandra.stub.port=19042");
+
+    @Test
+    public void registersMapperBeansOfScannedEntities()
+    {
+        runner.withPropertyValues("cassandra.scan-packages=com.pingidentity.cassandra4j.springboot.fixtures", "cassandra.bootstrap-mode=async")
+              .run(context ->
+              {
+                  assertThat(context).hasNotFailed();
+                  assertThat(context.getBeanNamesForType(ResolvableType.forClassWithGenerics(Mapper.class, Video.class))).containsExactly("videoMapper");
+                  assertThat(context.getBeanNamesForType(ResolvableType.forClassWithGenerics(AsyncMapper.class, Video.class))).containsExactly("videoAsyncMapper");
+                  assertThat(context.getBeanNamesForType(VideoQueries.class)).containsExactly("videoQueriesAccessor");
+
+                  BeanDefinition mapper = context.getBeanFactory().getBeanDefinition("videoMapper");
+
+                  assertThat(mapper.getFactoryBeanName()).isEqualTo(DATASTAX_MAPPER_FACTORY_BEAN);
+                  assertThat(mapper.getFactoryMethodName()).isEqualTo("newMapper");
+                  //mappers wait for background bootstrap only when used
+                  assertThat(mapper.isLazyInit()).isTrue();
+              });
+    }
+
+    @Test
+    public void createsAccessorsOnFirstUse()
+    {
+        runner.withPropertyValues("cassandra.scan-packages=com.pingidentity.cassandra4j.springboot.fixtures.queries", "cassandra.bootstrap-mode=async")
+              .run(context ->
+              {
+                  assertThat(context).hasNotFailed();
+
+                  LinkedHashMap<String, Object> params = new LinkedHashMap<>();
+                  LinkedHashMap<String, String> paramTypes = new LinkedHashMap<>();
+
+                  params.put("id", "1");
+                  paramTypes.put("id", "varchar");
+
+                  //stub answers statements prepared before priming with empty results
+                  context.getBean(CassandraStub.class)
+                         .prime(when(query("SELECT * FROM videos.videos WHERE id = ?", Collections.emptyList(), params, paramTypes))
+                                        .then(rows().row("id", "1", "title", "Up").columnTypes("id", "varchar", "title", "varchar")));
+
+                  Row row = context.getBean(VideoQueries.class).byId("1").one();
+
+                  assertThat(row.getString("title")).isEqualTo("Up");
+              });
+    }
+
+    @Test
+    public void warmsKeyspaceRoutedAccessors()
+    {
+        runner.withPropertyValues("cassandra.scan-packages=com.pingidentity.cassandra4j.springboot.fixtures.queries",
+                                  "cassandra.keyspaces=archive",
+                                  "cassandra.keyspace-packages.archive=com.pingidentity.cassandra4j.springboot.fixtures.queries",
+                                  "cassandra.warmup.enabled=true")
+              .run(context ->
+              {
+                  assertThat(context).hasNotFailed();
+
+                  BeanDefinition accessor = context.getBeanFactory().getBeanDefinition("videoQueriesAccessor");
+
+                  assertThat(accessor.getFactoryBeanName()).isEqualTo("archive" + KEYSPACE_MAPPER_FACTORY_SUFFIX);
+                  assertThat(accessor.getDependsOn()).containsExactly(CASSANDRA_WARMUP_BEAN);
+                  assertThat(context).hasBean(CASSANDRA_WARMUP_BEAN);
+                  assertThat(context).hasSingleBean(VideoQueries.class);
+              });
+    }
+
+    @Test
+    public void scansEntitiesWithBeanClassLoader() throws Exception
+    {
+        assertRegistersGeneratedEntity(false);
+    }
+
+    @Test
+    public void readsIndexWithBeanClassLoader() throws Exception
+    {
+        assertRegistersGeneratedEntity(true);
+    }
+
+    /**
+     * Entity is visible only to bean class loader, as in applications loaded by dedicated class loader.
+     */
+    private void assertRegistersGeneratedEntity(boolean index) throws Exception
+    {
+        Path root = classes.getRoot().toPath();
+        Path packageDir = Files.createDirectories(root.resolve(GENERATED_PACKAGE.replace('.', '/')));
+
+        Files.write(packageDir.resolve("Clip.class"), entity(GENERATED_PACKAGE.replace('.', '/') + "/Clip"));
+
+        if (index)
+        {
+            Properties entries = new Properties();
+            entries.setProperty(GENERATED_PACKAGE + ".Clip", "Table");
+
+            try (OutputStream out = Files.newOutputStream(Files.createDirectories(root.resolve("META-INF")).resolve("cassandra4j.index")))
+            {
+                entries.store(out, null);
+            }
+        }
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] {root.toUri().toURL()}, getClass().getClassLoader()))
+        {
+            assertThat(classLoader.getResource(SCAN_INDEX_LOCATION) != null).isEqualTo(index);
+
+            DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+            CassandraAutoConfiguration configuration = new CassandraAutoConfiguration();
+
+            beanFactory.setBeanClassLoader(classLoader);
+            configuration.setEnvironment(new MockEnvironment().withProperty("cassandra.contact-points", "127.0.0.1")
+                                                              .withProperty("cassandra.scan-packages", GENERATED_PACKAGE)
+                                                              .withProperty("cassandra.scan-index-enabled", String.valueOf(index)));
+            configuration.postProcessBeanDefinitionRegistry(beanFactory);
+
+            assertThat(beanFactory.containsBeanDefinition("clipMapper")).isTrue();
+            assertThat(beanFactory.getBeanDefinition("clipMapper").getFactoryMethodName()).isEqualTo("newMapper");
+        }
+    }
+
+    private static byte[] entity(String internalName)
+    {
+        ClassWriter cw = new ClassWriter(0);
+
+        cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, internalName, null, "java/lang/Object", null);
+
+        AnnotationVisitor av = cw.visitAnnotation("Lcom/datastax/driver/mapping/annotations/Table;", true);
+        av.visit("keyspace", "videos");
+        av.visit("name", "clips");
+        av.visitEnd();
+
+        cw.visitEnd();
+
+        return cw.toByteArray();
+    }
+}
@@ -0,0 +1,110 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+package com.pingidentity.cassandra4j.springboot.bootstrap;
+
+import com.datastax.driver.core.CloseFuture;
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.exceptions.NoHostAvailableException;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DeferredSessionTest
+{
+    private final Cluster cluster = mock(Cluster.class);
+
+    @Test
+    public void failsCallsAfterBootstrapFailure()
+    {
+        CompletableFuture<Session> bootstrap = new CompletableFuture<>();
+        bootstrap.completeExceptionally(new NoHostAvailableException(Collections.emptyMap()));
+
+        assertFailsCalls(new DeferredSession(cluster, bootstrap), NoHostAvailableException.class);
+    }
+
+    @Test
+    public void failsCallsAfterBootstrapCancellation()
+    {
+        CompletableFuture<Session> bootstrap = new CompletableFuture<>();
+        bootstrap.cancel(false);
+
+        assertFailsCalls(new DeferredSession(cluster, bootstrap), CancellationException.class);
+    }
+
+    @Test
+    public void failsQueuedCallsWhenBootstrapFails()
+    {
+        CompletableFuture<Session> bootstrap = new CompletableFuture<>();
+        DeferredSession session = new DeferredSession(cluster, bootstrap);
+
+        ResultSetFuture queued = session.executeAsync(new SimpleStatement("SELECT * FROM videos"));
+
+        bootstrap.completeExceptionally(new NoHostAvailableException(Collections.emptyMap()));
+
+        assertThat(catchThrowable(queued::get)).isInstanceOf(ExecutionException.class).hasCauseInstanceOf(NoHostAvailableException.class);
+    }
+
+    @Test
+    public void delegatesToConnectedSession()
+    {
+        Session connected = mock(Session.class);
+        ResultSetFuture result = mock(ResultSetFuture.class);
+        SimpleStatement statement = new SimpleStatement("SELECT * FROM videos");
+
+        when(connected.executeAsync(statement)).thenReturn(result);
+        when(connected.isClosed()).thenReturn(true);
+
+        DeferredSession session = new DeferredSession(cluster, CompletableFuture.completedFuture(connected));
+
+        assertThat(session.executeAsync(statement)).isSameAs(result);
+        assertThat(session.isClosed()).isTrue();
+
+        session.closeAsync();
+        verify(connected).closeAsync();
+    }
+
+    private void assertFailsCalls(DeferredSession session, Class<? extends Throwable> failure)
+    {
+        CloseFuture closed = mock(CloseFuture.class);
+
+        when(cluster.isClosed()).thenReturn(false);
+        when(cluster.closeAsync()).thenReturn(closed);
+
+        ResultSetFuture result = session.executeAsync(new SimpleStatement("SELECT * FROM videos"));
+
+        assertThat(result.isDone()).isTrue();
+        assertThat(catchThrowable(result::get)).isInstanceOf(ExecutionException.class).hasCauseInstanceOf(failure);
+        assertThat(catchThrowable(() -> session.prepareAsync("SELECT * FROM videos").get())).hasCauseInstanceOf(failure);
+        assertThat(session.isReady()).isFalse();
+        assertThat(session.isClosed()).isFalse();
+        assertThat(session.closeAsync()).isSameAs(closed);
+    }
+}
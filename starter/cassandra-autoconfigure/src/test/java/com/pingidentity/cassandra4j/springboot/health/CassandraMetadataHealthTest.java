@@ -0,0 +1,143 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+package com.pingidentity.cassandra4j.springboot.health;
+
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.Configuration;
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.HostDistance;
+import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.policies.LoadBalancingPolicy;
+import com.datastax.driver.core.policies.Policies;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.actuate.health.Status;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CassandraMetadataHealthTest
+{
+    private final Cluster cluster = mock(Cluster.class);
+    private final Session session = mock(Session.class);
+    private final LoadBalancingPolicy policy = mock(LoadBalancingPolicy.class);
+    private final List<Host> hosts = new ArrayList<>();
+
+    private CassandraMetadataHealth health;
+
+    @Before
+    public void mockCluster()
+    {
+        Metadata metadata = mock(Metadata.class);
+        KeyspaceMetadata keyspace = mock(KeyspaceMetadata.class);
+        Configuration configuration = mock(Configuration.class);
+        Policies policies = mock(Policies.class);
+        Session.State state = mock(Session.State.class);
+        Map<String, String> replication = new HashMap<>();
+
+        replication.put("class", "org.apache.cassandra.locator.NetworkTopologyStrategy");
+        replication.put("dc1", "3");
+        replication.put("dc2", "3");
+
+        when(cluster.getMetadata()).thenReturn(metadata);
+        when(cluster.getConfiguration()).thenReturn(configuration);
+        when(configuration.getPolicies()).thenReturn(policies);
+        when(policies.getLoadBalancingPolicy()).thenReturn(policy);
+        when(metadata.getAllHosts()).thenAnswer(invocation -> new HashSet<>(hosts));
+        when(metadata.getKeyspace("ks")).thenReturn(keyspace);
+        when(keyspace.getReplication()).thenReturn(replication);
+        when(session.getState()).thenReturn(state);
+        when(state.getConnectedHosts()).thenAnswer(invocation -> hosts);
+    }
+
+    @After
+    public void close()
+    {
+        health.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void remoteQuorumLossIsReportedAsDetail()
+    {
+        dc("dc1", HostDistance.LOCAL, 3, 3);
+        dc("dc2", HostDistance.REMOTE, 1, 3);
+
+        health = health(null);
+
+        assertThat(health.current().getStatus()).isEqualTo(Status.UP);
+        assertThat((Map<String, Object>) health.current().getDetails().get("dc.dc2")).containsEntry("localQuorum", false)
+                                                                                       .containsEntry("local", false);
+    }
+
+    @Test
+    public void localQuorumLossIsDown()
+    {
+        dc("dc1", HostDistance.LOCAL, 1, 3);
+        dc("dc2", HostDistance.REMOTE, 3, 3);
+
+        health = health(null);
+
+        assertThat(health.current().getStatus()).isEqualTo(Status.DOWN);
+    }
+
+    @Test
+    public void configuredLocalDcTakesPrecedence()
+    {
+        dc("dc1", HostDistance.LOCAL, 3, 3);
+        dc("dc2", HostDistance.IGNORED, 1, 3);
+
+        health = health("dc2");
+
+        assertThat(health.current().getStatus()).isEqualTo(Status.DOWN);
+    }
+
+    private CassandraMetadataHealth health(String localDc)
+    {
+        CassandraMetadataHealth health = new CassandraMetadataHealth(cluster, session, "ks", localDc, 60000, 60000, true);
+
+        health.refresh();
+
+        return health;
+    }
+
+    private void dc(String name, HostDistance distance, int up, int total)
+    {
+        for (int i = 0; i < total; i++)
+        {
+            Host host = mock(Host.class);
+
+            when(host.getDatacenter()).thenReturn(name);
+            when(host.isUp()).thenReturn(i < up);
+            when(policy.distance(host)).thenReturn(distance);
+
+            hosts.add(host);
+        }
+    }
+}
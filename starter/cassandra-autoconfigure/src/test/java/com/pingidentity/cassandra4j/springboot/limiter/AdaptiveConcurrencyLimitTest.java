@@ -0,0 +1,120 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+package com.pingidentity.cassandra4j.springboot.limiter;
+
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.exceptions.OperationTimedOutException;
+import com.pingidentity.cassandra4j.springboot.CassandraProperties.LimiterOptions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AdaptiveConcurrencyLimitTest
+{
+    private final Host hostA = host();
+    private final Host hostB = host();
+
+    private InFlightLimiter limiter;
+    private AdaptiveConcurrencyLimit adaptiveLimit;
+
+    @Before
+    public void attach()
+    {
+        LimiterOptions options = new LimiterOptions();
+
+        options.setMaxInFlight(100);
+        options.setInitialLimitPerHost(8);
+        options.setMinLimitPerHost(1);
+        options.setMaxLimitPerHost(64);
+        //every sample fully applied, so single update is observable
+        options.setSmoothing(1.0);
+
+        limiter = new InFlightLimiter(options);
+        adaptiveLimit = new AdaptiveConcurrencyLimit(options);
+        adaptiveLimit.attach(limiter);
+        adaptiveLimit.onAdd(hostA);
+        adaptiveLimit.onAdd(hostB);
+    }
+
+    @After
+    public void close()
+    {
+        limiter.close();
+    }
+
+    @Test
+    public void throttlesTimingOutHostOnly()
+    {
+        for (int i = 0; i < 3; i++)
+        {
+            adaptiveLimit.update(hostA, null, new OperationTimedOutException(new InetSocketAddress(9042)), TimeUnit.SECONDS.toNanos(1));
+        }
+
+        assertThat(adaptiveLimit.getLimit(hostA)).isEqualTo(1);
+        assertThat(adaptiveLimit.getLimit(hostB)).isEqualTo(8);
+        assertThat(limiter.getLimit()).isEqualTo(9);
+
+        limiter.execute(hostA, () -> {}, e -> {});
+        limiter.execute(hostA, () -> {}, e -> {});
+        limiter.execute(hostB, () -> {}, e -> {});
+
+        assertThat(limiter.getInFlight(hostA)).isEqualTo(1);
+        assertThat(limiter.getInFlight(hostB)).isEqualTo(1);
+        assertThat(limiter.getQueued()).isEqualTo(1);
+    }
+
+    @Test
+    public void growsLimitOfHostUtilizedInDriverPools()
+    {
+        Session session = mock(Session.class);
+        Session.State state = mock(Session.State.class);
+
+        when(session.getState()).thenReturn(state);
+        //host A is busy, host B is almost idle
+        when(state.getInFlightQueries(hostA)).thenReturn(8);
+        when(state.getInFlightQueries(hostB)).thenReturn(1);
+
+        adaptiveLimit.addSession(session);
+
+        adaptiveLimit.update(hostA, null, null, TimeUnit.MILLISECONDS.toNanos(1));
+        adaptiveLimit.update(hostB, null, null, TimeUnit.MILLISECONDS.toNanos(1));
+
+        //limit grows by its square root while latency stays at minimum
+        assertThat(adaptiveLimit.getLimit(hostA)).isEqualTo(10);
+        assertThat(adaptiveLimit.getLimit(hostB)).isEqualTo(8);
+        assertThat(limiter.getLimit()).isEqualTo(18);
+    }
+
+    private static Host host()
+    {
+        Host host = mock(Host.class);
+
+        when(host.isUp()).thenReturn(true);
+
+        return host;
+    }
+}
@@ -0,0 +1,242 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+package com.pingidentity.cassandra4j.springboot.limiter;
+
+import com.datastax.driver.core.Host;
+import com.pingidentity.cassandra4j.springboot.CassandraProperties.LimiterOptions;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class InFlightLimiterTest
+{
+    private InFlightLimiter limiter;
+
+    @After
+    public void close()
+    {
+        limiter.close();
+    }
+
+    @Test
+    public void runsTasksUpToLimitImmediately()
+    {
+        limiter = limiter(2, 10, 1000);
+
+        AtomicInteger executed = new AtomicInteger();
+
+        limiter.execute(executed::incrementAndGet, this::fail);
+        limiter.execute(executed::incrementAndGet, this::fail);
+        limiter.execute(executed::incrementAndGet, this::fail);
+
+        assertThat(executed).hasValue(2);
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+        assertThat(limiter.getQueued()).isEqualTo(1);
+    }
+
+    @Test
+    public void runsQueuedTaskOnRelease()
+    {
+        limiter = limiter(1, 10, 1000);
+
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+
+        limiter.execute(() -> order.add(1), this::fail);
+        limiter.execute(() -> order.add(2), this::fail);
+        limiter.execute(() -> order.add(3), this::fail);
+
+        assertThat(order).containsExactly(1);
+
+        limiter.release();
+        await(() -> order.size() == 2);
+        assertThat(order).containsExactly(1, 2);
+
+        limiter.release();
+        await(() -> order.size() == 3);
+        assertThat(order).containsExactly(1, 2, 3);
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+        assertThat(limiter.getQueued()).isZero();
+        assertThat(limiter.getDequeuedCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void rejectsWhenQueueIsFull()
+    {
+        limiter = limiter(1, 1, 1000);
+
+        List<RequestRejectedException> rejections = new ArrayList<>();
+
+        limiter.execute(() -> {}, rejections::add);
+        limiter.execute(() -> {}, rejections::add);
+        limiter.execute(() -> {}, rejections::add);
+
+        assertThat(rejections).hasSize(1);
+        assertThat(limiter.getRejectedCount()).isEqualTo(1);
+        assertThat(limiter.getQueued()).isEqualTo(1);
+    }
+
+    @Test
+    public void rejectsQueuedTaskAfterTimeout() throws Exception
+    {
+        limiter = limiter(1, 10, 50);
+
+        CompletableFuture<RequestRejectedException> rejected = new CompletableFuture<>();
+        AtomicInteger executed = new AtomicInteger();
+
+        limiter.execute(() -> {}, this::fail);
+        limiter.execute(executed::incrementAndGet, rejected::complete);
+
+        assertThat(rejected.get(5, TimeUnit.SECONDS)).hasMessageContaining("50ms");
+        assertThat(limiter.getTimedOutCount()).isEqualTo(1);
+        assertThat(limiter.getQueued()).isZero();
+
+        //expired waiter is not run when permit comes back
+        limiter.release();
+        assertThat(executed).hasValue(0);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    public void raisedLimitDrainsQueue()
+    {
+        limiter = limiter(1, 10, 1000);
+
+        AtomicInteger executed = new AtomicInteger();
+
+        for (int i = 0; i < 4; i++)
+        {
+            limiter.execute(executed::incrementAndGet, this::fail);
+        }
+
+        limiter.setLimit(3);
+
+        await(() -> executed.get() == 3);
+        assertThat(executed).hasValue(3);
+        assertThat(limiter.getQueued()).isEqualTo(1);
+    }
+
+    @Test
+    public void runsQueuedTasksOnDispatchThreadWithoutRecursion()
+    {
+        limiter = limiter(1, 100_000, 60_000);
+
+        AtomicInteger executed = new AtomicInteger();
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        limiter.execute(() -> {}, this::fail);
+
+        //every queued task fails synchronously and gives permit back right away
+        for (int i = 0; i < 50_000; i++)
+        {
+            limiter.execute(() ->
+            {
+                threads.add(Thread.currentThread());
+                executed.incrementAndGet();
+                limiter.release();
+            }, this::fail);
+        }
+
+        limiter.release();
+
+        await(() -> executed.get() == 50_000);
+        assertThat(threads).extracting(Thread::getName).containsOnly("cassandra-limiter-dispatch");
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    public void queuesRequestsOfHostAtItsLimit()
+    {
+        limiter = limiter(10, 10, 1000);
+
+        Host saturated = mock(Host.class);
+        Host other = mock(Host.class);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+        limiter.setHostLimit(host -> host == saturated ? 1 : 10);
+
+        limiter.execute(saturated, () -> order.add("saturated-1"), this::fail);
+        limiter.execute(saturated, () -> order.add("saturated-2"), this::fail);
+        //queued request of saturated host doesn't hold back other host
+        limiter.execute(other, () -> order.add("other"), this::fail);
+
+        assertThat(order).containsExactly("saturated-1", "other");
+        assertThat(limiter.getInFlight(saturated)).isEqualTo(1);
+        assertThat(limiter.getQueued()).isEqualTo(1);
+
+        limiter.release(saturated);
+
+        await(() -> order.size() == 3);
+        assertThat(order).containsExactly("saturated-1", "other", "saturated-2");
+        assertThat(limiter.getInFlight(saturated)).isEqualTo(1);
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+    }
+
+    @Test
+    public void limitIsAtLeastOne()
+    {
+        limiter = limiter(4, 10, 1000);
+
+        limiter.setLimit(0);
+
+        assertThat(limiter.getLimit()).isEqualTo(1);
+    }
+
+    private void fail(RequestRejectedException e)
+    {
+        throw new AssertionError("Unexpected rejection", e);
+    }
+
+    private static void await(BooleanSupplier condition)
+    {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+        while (!condition.getAsBoolean())
+        {
+            if (System.nanoTime() > deadline)
+            {
+                throw new AssertionError("Condition not met in 5s");
+            }
+
+            Thread.yield();
+        }
+    }
+
+    private static InFlightLimiter limiter(int maxInFlight, int maxQueueSize, long queueTimeoutMs)
+    {
+        LimiterOptions options = new LimiterOptions();
+
+        options.setMaxInFlight(maxInFlight);
+        options.setMaxQueueSize(maxQueueSize);
+        options.setQueueTimeoutMs(queueTimeoutMs);
+
+        return new InFlightLimiter(options);
+    }
+}
@@ -0,0 +1,267 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+package com.pingidentity.cassandra4j.springboot.mapping;
+
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.ColumnMetadata;
+import com.datastax.driver.core.Configuration;
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ProtocolOptions;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.TableMetadata;
+import com.datastax.driver.mapping.Mapper;
+import com.datastax.driver.mapping.MappingManager;
+import com.pingidentity.cassandra4j.springboot.CassandraProperties.BatchingOptions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BatchingMapperTest
+{
+    private final List<Statement> executed = Collections.synchronizedList(new ArrayList<>());
+
+    private Mapper<Row> mapper;
+    private Session session;
+    private BatchingMapper<Row> batching;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void mockMapper()
+    {
+        mapper = mock(Mapper.class);
+        session = mock(Session.class);
+
+        MappingManager manager = mock(MappingManager.class);
+        Cluster cluster = mock(Cluster.class);
+        Configuration configuration = mock(Configuration.class);
+        TableMetadata table = mock(TableMetadata.class);
+        ColumnMetadata partitionKey = mock(ColumnMetadata.class);
+        ColumnMetadata clusteringKey = mock(ColumnMetadata.class);
+
+        when(mapper.getManager()).thenReturn(manager);
+        when(mapper.getTableMetadata()).thenReturn(table);
+        when(manager.getSession()).thenReturn(session);
+        when(session.getCluster()).thenReturn(cluster);
+        when(cluster.getConfiguration()).thenReturn(configuration);
+        when(configuration.getProtocolOptions()).thenReturn(mock(ProtocolOptions.class));
+        when(table.getName()).thenReturn("rows");
+        when(table.getPrimaryKey()).thenReturn(Arrays.asList(partitionKey, clusteringKey));
+        when(partitionKey.getName()).thenReturn("pk");
+        when(clusteringKey.getName()).thenReturn("ck");
+
+        when(mapper.saveQuery(any(Row.class), any())).thenAnswer(invocation -> ((Row) invocation.getArgument(0)).statement);
+        when(session.executeAsync(any(Statement.class))).thenAnswer(invocation ->
+        {
+            executed.add(invocation.getArgument(0));
+            return written();
+        });
+    }
+
+    @After
+    public void close()
+    {
+        if (batching != null)
+        {
+            batching.close();
+        }
+    }
+
+    @Test
+    public void writesSavesOfPartitionAsOneBatch()
+    {
+        batching = new BatchingMapper<>(mapper, options(10));
+
+        Row a1 = new Row("a", "1");
+        Row a2 = new Row("a", "2");
+        Row b1 = new Row("b", "1");
+
+        List<CompletionStage<Void>> saves = Arrays.asList(batching.saveAsync(a1), batching.saveAsync(a2), batching.saveAsync(b1));
+        batching.flush();
+
+        assertThat(executed).hasSize(2);
+        assertThat(statements(executed.get(0))).containsExactly(a1.statement, a2.statement);
+        assertThat(executed.get(1)).isSameAs(b1.statement);
+        assertThat(saves).allMatch(save -> save.toCompletableFuture().isDone() && !save.toCompletableFuture().isCompletedExceptionally());
+    }
+
+    @Test
+    public void sendsBatchWhenMaxStatementsReached()
+    {
+        batching = new BatchingMapper<>(mapper, options(2));
+
+        batching.saveAsync(new Row("a", "1"));
+        batching.saveAsync(new Row("a", "2"));
+
+        verify(session, timeout(1000)).executeAsync(any(BatchStatement.class));
+    }
+
+    @Test
+    public void sendsRepeatedPrimaryKeyInNextBatch()
+    {
+        batching = new BatchingMapper<>(mapper, options(10));
+
+        Row first = new Row("a", "1");
+        Row other = new Row("a", "2");
+        Row second = new Row("a", "1");
+
+        batching.saveAsync(first);
+        batching.saveAsync(other);
+        batching.saveAsync(second);
+        batching.flush();
+
+        assertThat(executed).hasSize(2);
+        assertThat(statements(executed.get(0))).containsExactly(first.statement, other.statement);
+        assertThat(executed.get(1)).isSameAs(second.statement);
+    }
+
+    @Test
+    public void sendsConditionalSaveOnItsOwnAfterPendingBatch()
+    {
+        batching = new BatchingMapper<>(mapper, options(10));
+
+        Row a1 = new Row("a", "1");
+        Row a2 = new Row("a", "2");
+        Row a3 = new Row("a", "3");
+        Row a4 = new Row("a", "4");
+
+        when(a3.statement.preparedStatement().getQueryString()).thenReturn("INSERT INTO ks.rows (pk,ck) VALUES (?,?) IF NOT EXISTS;");
+
+        batching.saveAsync(a1);
+        batching.saveAsync(a2);
+        batching.saveAsync(a3);
+        batching.saveAsync(a4);
+        batching.flush();
+
+        assertThat(executed).hasSize(3);
+        assertThat(statements(executed.get(0))).containsExactly(a1.statement, a2.statement);
+        assertThat(executed.get(1)).isSameAs(a3.statement);
+        assertThat(executed.get(2)).isSameAs(a4.statement);
+    }
+
+    @Test
+    public void batchesOnlySavesOfSameConsistencyLevel()
+    {
+        batching = new BatchingMapper<>(mapper, options(10));
+
+        Row a1 = new Row("a", "1");
+        Row a2 = new Row("a", "2");
+        Row a3 = new Row("a", "3");
+
+        when(a1.statement.getConsistencyLevel()).thenReturn(ConsistencyLevel.QUORUM);
+        when(a2.statement.getConsistencyLevel()).thenReturn(ConsistencyLevel.QUORUM);
+        when(a3.statement.getConsistencyLevel()).thenReturn(ConsistencyLevel.ONE);
+
+        batching.saveAsync(a1);
+        batching.saveAsync(a2);
+        batching.saveAsync(a3);
+        batching.flush();
+
+        assertThat(executed).hasSize(2);
+        assertThat(statements(executed.get(0))).containsExactly(a1.statement, a2.statement);
+        assertThat(executed.get(0).getConsistencyLevel()).isEqualTo(ConsistencyLevel.QUORUM);
+        assertThat(executed.get(1)).isSameAs(a3.statement);
+    }
+
+    @Test
+    public void failsSaveWhenStatementCannotBeBuilt()
+    {
+        batching = new BatchingMapper<>(mapper, options(10));
+
+        Row broken = new Row("a", "1");
+        when(mapper.saveQuery(any(Row.class), any())).thenThrow(new IllegalArgumentException("unmapped"));
+
+        CompletionStage<Void> save = batching.saveAsync(broken);
+        batching.flush();
+
+        assertThat(save.toCompletableFuture()).isCompletedExceptionally();
+        assertThat(executed).isEmpty();
+    }
+
+    private static BatchingOptions options(int maxStatements)
+    {
+        BatchingOptions options = new BatchingOptions();
+        options.setMaxStatements(maxStatements);
+        //batches are sent by size or explicit flush only
+        options.setFlushIntervalMs(60_000);
+        return options;
+    }
+
+    private static List<Statement> statements(Statement statement)
+    {
+        assertThat(statement).isInstanceOf(BatchStatement.class);
+        return new ArrayList<>(((BatchStatement) statement).getStatements());
+    }
+
+    private static ResultSetFuture written()
+    {
+        ResultSetFuture future = mock(ResultSetFuture.class);
+
+        when(future.isDone()).thenReturn(true);
+        doAnswer(invocation ->
+        {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(future).addListener(any(), any());
+
+        return future;
+    }
+
+    private static class Row
+    {
+        final BoundStatement statement = mock(BoundStatement.class);
+
+        Row(String partition, String clustering)
+        {
+            PreparedStatement prepared = mock(PreparedStatement.class);
+
+            when(prepared.getQueryString()).thenReturn("INSERT INTO ks.rows (pk,ck) VALUES (?,?);");
+            when(statement.preparedStatement()).thenReturn(prepared);
+            when(statement.getRoutingKey(any(), any())).thenAnswer(invocation -> bytes(partition));
+            when(statement.requestSizeInBytes(any(), any())).thenReturn(20);
+            when(statement.getBytesUnsafe("pk")).thenAnswer(invocation -> bytes(partition));
+            when(statement.getBytesUnsafe("ck")).thenAnswer(invocation -> bytes(clustering));
+        }
+
+        private static ByteBuffer bytes(String value)
+        {
+            return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
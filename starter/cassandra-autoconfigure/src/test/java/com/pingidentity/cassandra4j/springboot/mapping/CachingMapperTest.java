@@ -0,0 +1,196 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+package com.pingidentity.cassandra4j.springboot.mapping;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.ColumnMetadata;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.TableMetadata;
+import com.datastax.driver.mapping.Mapper;
+import com.datastax.driver.mapping.MappingManager;
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CachingMapperTest
+{
+    private Mapper<Video> mapper;
+    private Session session;
+    private CachingMapper<Video> caching;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void mockMapper()
+    {
+        mapper = mock(Mapper.class);
+        session = mock(Session.class);
+
+        MappingManager manager = mock(MappingManager.class);
+        TableMetadata table = mock(TableMetadata.class);
+        ColumnMetadata column = mock(ColumnMetadata.class);
+
+        when(mapper.getManager()).thenReturn(manager);
+        when(mapper.getTableMetadata()).thenReturn(table);
+        when(manager.getSession()).thenReturn(session);
+        when(table.getPrimaryKey()).thenReturn(Collections.singletonList(column));
+        when(column.getName()).thenReturn("id");
+
+        when(mapper.getQuery(any())).thenAnswer(invocation -> bound(invocation.getArgument(0)));
+        when(mapper.saveQuery(any(Video.class))).thenAnswer(invocation -> bound(((Video) invocation.getArgument(0)).id));
+        when(mapper.deleteQuery(any(Video.class))).thenAnswer(invocation -> bound(((Video) invocation.getArgument(0)).id));
+        when(session.executeAsync(any(Statement.class))).thenAnswer(invocation -> new WrittenFuture());
+
+        caching = new CachingMapper<>(Video.class, mapper, 100, TimeUnit.MINUTES.toMillis(1));
+    }
+
+    @Test
+    public void sharesLoadOfKeyWithoutHoldingCacheLock() throws Exception
+    {
+        SettableFuture<Video> load = SettableFuture.create();
+        when(mapper.getAsync(any())).thenReturn(load);
+
+        CompletableFuture<Video> first = caching.getAsync("v1");
+        CompletableFuture<Video> second = caching.getAsync("v1");
+
+        assertThat(first).isNotDone();
+        //not blocked by pending load of the same key
+        assertThat(CompletableFuture.runAsync(() -> caching.invalidate(new Video("v1"))).get(5, TimeUnit.SECONDS)).isNull();
+
+        load.set(new Video("v1"));
+
+        assertThat(first.get().id).isEqualTo("v1");
+        assertThat(second.get().id).isEqualTo("v1");
+        verify(mapper, times(1)).getAsync(any());
+        //load invalidated while in flight is not cached
+        assertThat(caching.size()).isZero();
+    }
+
+    @Test
+    public void servesLoadedEntityFromCache()
+    {
+        when(mapper.getAsync(any())).thenAnswer(invocation -> immediate(new Video("v1")));
+
+        assertThat(caching.get("v1").id).isEqualTo("v1");
+        assertThat(caching.get("v1").id).isEqualTo("v1");
+
+        verify(mapper, times(1)).getAsync(any());
+        assertThat(caching.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void doesNotCacheMissingEntity()
+    {
+        when(mapper.getAsync(any())).thenAnswer(invocation -> immediate(null));
+
+        assertThat(caching.get("missing")).isNull();
+        assertThat(caching.get("missing")).isNull();
+
+        verify(mapper, times(2)).getAsync(any());
+    }
+
+    @Test
+    public void asyncMapperSaveInvalidatesCachedEntity() throws Exception
+    {
+        when(mapper.getAsync(any())).thenAnswer(invocation -> immediate(new Video("v1")));
+
+        AsyncMapper<Video> asyncMapper = new AsyncMapper<>(mapper, null, 1, false, 1, () -> caching);
+
+        caching.get("v1");
+        assertThat(caching.size()).isEqualTo(1);
+
+        asyncMapper.saveAsync(new Video("v1")).toCompletableFuture().get(5, TimeUnit.SECONDS);
+
+        assertThat(caching.size()).isZero();
+    }
+
+    private static <V> SettableFuture<V> immediate(V value)
+    {
+        SettableFuture<V> future = SettableFuture.create();
+        future.set(value);
+        return future;
+    }
+
+    private static BoundStatement bound(String id)
+    {
+        BoundStatement statement = mock(BoundStatement.class);
+
+        when(statement.getBytesUnsafe("id")).thenAnswer(invocation -> ByteBuffer.wrap(id.getBytes(StandardCharsets.UTF_8)));
+
+        return statement;
+    }
+
+    private static class WrittenFuture extends AbstractFuture<ResultSet> implements ResultSetFuture
+    {
+        WrittenFuture()
+        {
+            set(mock(ResultSet.class));
+        }
+
+        @Override
+        public ResultSet getUninterruptibly()
+        {
+            return getUnchecked();
+        }
+
+        @Override
+        public ResultSet getUninterruptibly(long timeout, TimeUnit unit)
+        {
+            return getUnchecked();
+        }
+
+        private ResultSet getUnchecked()
+        {
+            try
+            {
+                return get();
+            }
+            catch (Exception e)
+            {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static class Video
+    {
+        final String id;
+
+        Video(String id)
+        {
+            this.id = id;
+        }
+    }
+}
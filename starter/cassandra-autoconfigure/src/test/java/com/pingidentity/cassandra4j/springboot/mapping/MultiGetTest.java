@@ -0,0 +1,307 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+package com.pingidentity.cassandra4j.springboot.mapping;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.ColumnMetadata;
+import com.datastax.driver.core.Configuration;
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ProtocolOptions;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.TableMetadata;
+import com.datastax.driver.mapping.Mapper;
+import com.datastax.driver.mapping.MappingManager;
+import com.datastax.driver.mapping.Result;
+import com.google.common.util.concurrent.Futures;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MultiGetTest
+{
+    private final Map<String, Video> rows = new HashMap<>();
+    private final List<Statement> executed = new ArrayList<>();
+
+    private final Host replicaA = mock(Host.class);
+    private final Host replicaB = mock(Host.class);
+
+    private Mapper<Video> mapper;
+    private Session session;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void mockMapper()
+    {
+        for (String id : Arrays.asList("a1", "a2", "a3", "b1"))
+        {
+            rows.put(id, new Video(id));
+        }
+
+        mapper = mock(Mapper.class);
+        session = mock(Session.class);
+
+        MappingManager manager = mock(MappingManager.class);
+        Cluster cluster = mock(Cluster.class);
+        Configuration configuration = mock(Configuration.class);
+        Metadata metadata = mock(Metadata.class);
+        TableMetadata table = mock(TableMetadata.class);
+        KeyspaceMetadata keyspace = mock(KeyspaceMetadata.class);
+        ColumnMetadata column = mock(ColumnMetadata.class);
+
+        when(mapper.getManager()).thenReturn(manager);
+        when(mapper.getTableMetadata()).thenReturn(table);
+        when(manager.getSession()).thenReturn(session);
+        when(session.getCluster()).thenReturn(cluster);
+        when(cluster.getMetadata()).thenReturn(metadata);
+        when(cluster.getConfiguration()).thenReturn(configuration);
+        when(configuration.getProtocolOptions()).thenReturn(mock(ProtocolOptions.class));
+        when(table.getKeyspace()).thenReturn(keyspace);
+        when(table.getName()).thenReturn("videos");
+        when(table.getPrimaryKey()).thenReturn(Collections.singletonList(column));
+        when(keyspace.getName()).thenReturn("ks");
+        when(column.getName()).thenReturn("id");
+
+        //keys starting with 'a' are owned by one replica, the rest by another
+        when(metadata.getReplicas(eq("ks"), any(ByteBuffer.class))).thenAnswer(invocation ->
+                Collections.singleton(decode(invocation.getArgument(1)).startsWith("a") ? replicaA : replicaB));
+
+        when(mapper.getQuery(any())).thenAnswer(invocation -> bound(invocation.getArgument(0)));
+        when(mapper.deleteQuery(any(Video.class))).thenAnswer(invocation -> bound(((Video) invocation.getArgument(0)).id));
+        when(mapper.getAsync(any())).thenAnswer(invocation -> Futures.immediateFuture(rows.get((String) invocation.getArgument(0))));
+
+        when(session.prepareAsync(anyString())).thenAnswer(invocation -> Futures.immediateFuture(inQuery()));
+        when(session.executeAsync(any(Statement.class))).thenAnswer(invocation ->
+        {
+            executed.add(invocation.getArgument(0));
+            return mock(ResultSetFuture.class);
+        });
+    }
+
+    @Test
+    public void readsKeysOneByOneInKeysOrder() throws Exception
+    {
+        MultiGet<Video> multiGet = new MultiGet<>(mapper, null, 2, false, 10);
+
+        List<Video> videos = multiGet.getAll(Arrays.asList("b1", "missing", "a1", "b1")).get();
+
+        assertThat(videos).extracting(video -> video != null ? video.id : null).containsExactly("b1", null, "a1", "b1");
+        verify(session, never()).prepareAsync(anyString());
+    }
+
+    @Test
+    public void matchesGroupedRowsBackToKeys() throws Exception
+    {
+        //rows come back in other order than requested
+        returnRows("a3", "a1", "a2");
+
+        MultiGet<Video> multiGet = new MultiGet<>(mapper, null, 4, true, 10);
+
+        List<Video> videos = multiGet.getAll(Arrays.asList("a1", "a2", "b1", "a3")).get();
+
+        assertThat(videos).extracting(video -> video.id).containsExactly("a1", "a2", "b1", "a3");
+        assertThat(executed).hasSize(1);
+        verify(session).prepareAsync("SELECT * FROM ks.videos WHERE id IN (?, ?, ?)");
+    }
+
+    @Test
+    public void fillsEveryPositionOfRepeatedKey() throws Exception
+    {
+        returnRows("a2", "a1");
+
+        MultiGet<Video> multiGet = new MultiGet<>(mapper, null, 4, true, 10);
+
+        List<Video> videos = multiGet.getAll(Arrays.asList("a1", "a2", "a1", "a1")).get();
+
+        assertThat(videos).extracting(video -> video.id).containsExactly("a1", "a2", "a1", "a1");
+        //repeated key is requested once
+        verify(session).prepareAsync("SELECT * FROM ks.videos WHERE id IN (?, ?)");
+    }
+
+    @Test
+    public void leavesMissingKeysEmpty() throws Exception
+    {
+        returnRows("a1");
+
+        MultiGet<Video> multiGet = new MultiGet<>(mapper, null, 4, true, 10);
+
+        List<Video> videos = multiGet.getAll(Arrays.asList("a1", "a-missing")).get();
+
+        assertThat(videos).extracting(video -> video != null ? video.id : null).containsExactly("a1", null);
+    }
+
+    @Test
+    public void splitsGroupsLargerThanMaxGroupSize() throws Exception
+    {
+        returnRows("a1", "a2", "a3");
+
+        MultiGet<Video> multiGet = new MultiGet<>(mapper, null, 4, true, 2);
+
+        List<Video> videos = multiGet.getAll(Arrays.asList("a1", "a2", "a3")).get();
+
+        assertThat(videos).extracting(video -> video.id).containsExactly("a1", "a2", "a3");
+        assertThat(executed).hasSize(1);
+        //last chunk of single key is plain single partition read
+        verify(mapper).getAsync("a3");
+    }
+
+    @Test
+    public void boundsConcurrentReads() throws Exception
+    {
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        List<Supplier<CompletableFuture<Void>>> reads = new ArrayList<>();
+
+        for (int i = 0; i < 5; i++)
+        {
+            reads.add(() ->
+            {
+                CompletableFuture<Void> read = new CompletableFuture<>();
+                pending.add(read);
+                return read;
+            });
+        }
+
+        CompletableFuture<Void> done = MultiGet.runBounded(reads, 2);
+
+        assertThat(pending).hasSize(2);
+
+        pending.get(0).complete(null);
+        assertThat(pending).hasSize(3);
+
+        for (int i = 1; i < 5; i++)
+        {
+            pending.get(i).complete(null);
+        }
+
+        assertThat(pending).hasSize(5);
+        assertThat(done).isCompleted();
+    }
+
+    @Test
+    public void runsSynchronouslyCompletedReadsWithoutRecursion() throws Exception
+    {
+        AtomicInteger calls = new AtomicInteger();
+        List<Supplier<CompletableFuture<Void>>> reads = new ArrayList<>();
+
+        for (int i = 0; i < 100_000; i++)
+        {
+            reads.add(() ->
+            {
+                calls.incrementAndGet();
+                return CompletableFuture.completedFuture(null);
+            });
+        }
+
+        MultiGet.runBounded(reads, 4).get();
+
+        assertThat(calls).hasValue(100_000);
+    }
+
+    @Test
+    public void failsOnFirstFailedRead()
+    {
+        CompletableFuture<Void> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("read failed"));
+
+        AtomicInteger calls = new AtomicInteger();
+        List<Supplier<CompletableFuture<Void>>> reads = Arrays.asList(() -> failed, () ->
+        {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture(null);
+        });
+
+        assertThat(MultiGet.runBounded(reads, 1)).isCompletedExceptionally();
+        assertThat(calls).hasValue(0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void returnRows(String... ids)
+    {
+        Result<Video> result = mock(Result.class);
+        List<Video> videos = new ArrayList<>();
+
+        for (String id : ids)
+        {
+            videos.add(rows.get(id));
+        }
+
+        when(result.iterator()).thenAnswer(invocation -> videos.iterator());
+        when(mapper.mapAsync(any())).thenReturn(Futures.immediateFuture(result));
+    }
+
+    private static PreparedStatement inQuery()
+    {
+        PreparedStatement prepared = mock(PreparedStatement.class);
+
+        when(prepared.bind()).thenAnswer(invocation -> mock(BoundStatement.class));
+
+        return prepared;
+    }
+
+    private static BoundStatement bound(String id)
+    {
+        BoundStatement statement = mock(BoundStatement.class);
+        ByteBuffer key = ByteBuffer.wrap(id.getBytes(StandardCharsets.UTF_8));
+
+        when(statement.getBytesUnsafe(0)).thenAnswer(invocation -> key.duplicate());
+        when(statement.getRoutingKey(any(), any())).thenAnswer(invocation -> key.duplicate());
+
+        return statement;
+    }
+
+    private static String decode(ByteBuffer key)
+    {
+        return StandardCharsets.UTF_8.decode(key.duplicate()).toString();
+    }
+
+    private static class Video
+    {
+        final String id;
+
+        Video(String id)
+        {
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+package com.pingidentity.cassandra4j.springboot.metrics;
+
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.Session;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CassandraMetricsBinderTest
+{
+    private final Cluster cluster = mock(Cluster.class);
+    private final Session session = mock(Session.class);
+    private final Session.State state = mock(Session.State.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private Host first;
+    private Host second;
+
+    @Before
+    public void mockCluster() throws Exception
+    {
+        Metadata metadata = mock(Metadata.class);
+
+        first = host("127.0.1.1");
+        second = host("127.0.1.2");
+
+        when(cluster.getClusterName()).thenReturn("test");
+        when(cluster.getMetadata()).thenReturn(metadata);
+        when(metadata.getAllHosts()).thenReturn(new HashSet<>(Arrays.asList(first, second)));
+        when(session.getState()).thenReturn(state);
+        when(state.getInFlightQueries(first)).thenReturn(3);
+    }
+
+    @Test
+    public void readsSingleStateSnapshotPerScrape()
+    {
+        new CassandraMetricsBinder(cluster, session, null, true).bindTo(registry);
+
+        assertThat(registry.find("cassandra.host.requests.inflight").tag("host", "127.0.1.1").gauge().value()).isEqualTo(3);
+
+        registry.getMeters().forEach(Meter::measure);
+
+        verify(session, times(1)).getState();
+    }
+
+    @Test
+    public void removesMetersOfRemovedHost()
+    {
+        new CassandraMetricsBinder(cluster, session, null, true).bindTo(registry);
+
+        ArgumentCaptor<Host.StateListener> listener = ArgumentCaptor.forClass(Host.StateListener.class);
+        verify(cluster).register(listener.capture());
+
+        assertThat(registry.find("cassandra.host.connections.open").gauges()).hasSize(2);
+
+        listener.getValue().onRemove(first);
+
+        assertThat(registry.find("cassandra.host.connections.open").gauges()).hasSize(1);
+        assertThat(registry.find("cassandra.host.requests.inflight").tag("host", "127.0.1.1").gauge()).isNull();
+        assertThat(registry.find("cassandra.host.requests.inflight").tag("host", "127.0.1.2").gauge()).isNotNull();
+
+        //host coming back is bound again
+        listener.getValue().onAdd(first);
+
+        assertThat(registry.find("cassandra.host.connections.open").gauges()).hasSize(2);
+    }
+
+    private static Host host(String address) throws Exception
+    {
+        Host host = mock(Host.class);
+
+        when(host.getAddress()).thenReturn(InetAddress.getByName(address));
+        when(host.getDatacenter()).thenReturn("dc1");
+
+        return host;
+    }
+}
@@ -0,0 +1,217 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+package com.pingidentity.cassandra4j.springboot.policies;
+
+import com.datastax.driver.core.policies.LoadBalancingPolicy;
+import com.datastax.driver.core.policies.TokenAwarePolicy;
+import com.pingidentity.cassandra4j.springboot.CassandraProperties;
+import com.pingidentity.cassandra4j.springboot.CassandraProperties.LoadBalancingLayer;
+import com.pingidentity.cassandra4j.springboot.CassandraProperties.LoadBalancingPolicies;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+
+import static com.pingidentity.cassandra4j.springboot.CassandraProperties.LoadBalancingLayer.DC_AWARE;
+import static com.pingidentity.cassandra4j.springboot.CassandraProperties.LoadBalancingLayer.LATENCY_AWARE;
+import static com.pingidentity.cassandra4j.springboot.CassandraProperties.LoadBalancingLayer.LEAST_OUTSTANDING;
+import static com.pingidentity.cassandra4j.springboot.CassandraProperties.LoadBalancingLayer.RACK_AWARE;
+import static com.pingidentity.cassandra4j.springboot.CassandraProperties.LoadBalancingLayer.ROUND_ROBIN;
+import static com.pingidentity.cassandra4j.springboot.CassandraProperties.LoadBalancingLayer.SLOW_START;
+import static com.pingidentity.cassandra4j.springboot.CassandraProperties.LoadBalancingLayer.TOKEN_AWARE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class LoadBalancingChainTest
+{
+    @Test
+    public void keepsExplicitChain()
+    {
+        CassandraProperties props = chain(LEAST_OUTSTANDING, TOKEN_AWARE, DC_AWARE);
+
+        LoadBalancingChain chain = new LoadBalancingChain(props);
+
+        assertThat(chain.getLayers()).containsExactly(LEAST_OUTSTANDING, TOKEN_AWARE, DC_AWARE);
+        assertThat(LoadBalancingChain.describe(chain.build())).isEqualTo("LeastOutstandingPolicy -> TokenAwarePolicy -> DCAwareRoundRobinPolicy");
+    }
+
+    @Test
+    public void rejectsDuplicateLayer()
+    {
+        assertThatThrownBy(() -> new LoadBalancingChain(chain(TOKEN_AWARE, TOKEN_AWARE, DC_AWARE)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Duplicate TOKEN_AWARE");
+    }
+
+    @Test
+    public void rejectsChainNotEndingWithBasePolicy()
+    {
+        assertThatThrownBy(() -> new LoadBalancingChain(chain(DC_AWARE, TOKEN_AWARE)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("must end with single base policy");
+
+        assertThatThrownBy(() -> new LoadBalancingChain(chain(TOKEN_AWARE)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void rejectsSeveralBasePolicies()
+    {
+        assertThatThrownBy(() -> new LoadBalancingChain(chain(ROUND_ROBIN, DC_AWARE)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("must end with single base policy");
+    }
+
+    @Test
+    public void derivesNothingWithoutBasePolicy()
+    {
+        CassandraProperties props = new CassandraProperties();
+        props.setTokenaware(tokenAware(null));
+
+        LoadBalancingChain chain = new LoadBalancingChain(props);
+
+        assertThat(chain.getLayers()).isEmpty();
+        assertThat(chain.build()).isNull();
+    }
+
+    @Test
+    public void derivesNothingForDcAwareWithoutOptions()
+    {
+        CassandraProperties props = new CassandraProperties();
+        props.setLoadBalancingPolicy(LoadBalancingPolicies.DC_AWARE);
+
+        assertThat(new LoadBalancingChain(props).getLayers()).isEmpty();
+    }
+
+    @Test
+    public void derivesWrappersInFixedOrder()
+    {
+        CassandraProperties props = new CassandraProperties();
+        props.setLoadBalancingPolicy(LoadBalancingPolicies.DC_AWARE);
+        props.setDcaware(dcAware());
+        props.setRackaware(new CassandraProperties.RackAwarePolicy());
+        props.setLatencyaware(latencyAware());
+        props.setTokenaware(tokenAware(null));
+        props.setLeastoutstanding(new CassandraProperties.LeastOutstandingPolicy());
+        props.setSlowstart(new CassandraProperties.SlowStartPolicy());
+
+        LoadBalancingChain chain = new LoadBalancingChain(props);
+
+        assertThat(chain.getLayers()).containsExactly(SLOW_START, LEAST_OUTSTANDING, TOKEN_AWARE, LATENCY_AWARE, RACK_AWARE, DC_AWARE);
+        assertThat(LoadBalancingChain.describe(chain.build()))
+                .isEqualTo("SlowStartPolicy -> LeastOutstandingPolicy -> TokenAwarePolicy -> LatencyAwarePolicy -> RackAwarePolicy -> DCAwareRoundRobinPolicy");
+    }
+
+    @Test
+    public void derivesRoundRobinBase()
+    {
+        CassandraProperties props = new CassandraProperties();
+        props.setLoadBalancingPolicy(LoadBalancingPolicies.ROUND_ROBIN);
+        props.setTokenaware(tokenAware(null));
+
+        assertThat(new LoadBalancingChain(props).getLayers()).containsExactly(TOKEN_AWARE, ROUND_ROBIN);
+    }
+
+    @Test
+    public void skipsDisabledTokenAwareness()
+    {
+        CassandraProperties props = new CassandraProperties();
+        props.setLoadBalancingPolicy(LoadBalancingPolicies.ROUND_ROBIN);
+        props.setTokenaware(new CassandraProperties.TokenAwarePolicy());
+
+        assertThat(new LoadBalancingChain(props).getLayers()).containsExactly(ROUND_ROBIN);
+    }
+
+    @Test
+    public void findsLayerInStack()
+    {
+        LoadBalancingPolicy policy = new LoadBalancingChain(chain(SLOW_START, LEAST_OUTSTANDING, TOKEN_AWARE, DC_AWARE)).build();
+
+        assertThat(LoadBalancingChain.find(policy, LeastOutstandingPolicy.class)).isNotNull();
+        assertThat(LoadBalancingChain.find(policy, RackAwarePolicy.class)).isNull();
+    }
+
+    @Test
+    public void tokenAwareKeepsOrderOfOrderingLayerBelow()
+    {
+        CassandraProperties props = chain(TOKEN_AWARE, RACK_AWARE, DC_AWARE);
+        props.setTokenaware(tokenAware(TokenAwarePolicy.ReplicaOrdering.RANDOM));
+
+        assertThat(replicaOrdering(props)).isEqualTo(TokenAwarePolicy.ReplicaOrdering.NEUTRAL);
+    }
+
+    @Test
+    public void tokenAwareShufflesReplicasByDefault()
+    {
+        assertThat(replicaOrdering(chain(TOKEN_AWARE, DC_AWARE))).isEqualTo(TokenAwarePolicy.ReplicaOrdering.RANDOM);
+    }
+
+    @Test
+    public void tokenAwareUsesConfiguredOrdering()
+    {
+        CassandraProperties props = chain(TOKEN_AWARE, DC_AWARE);
+        props.setTokenaware(tokenAware(TokenAwarePolicy.ReplicaOrdering.TOPOLOGICAL));
+
+        assertThat(replicaOrdering(props)).isEqualTo(TokenAwarePolicy.ReplicaOrdering.TOPOLOGICAL);
+    }
+
+    private static Object replicaOrdering(CassandraProperties props)
+    {
+        TokenAwarePolicy tokenAware = LoadBalancingChain.find(new LoadBalancingChain(props).build(), TokenAwarePolicy.class);
+
+        return ReflectionTestUtils.getField(tokenAware, "replicaOrdering");
+    }
+
+    private static CassandraProperties chain(LoadBalancingLayer... layers)
+    {
+        CassandraProperties props = new CassandraProperties();
+        props.setLoadBalancingChain(Arrays.asList(layers));
+
+        return props;
+    }
+
+    private static CassandraProperties.DcAwarePolicy dcAware()
+    {
+        CassandraProperties.DcAwarePolicy dcAware = new CassandraProperties.DcAwarePolicy();
+        dcAware.setLocalDc("dc1");
+
+        return dcAware;
+    }
+
+    private static CassandraProperties.TokenAwarePolicy tokenAware(TokenAwarePolicy.ReplicaOrdering ordering)
+    {
+        CassandraProperties.TokenAwarePolicy tokenAware = new CassandraProperties.TokenAwarePolicy();
+        tokenAware.setEnabled(true);
+        tokenAware.setReplicaOrdering(ordering);
+
+        return tokenAware;
+    }
+
+    private static CassandraProperties.LatencyAwarePolicy latencyAware()
+    {
+        CassandraProperties.LatencyAwarePolicy latencyAware = new CassandraProperties.LatencyAwarePolicy();
+        latencyAware.setExclusionThreshold(2);
+        latencyAware.setMinimumMeasurements(50);
+        latencyAware.setRetryPeriod(10000);
+        latencyAware.setScale(100);
+        latencyAware.setUpdateRate(100);
+
+        return latencyAware;
+    }
+}
@@ -0,0 +1,125 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+package com.pingidentity.cassandra4j.springboot.policies;
+
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.policies.LoadBalancingPolicy;
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SlowStartPolicyTest
+{
+    private final LoadBalancingPolicy child = mock(LoadBalancingPolicy.class);
+    private final Host first = mock(Host.class);
+    private final Host second = mock(Host.class);
+
+    @Test
+    public void fullWeightForHostNotRamping()
+    {
+        SlowStartPolicy policy = new SlowStartPolicy(child, 60000, 0.1);
+
+        assertThat(policy.getWeight(first)).isEqualTo(1);
+        assertThat(policy.getRampingHostCount()).isZero();
+    }
+
+    @Test
+    public void startsFromMinWeightWhenHostComesUp()
+    {
+        SlowStartPolicy policy = new SlowStartPolicy(child, 60000, 0.1);
+
+        policy.onUp(first);
+
+        assertThat(policy.getWeight(first)).isCloseTo(0.1, within(0.01));
+        assertThat(policy.getRampingHostCount()).isEqualTo(1);
+        verify(child).onUp(first);
+    }
+
+    @Test
+    public void rampsLinearlyToFullWeight() throws Exception
+    {
+        SlowStartPolicy policy = new SlowStartPolicy(child, 200, 0);
+
+        policy.onAdd(first);
+        Thread.sleep(100);
+
+        assertThat(policy.getWeight(first)).isBetween(0.4, 1.0);
+
+        Thread.sleep(150);
+
+        assertThat(policy.getWeight(first)).isEqualTo(1);
+        assertThat(policy.getRampingHostCount()).isZero();
+    }
+
+    @Test
+    public void stopsRampingWhenHostGoesDown()
+    {
+        SlowStartPolicy policy = new SlowStartPolicy(child, 60000, 0.1);
+
+        policy.onUp(first);
+        policy.onDown(first);
+
+        assertThat(policy.getWeight(first)).isEqualTo(1);
+
+        policy.onAdd(second);
+        policy.onRemove(second);
+
+        assertThat(policy.getWeight(second)).isEqualTo(1);
+    }
+
+    @Test
+    public void clampsMinWeight()
+    {
+        SlowStartPolicy policy = new SlowStartPolicy(child, 60000, 5);
+
+        policy.onUp(first);
+
+        assertThat(policy.getWeight(first)).isEqualTo(1);
+    }
+
+    @Test
+    public void movesRampingHostBehindNextHost()
+    {
+        SlowStartPolicy policy = new SlowStartPolicy(child, 60000, 0);
+
+        when(child.newQueryPlan(any(), any())).thenAnswer(invocation -> Arrays.asList(first, second).iterator());
+
+        policy.onUp(first);
+
+        assertThat(Lists.newArrayList(policy.newQueryPlan("ks", null))).containsExactly(second, first);
+    }
+
+    @Test
+    public void keepsChildPlanWithoutRampingHosts()
+    {
+        SlowStartPolicy policy = new SlowStartPolicy(child, 60000, 0);
+
+        when(child.newQueryPlan(any(), any())).thenAnswer(invocation -> Arrays.asList(first, second).iterator());
+
+        assertThat(Lists.newArrayList(policy.newQueryPlan("ks", null))).containsExactly(first, second);
+    }
+}
@@ -0,0 +1,370 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+package com.pingidentity.cassandra4j.springboot.scan;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.ColumnMetadata;
+import com.datastax.driver.core.Configuration;
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.HostDistance;
+import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.TableMetadata;
+import com.datastax.driver.core.Token;
+import com.datastax.driver.core.policies.LoadBalancingPolicy;
+import com.datastax.driver.core.policies.Policies;
+import com.datastax.driver.mapping.Mapper;
+import com.datastax.driver.mapping.MappingManager;
+import com.datastax.driver.mapping.Result;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Scans fake Murmur3 table, rows are partition tokens and subrange queries are answered by filtering them by bound tokens.
+ */
+public class TokenRangeScannerTest
+{
+    private final Map<Statement, Token[]> bounds = new ConcurrentHashMap<>();
+    private final Map<ResultSet, List<Long>> results = new ConcurrentHashMap<>();
+    private final Set<Statement> unboundedStatements = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger unbounded = new AtomicInteger();
+
+    private List<Long> rows;
+    private Session session;
+    private Cluster cluster;
+    private MappingManager manager;
+    private TokenRangeScanner scanner;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void mockTable()
+    {
+        Set<Long> tokens = new TreeSet<>();
+        Random random = new Random(42);
+
+        while (tokens.size() < 2000)
+        {
+            tokens.add(random.nextLong());
+        }
+
+        //ring boundaries, min token itself is never assigned to partition
+        tokens.remove(Long.MIN_VALUE);
+        tokens.add(Long.MIN_VALUE + 1);
+        tokens.add(Long.MAX_VALUE);
+        tokens.add(0L);
+        rows = new ArrayList<>(tokens);
+
+        session = mock(Session.class);
+        cluster = mock(Cluster.class);
+        manager = mock(MappingManager.class);
+
+        Configuration configuration = mock(Configuration.class);
+        Policies policies = mock(Policies.class);
+        LoadBalancingPolicy policy = mock(LoadBalancingPolicy.class);
+
+        when(session.getCluster()).thenReturn(cluster);
+        when(cluster.getConfiguration()).thenReturn(configuration);
+        when(configuration.getPolicies()).thenReturn(policies);
+        when(policies.getLoadBalancingPolicy()).thenReturn(policy);
+        when(policy.distance(any())).thenReturn(HostDistance.LOCAL);
+
+        TableMetadata table = mock(TableMetadata.class);
+        KeyspaceMetadata keyspace = mock(KeyspaceMetadata.class);
+        ColumnMetadata column = mock(ColumnMetadata.class);
+        Mapper<Long> mapper = mock(Mapper.class);
+
+        when(manager.mapper(Long.class)).thenReturn(mapper);
+        when(mapper.getTableMetadata()).thenReturn(table);
+        when(table.getKeyspace()).thenReturn(keyspace);
+        when(table.getName()).thenReturn("videos");
+        when(table.getPartitionKey()).thenReturn(Collections.singletonList(column));
+        when(keyspace.getName()).thenReturn("media");
+        when(column.getName()).thenReturn("id");
+
+        when(session.prepare(anyString())).thenAnswer(invocation -> prepare(invocation.getArgument(0)));
+        when(session.execute(any(Statement.class))).thenAnswer(invocation -> execute(invocation.getArgument(0)));
+        when(mapper.map(any(ResultSet.class))).thenAnswer(invocation ->
+        {
+            Result<Long> result = mock(Result.class);
+            when(result.iterator()).thenReturn(results.get(invocation.<ResultSet>getArgument(0)).iterator());
+            return result;
+        });
+    }
+
+    @After
+    public void close()
+    {
+        if (scanner != null)
+        {
+            scanner.close();
+        }
+    }
+
+    @Test
+    public void scansEveryRowOfVnodeRingOnce() throws Exception
+    {
+        Random random = new Random(7);
+        Map<Host, Set<Long>> ring = new HashMap<>();
+
+        for (int i = 0; i < 3; i++)
+        {
+            Set<Long> tokens = new HashSet<>();
+
+            while (tokens.size() < 16)
+            {
+                tokens.add(random.nextLong());
+            }
+
+            ring.put(mock(Host.class), tokens);
+        }
+
+        ring(ring);
+        scanner = new TokenRangeScanner(session, manager, 4, 64, null);
+
+        Queue<Long> scanned = new ConcurrentLinkedQueue<>();
+
+        assertThat(scanner.scan(Long.class, scanned::add)).isEqualTo(rows.size());
+        assertThat(scanned).containsExactlyInAnyOrderElementsOf(rows);
+        //range wrapping around the ring is unwrapped into ]last, min] queried without upper bound
+        assertThat(unbounded).hasValue(1);
+    }
+
+    @Test
+    public void scansEveryRowOfSingleTokenRingOnce() throws Exception
+    {
+        ring(Collections.singletonMap(mock(Host.class), Collections.singleton(0L)));
+        scanner = new TokenRangeScanner(session, manager, 4, 1, null);
+
+        Queue<Long> scanned = new ConcurrentLinkedQueue<>();
+
+        //single range ]min, min] is the whole ring
+        assertThat(scanner.scan(Long.class, scanned::add)).isEqualTo(rows.size());
+        assertThat(scanned).containsExactlyInAnyOrderElementsOf(rows);
+        assertThat(unbounded).hasValue(1);
+    }
+
+    @Test
+    public void scansEveryRowOfSplitSingleTokenRingOnce() throws Exception
+    {
+        ring(Collections.singletonMap(mock(Host.class), Collections.singleton(0L)));
+        scanner = new TokenRangeScanner(session, manager, 4, 16, null);
+
+        Queue<Long> scanned = new ConcurrentLinkedQueue<>();
+
+        assertThat(scanner.scan(Long.class, scanned::add)).isEqualTo(rows.size());
+        assertThat(scanned).containsExactlyInAnyOrderElementsOf(rows);
+        //only last split ]x, min] is unbounded
+        assertThat(unbounded).hasValue(1);
+    }
+
+    @Test
+    public void resumesFromCheckpoint() throws Exception
+    {
+        ring(Collections.singletonMap(mock(Host.class), Collections.singleton(0L)));
+        scanner = new TokenRangeScanner(session, manager, 1, 16, null);
+
+        ScanCheckpoint checkpoint = new ScanCheckpoint();
+        Queue<Long> first = new ConcurrentLinkedQueue<>();
+
+        assertThatThrownBy(() -> scanner.scan(Long.class, checkpoint, token ->
+        {
+            if (token == Long.MAX_VALUE)
+            {
+                throw new IllegalStateException("Consumer failed");
+            }
+
+            first.add(token);
+        })).isInstanceOf(IllegalStateException.class);
+
+        Set<String> completed = new HashSet<>(checkpoint.getCompleted());
+
+        assertThat(completed).isNotEmpty();
+        assertThat(completed.size()).isLessThan(16);
+
+        //rows of subranges completed by first run
+        List<Long> done = rows.stream().filter(token -> completed.stream().anyMatch(range -> contains(range, token))).collect(Collectors.toList());
+
+        assertThat(first).containsAll(done);
+
+        Queue<Long> second = new ConcurrentLinkedQueue<>();
+
+        scanner.scan(Long.class, new ScanCheckpoint(completed), second::add);
+
+        assertThat(second).doesNotContainAnyElementsOf(done);
+
+        List<Long> all = new ArrayList<>(done);
+        all.addAll(second);
+
+        assertThat(all).containsExactlyInAnyOrderElementsOf(rows);
+    }
+
+    @Test
+    public void createsPoolOnFirstScan() throws Exception
+    {
+        ring(Collections.singletonMap(mock(Host.class), Collections.singleton(0L)));
+        scanner = new TokenRangeScanner(session, manager, 4, 1, null);
+
+        Field pool = TokenRangeScanner.class.getDeclaredField("pool");
+        pool.setAccessible(true);
+
+        assertThat(pool.get(scanner)).isNull();
+
+        scanner.scan(Long.class, token -> {});
+
+        assertThat(pool.get(scanner)).isNotNull();
+
+        scanner.close();
+
+        assertThatThrownBy(() -> scanner.scan(Long.class, token -> {})).isInstanceOf(IllegalStateException.class);
+    }
+
+    private PreparedStatement prepare(String query)
+    {
+        PreparedStatement prepared = mock(PreparedStatement.class);
+
+        when(prepared.bind()).thenAnswer(invocation ->
+        {
+            Token[] range = new Token[2];
+            BoundStatement statement = mock(BoundStatement.class, RETURNS_SELF);
+
+            when(statement.setToken(anyInt(), any(Token.class))).thenAnswer(set ->
+            {
+                range[set.<Integer>getArgument(0)] = set.getArgument(1);
+                return statement;
+            });
+
+            bounds.put(statement, range);
+
+            if (!query.contains("<="))
+            {
+                unboundedStatements.add(statement);
+            }
+
+            return statement;
+        });
+
+        return prepared;
+    }
+
+    private ResultSet execute(Statement statement)
+    {
+        Token[] range = bounds.get(statement);
+        long start = (Long) range[0].getValue();
+
+        if (unboundedStatements.contains(statement))
+        {
+            assertThat(range[1]).isNull();
+            unbounded.incrementAndGet();
+        }
+        else
+        {
+            assertThat(range[1]).isNotNull();
+        }
+
+        ResultSet resultSet = mock(ResultSet.class);
+
+        results.put(resultSet, rows.stream()
+                                   .filter(token -> token > start && (range[1] == null || token <= (Long) range[1].getValue()))
+                                   .collect(Collectors.toList()));
+
+        return resultSet;
+    }
+
+    /**
+     * Unwrapped checkpoint range, end not greater than start means up to the end of the ring.
+     */
+    private static boolean contains(String range, long token)
+    {
+        String[] tokens = range.split(":");
+        long start = Long.parseLong(tokens[0]);
+        long end = Long.parseLong(tokens[1]);
+
+        return token > start && (end <= start || token <= end);
+    }
+
+    /**
+     * Builds real Murmur3 token metadata of given hosts, token map is internal to the driver.
+     */
+    private void ring(Map<Host, Set<Long>> ring) throws Exception
+    {
+        Method factoryOf = Token.class.getDeclaredMethod("getFactory", String.class);
+        factoryOf.setAccessible(true);
+        Object factory = factoryOf.invoke(null, "Murmur3Partitioner");
+
+        Method fromString = factory.getClass().getSuperclass().getDeclaredMethod("fromString", String.class);
+        fromString.setAccessible(true);
+
+        Map<Host, Set<Token>> tokens = new HashMap<>();
+
+        for (Map.Entry<Host, Set<Long>> entry : ring.entrySet())
+        {
+            Set<Token> hostTokens = new HashSet<>();
+
+            for (Long token : entry.getValue())
+            {
+                hostTokens.add((Token) fromString.invoke(factory, token.toString()));
+            }
+
+            tokens.put(entry.getKey(), hostTokens);
+        }
+
+        Constructor<?> constructor = Metadata.class.getDeclaredConstructors()[0];
+        constructor.setAccessible(true);
+        Metadata metadata = (Metadata) constructor.newInstance(new Object[] {null});
+
+        Method rebuild = Metadata.class.getDeclaredMethod("rebuildTokenMap", fromString.getDeclaringClass(), Map.class);
+        rebuild.setAccessible(true);
+        rebuild.invoke(metadata, factory, tokens);
+
+        when(cluster.getMetadata()).thenReturn(metadata);
+    }
+}
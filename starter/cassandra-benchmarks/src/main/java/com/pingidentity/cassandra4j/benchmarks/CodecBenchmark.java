@@ -0,0 +1,159 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.benchmarks;
+
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.TypeCodec;
+import com.datastax.driver.extras.codecs.enums.EnumNameCodec;
+import com.datastax.driver.extras.codecs.enums.EnumOrdinalCodec;
+import com.pingidentity.cassandra4j.benchmarks.model.Video;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enum and collection codecs encode/decode cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CodecBenchmark
+{
+    private static final ProtocolVersion V4 = ProtocolVersion.V4;
+
+    @Param({"10", "1000"})
+    private int size;
+
+    private final TypeCodec<Video.Genre> enumName = new EnumNameCodec<>(Video.Genre.class);
+    private final TypeCodec<Video.Genre> enumOrdinal = new EnumOrdinalCodec<>(Video.Genre.class);
+    private final TypeCodec<Set<Video.Genre>> genres = TypeCodec.set(enumName);
+    private final TypeCodec<List<String>> list = TypeCodec.list(TypeCodec.varchar());
+    private final TypeCodec<Map<String, Integer>> map = TypeCodec.map(TypeCodec.varchar(), TypeCodec.cint());
+
+    private Set<Video.Genre> genresValue;
+    private List<String> listValue;
+    private Map<String, Integer> mapValue;
+
+    private ByteBuffer enumNameBytes;
+    private ByteBuffer enumOrdinalBytes;
+    private ByteBuffer genresBytes;
+    private ByteBuffer listBytes;
+    private ByteBuffer mapBytes;
+
+    @Setup
+    public void setup()
+    {
+        genresValue = EnumSet.allOf(Video.Genre.class);
+        listValue = new ArrayList<>(size);
+        mapValue = new LinkedHashMap<>(size);
+
+        for (int i = 0; i < size; i++)
+        {
+            listValue.add("value-" + i);
+            mapValue.put("key-" + i, i);
+        }
+
+        enumNameBytes = enumName.serialize(Video.Genre.documentary, V4);
+        enumOrdinalBytes = enumOrdinal.serialize(Video.Genre.documentary, V4);
+        genresBytes = genres.serialize(genresValue, V4);
+        listBytes = list.serialize(listValue, V4);
+        mapBytes = map.serialize(mapValue, V4);
+    }
+
+    @Benchmark
+    public ByteBuffer encodeEnumName()
+    {
+        return enumName.serialize(Video.Genre.documentary, V4);
+    }
+
+    @Benchmark
+    public Video.Genre decodeEnumName()
+    {
+        return enumName.deserialize(enumNameBytes.duplicate(), V4);
+    }
+
+    @Benchmark
+    public ByteBuffer encodeEnumOrdinal()
+    {
+        return enumOrdinal.serialize(Video.Genre.documentary, V4);
+    }
+
+    @Benchmark
+    public Video.Genre decodeEnumOrdinal()
+    {
+        return enumOrdinal.deserialize(enumOrdinalBytes.duplicate(), V4);
+    }
+
+    @Benchmark
+    public ByteBuffer encodeEnumSet()
+    {
+        return genres.serialize(genresValue, V4);
+    }
+
+    @Benchmark
+    public Set<Video.Genre> decodeEnumSet()
+    {
+        return genres.deserialize(genresBytes.duplicate(), V4);
+    }
+
+    @Benchmark
+    public ByteBuffer encodeList()
+    {
+        return list.serialize(listValue, V4);
+    }
+
+    @Benchmark
+    public List<String> decodeList()
+    {
+        return list.deserialize(listBytes.duplicate(), V4);
+    }
+
+    @Benchmark
+    public ByteBuffer encodeMap()
+    {
+        return map.serialize(mapValue, V4);
+    }
+
+    @Benchmark
+    public Map<String, Integer> decodeMap()
+    {
+        return map.deserialize(mapBytes.duplicate(), V4);
+    }
+}
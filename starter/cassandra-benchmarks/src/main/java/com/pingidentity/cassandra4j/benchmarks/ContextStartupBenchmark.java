@@ -0,0 +1,173 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.benchmarks;
+
+import com.pingidentity.cassandra4j.springboot.CassandraAutoConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.asm.AnnotationVisitor;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of mapper/accessor bean registration at context startup with N scanned {@code @Table} entities,
+ * with classpath scanning versus build time index (see spring-boot-cassandra-processor).
+ *
+ * Entities are generated into temporary directory and loaded by fresh class loader every invocation,
+ * so each measurement sees cold classes, same as real application start.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(3)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+public class ContextStartupBenchmark
+{
+    private static final String PACKAGE = "com.pingidentity.cassandra4j.benchmarks.generated";
+
+    @Param({"10", "100", "500"})
+    private int entities;
+
+    @Param({"false", "true"})
+    private boolean index;
+
+    private Path classes;
+    private URLClassLoader classLoader;
+    private StandardEnvironment environment;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException
+    {
+        classes = Files.createTempDirectory("cassandra4j-benchmarks");
+
+        Path packageDir = Files.createDirectories(classes.resolve(PACKAGE.replace('.', '/')));
+        Properties entries = new Properties();
+
+        for (int i = 0; i < entities; i++)
+        {
+            String name = "Entity" + i;
+
+            Files.write(packageDir.resolve(name + ".class"), entity(PACKAGE.replace('.', '/') + "/" + name, "entity_" + i));
+            entries.setProperty(PACKAGE + "." + name, "Table");
+        }
+
+        if (index)
+        {
+            Path file = Files.createDirectories(classes.resolve("META-INF")).resolve("cassandra4j.index");
+
+            try (OutputStream out = Files.newOutputStream(file))
+            {
+                entries.store(out, null);
+            }
+        }
+
+        Map<String, Object> properties = new HashMap<>();
+
+        properties.put("cassandra.contact-points", "127.0.0.1");
+        properties.put("cassandra.scan-packages", PACKAGE);
+        properties.put("cassandra.scan-index-enabled", String.valueOf(index));
+
+        environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("benchmark", properties));
+    }
+
+    @Setup(Level.Invocation)
+    public void newClassLoader() throws IOException
+    {
+        classLoader = new URLClassLoader(new URL[] {classes.toUri().toURL()}, getClass().getClassLoader());
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeClassLoader() throws IOException
+    {
+        classLoader.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanup() throws IOException
+    {
+        FileSystemUtils.deleteRecursively(classes);
+    }
+
+    @Benchmark
+    public int registerBeans()
+    {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        CassandraAutoConfiguration configuration = new CassandraAutoConfiguration();
+
+        beanFactory.setBeanClassLoader(classLoader);
+        configuration.setEnvironment(environment);
+        configuration.postProcessBeanDefinitionRegistry(beanFactory);
+
+        return beanFactory.getBeanDefinitionCount();
+    }
+
+    private static byte[] entity(String internalName, String table)
+    {
+        ClassWriter cw = new ClassWriter(0);
+
+        cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, internalName, null, "java/lang/Object", null);
+
+        AnnotationVisitor av = cw.visitAnnotation("Lcom/datastax/driver/mapping/annotations/Table;", true);
+        av.visit("keyspace", "cassandra4j_benchmarks");
+        av.visit("name", table);
+        av.visitEnd();
+
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(1, 1);
+        mv.visitEnd();
+
+        cw.visitEnd();
+
+        return cw.toByteArray();
+    }
+}
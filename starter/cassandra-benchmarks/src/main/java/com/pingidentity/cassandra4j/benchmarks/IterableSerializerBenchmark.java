@@ -0,0 +1,101 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pingidentity.cassandra4j.benchmarks.model.Video;
+import com.pingidentity.cassandra4j.springboot.CassandraAutoConfiguration;
+import com.pingidentity.cassandra4j.springboot.CassandraProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON output of large driver results through auto configured {@code iterableSerializer} module.
+ * Results are emulated with plain {@link Iterable} (not a collection), same as driver {@code Result<T>}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx512m")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class IterableSerializerBenchmark
+{
+    @Param({"1000", "100000"})
+    private int rows;
+
+    private ObjectMapper mapper;
+    private List<Video> videos;
+
+    @Setup
+    public void setup()
+    {
+        mapper = new ObjectMapper().registerModule(new CassandraAutoConfiguration().iterableSerializer(new CassandraProperties()));
+        videos = Videos.generate(rows);
+    }
+
+    @Benchmark
+    public long serialize() throws IOException
+    {
+        CountingOutputStream out = new CountingOutputStream();
+        Iterable<Video> result = this::iterator;
+
+        mapper.writeValue(out, result);
+
+        return out.count;
+    }
+
+    private Iterator<Video> iterator()
+    {
+        return videos.iterator();
+    }
+
+    private static class CountingOutputStream extends OutputStream
+    {
+        long count;
+
+        @Override
+        public void write(int b)
+        {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len)
+        {
+            count += len;
+        }
+    }
+}
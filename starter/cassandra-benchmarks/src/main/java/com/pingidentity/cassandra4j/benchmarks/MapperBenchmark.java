@@ -0,0 +1,140 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.benchmarks;
+
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.CodecRegistry;
+import com.datastax.driver.core.ColumnDefinitions;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.extras.codecs.enums.EnumNameCodec;
+import com.datastax.driver.mapping.Mapper;
+import com.datastax.driver.mapping.MappingManager;
+import com.google.common.reflect.TypeToken;
+import com.pingidentity.cassandra4j.benchmarks.model.Video;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapper materialisation of {@link Video} entities versus manual {@link Row} reads.
+ * Rows are fetched once during setup, so only mapping cost is measured.
+ *
+ * Driver mapper needs table metadata, requires running node: -Dcassandra.contact-points=host1,host2 (127.0.0.1 by default).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MapperBenchmark
+{
+    private static final TypeToken<Set<Video.Genre>> GENRES = new TypeToken<Set<Video.Genre>>() {};
+
+    @Param({"100", "5000"})
+    private int rows;
+
+    private Cluster cluster;
+    private Mapper<Video> mapper;
+    private List<Row> fetched;
+    private ColumnDefinitions definitions;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        CodecRegistry codecs = new CodecRegistry().register(new EnumNameCodec<>(Video.Genre.class));
+
+        cluster = Cluster.builder()
+                         .addContactPoints(System.getProperty("cassandra.contact-points", "127.0.0.1").split(","))
+                         .withCodecRegistry(codecs)
+                         .withoutJMXReporting()
+                         .build();
+
+        Session session = cluster.connect();
+
+        session.execute("CREATE KEYSPACE IF NOT EXISTS cassandra4j_benchmarks WITH replication = {'class': 'SimpleStrategy', 'replication_factor': 1}");
+        session.execute("CREATE TABLE IF NOT EXISTS cassandra4j_benchmarks.videos (video_id uuid PRIMARY KEY, title text, description text, release_date timestamp, release_year int, genres set<text>)");
+        session.execute("TRUNCATE cassandra4j_benchmarks.videos");
+
+        mapper = new MappingManager(session).mapper(Video.class);
+
+        for (Video video : Videos.generate(rows))
+        {
+            mapper.save(video);
+        }
+
+        ResultSet rs = session.execute(new SimpleStatement("SELECT * FROM cassandra4j_benchmarks.videos").setFetchSize(rows));
+
+        definitions = rs.getColumnDefinitions();
+        fetched = rs.all();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        cluster.close();
+    }
+
+    @Benchmark
+    public List<Video> mapper()
+    {
+        return mapper.map(new RowsResultSet(fetched, definitions)).all();
+    }
+
+    @Benchmark
+    public List<Video> manual()
+    {
+        List<Video> videos = new ArrayList<>(fetched.size());
+
+        for (Row row : fetched)
+        {
+            Video video = new Video();
+
+            video.setVideoId(row.getUUID("video_id"));
+            video.setTitle(row.getString("title"));
+            video.setDescription(row.getString("description"));
+            video.setDate(row.getTimestamp("release_date"));
+            video.setYear(row.getInt("release_year"));
+            video.setGenres(row.get("genres", GENRES));
+
+            videos.add(video);
+        }
+
+        return videos;
+    }
+}
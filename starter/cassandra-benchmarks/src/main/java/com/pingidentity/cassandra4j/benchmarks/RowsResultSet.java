@@ -0,0 +1,113 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.benchmarks;
+
+import com.datastax.driver.core.ColumnDefinitions;
+import com.datastax.driver.core.ExecutionInfo;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Fully fetched in-memory {@link ResultSet} over previously read rows, lets mapper benchmarks
+ * exclude network round trip. Not thread safe, create one per invocation.
+ */
+class RowsResultSet implements ResultSet
+{
+    private final List<Row> rows;
+    private final ColumnDefinitions definitions;
+
+    RowsResultSet(List<Row> rows, ColumnDefinitions definitions)
+    {
+        this.rows = rows;
+        this.definitions = definitions;
+    }
+
+    @Override
+    public Row one()
+    {
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    @Override
+    public ColumnDefinitions getColumnDefinitions()
+    {
+        return definitions;
+    }
+
+    @Override
+    public boolean wasApplied()
+    {
+        return true;
+    }
+
+    @Override
+    public boolean isExhausted()
+    {
+        return rows.isEmpty();
+    }
+
+    @Override
+    public boolean isFullyFetched()
+    {
+        return true;
+    }
+
+    @Override
+    public int getAvailableWithoutFetching()
+    {
+        return rows.size();
+    }
+
+    @Override
+    public ListenableFuture<ResultSet> fetchMoreResults()
+    {
+        return Futures.<ResultSet>immediateFuture(this);
+    }
+
+    @Override
+    public List<Row> all()
+    {
+        return rows;
+    }
+
+    @Override
+    public Iterator<Row> iterator()
+    {
+        return rows.iterator();
+    }
+
+    @Override
+    public ExecutionInfo getExecutionInfo()
+    {
+        return null;
+    }
+
+    @Override
+    public List<ExecutionInfo> getAllExecutionInfo()
+    {
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,72 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.benchmarks;
+
+import com.datastax.driver.core.AtomicMonotonicTimestampGenerator;
+import com.datastax.driver.core.ServerSideTimestampGenerator;
+import com.datastax.driver.core.ThreadLocalMonotonicTimestampGenerator;
+import com.datastax.driver.core.TimestampGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@code cassandra.timestamp-generator} options under thread contention, override thread count with {@code -t}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TimestampGeneratorBenchmark
+{
+    private final TimestampGenerator atomic = new AtomicMonotonicTimestampGenerator();
+    private final TimestampGenerator threadLocal = new ThreadLocalMonotonicTimestampGenerator();
+    private final TimestampGenerator serverSide = ServerSideTimestampGenerator.INSTANCE;
+
+    @Benchmark
+    public long atomic()
+    {
+        return atomic.next();
+    }
+
+    @Benchmark
+    public long threadLocal()
+    {
+        return threadLocal.next();
+    }
+
+    @Benchmark
+    public long serverSide()
+    {
+        return serverSide.next();
+    }
+}
@@ -0,0 +1,58 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.benchmarks;
+
+import com.pingidentity.cassandra4j.benchmarks.model.Video;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Generates deterministic benchmark data.
+ */
+public class Videos
+{
+    public static List<Video> generate(int count)
+    {
+        Random random = new Random(count);
+        Video.Genre[] genres = Video.Genre.values();
+        List<Video> videos = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++)
+        {
+            Video video = new Video();
+
+            video.setVideoId(new UUID(random.nextLong(), random.nextLong()));
+            video.setTitle("Video " + i);
+            video.setDescription("Description of video number " + i + " used for benchmarking");
+            video.setDate(new Date(946684800000L + random.nextInt(Integer.MAX_VALUE) * 100L));
+            video.setYear(2000 + random.nextInt(20));
+            video.setGenres(EnumSet.of(genres[random.nextInt(genres.length)], genres[random.nextInt(genres.length)]));
+
+            videos.add(video);
+        }
+
+        return videos;
+    }
+}
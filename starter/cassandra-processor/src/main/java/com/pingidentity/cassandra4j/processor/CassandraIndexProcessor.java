@@ -0,0 +1,173 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Writes index of datastax mapper {@code @Table} entities and {@code @Accessor} interfaces to {@link #INDEX_LOCATION},
+ * so auto configuration can register mapper and accessor beans without classpath scanning at startup.
+ *
+ * Index is a properties file: fully qualified class name mapped to annotation simple name.
+ *
+ * Incremental compilation sees only part of the sources, so entries of previously written index are kept
+ * unless their type was compiled again (and is indexed from current round) or doesn't exist anymore.
+ */
+//every round is observed, so index is rewritten when the last annotated type loses annotation
+@SupportedAnnotationTypes("*")
+public class CassandraIndexProcessor extends AbstractProcessor
+{
+    public static final String INDEX_LOCATION = "META-INF/cassandra4j.index";
+
+    static final String TABLE = "com.datastax.driver.mapping.annotations.Table";
+    static final String ACCESSOR = "com.datastax.driver.mapping.annotations.Accessor";
+
+    private final Properties index = new Properties();
+    private final Set<String> processedTypes = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion()
+    {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv)
+    {
+        for (Element element : roundEnv.getRootElements())
+        {
+            if (element instanceof TypeElement)
+            {
+                processedTypes.add(processingEnv.getElementUtils().getBinaryName((TypeElement) element).toString());
+            }
+        }
+
+        for (TypeElement annotation : annotations)
+        {
+            String name = annotation.getQualifiedName().toString();
+
+            if (!TABLE.equals(name) && !ACCESSOR.equals(name))
+            {
+                continue;
+            }
+
+            String kind = annotation.getSimpleName().toString();
+
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation))
+            {
+                if (element.getKind() == ElementKind.CLASS || element.getKind() == ElementKind.INTERFACE)
+                {
+                    index.setProperty(processingEnv.getElementUtils().getBinaryName((TypeElement) element).toString(), kind);
+                }
+            }
+        }
+
+        if (roundEnv.processingOver())
+        {
+            Properties existing = readExisting();
+            Properties merged = merge(existing);
+
+            //stale index must be rewritten even if nothing is left in it
+            if (!merged.isEmpty() || !existing.isEmpty())
+            {
+                write(merged);
+            }
+        }
+
+        return false;
+    }
+
+    private Properties merge(Properties existing)
+    {
+        Properties merged = new Properties();
+
+        for (String type : existing.stringPropertyNames())
+        {
+            if (!processedTypes.contains(topLevel(type)) && processingEnv.getElementUtils().getTypeElement(type.replace('$', '.')) != null)
+            {
+                merged.setProperty(type, existing.getProperty(type));
+            }
+        }
+
+        merged.putAll(index);
+
+        return merged;
+    }
+
+    private Properties readExisting()
+    {
+        Properties existing = new Properties();
+
+        try
+        {
+            FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+
+            try (InputStream in = file.openInputStream())
+            {
+                existing.load(in);
+            }
+        }
+        catch (IOException e)
+        {
+            //no index from previous compilation
+        }
+
+        return existing;
+    }
+
+    private static String topLevel(String binaryName)
+    {
+        int nested = binaryName.indexOf('$');
+
+        return nested > 0 ? binaryName.substring(0, nested) : binaryName;
+    }
+
+    private void write(Properties index)
+    {
+        try
+        {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+
+            try (OutputStream out = file.openOutputStream())
+            {
+                index.store(out, null);
+            }
+        }
+        catch (IOException e)
+        {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write " + INDEX_LOCATION + ": " + e);
+        }
+    }
+}
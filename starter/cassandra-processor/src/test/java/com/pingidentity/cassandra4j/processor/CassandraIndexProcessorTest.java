@@ -0,0 +1,155 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+package com.pingidentity.cassandra4j.processor;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CassandraIndexProcessorTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void indexesTablesAndAccessors() throws IOException
+    {
+        Path out = folder.newFolder("classes").toPath();
+
+        compile(out,
+                source("Video", "@com.datastax.driver.mapping.annotations.Table(name = \"videos\") public class Video { public static class Plain {} }"),
+                source("VideoQueries", "@com.datastax.driver.mapping.annotations.Accessor public interface VideoQueries {}"),
+                source("Plain", "public class Plain {}"));
+
+        Properties index = index(out);
+
+        assertEquals(2, index.size());
+        assertEquals("Table", index.getProperty("test.Video"));
+        assertEquals("Accessor", index.getProperty("test.VideoQueries"));
+    }
+
+    @Test
+    public void keepsEntriesOfTypesNotCompiledAgain() throws IOException
+    {
+        Path out = folder.newFolder("classes").toPath();
+
+        compile(out,
+                source("Video", "@com.datastax.driver.mapping.annotations.Table(name = \"videos\") public class Video {}"),
+                source("User", "@com.datastax.driver.mapping.annotations.Table(name = \"users\") public class User {}"));
+
+        //incremental compilation of single changed source, the other one is found among compiled classes
+        compile(out, source("User", "@com.datastax.driver.mapping.annotations.Table(name = \"users\") public class User { int age; }"));
+
+        Properties index = index(out);
+
+        assertEquals(2, index.size());
+        assertEquals("Table", index.getProperty("test.Video"));
+        assertEquals("Table", index.getProperty("test.User"));
+    }
+
+    @Test
+    public void dropsEntriesOfTypesLosingAnnotation() throws IOException
+    {
+        Path out = folder.newFolder("classes").toPath();
+
+        compile(out, source("Video", "@com.datastax.driver.mapping.annotations.Table(name = \"videos\") public class Video {}"));
+        compile(out, source("Video", "public class Video {}"));
+
+        assertTrue(index(out).isEmpty());
+    }
+
+    @Test
+    public void dropsEntriesOfDeletedTypes() throws IOException
+    {
+        Path out = folder.newFolder("classes").toPath();
+
+        compile(out,
+                source("Video", "@com.datastax.driver.mapping.annotations.Table(name = \"videos\") public class Video {}"),
+                source("User", "@com.datastax.driver.mapping.annotations.Table(name = \"users\") public class User {}"));
+
+        Files.delete(out.resolve("test/Video.class"));
+        compile(out, source("User", "@com.datastax.driver.mapping.annotations.Table(name = \"users\") public class User {}"));
+
+        Properties index = index(out);
+
+        assertEquals(1, index.size());
+        assertFalse(index.containsKey("test.Video"));
+    }
+
+    private File source(String name, String body) throws IOException
+    {
+        Path file = folder.getRoot().toPath().resolve("src/" + System.nanoTime() + "/test/" + name + ".java");
+
+        Files.createDirectories(file.getParent());
+        Files.write(file, ("package test;\n" + body).getBytes(StandardCharsets.UTF_8));
+
+        return file.toFile();
+    }
+
+    private void compile(Path out, File... sources) throws IOException
+    {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+        try (StandardJavaFileManager files = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8))
+        {
+            //previously compiled classes are visible to the compiler, same as with incremental build
+            List<String> options = new ArrayList<>(Arrays.asList("-d", out.toString(),
+                                                                 "-classpath", System.getProperty("java.class.path") + File.pathSeparator + out));
+
+            JavaCompiler.CompilationTask task = compiler.getTask(null, files, null, options, null, files.getJavaFileObjects(sources));
+            task.setProcessors(Arrays.asList(new CassandraIndexProcessor()));
+
+            assertTrue("compilation failed", task.call());
+        }
+    }
+
+    private static Properties index(Path out) throws IOException
+    {
+        Properties index = new Properties();
+        Path file = out.resolve(CassandraIndexProcessor.INDEX_LOCATION);
+
+        if (Files.exists(file))
+        {
+            try (InputStream in = Files.newInputStream(file))
+            {
+                index.load(in);
+            }
+        }
+
+        return index;
+    }
+}
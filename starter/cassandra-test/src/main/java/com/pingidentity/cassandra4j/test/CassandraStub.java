@@ -0,0 +1,320 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.test;
+
+import com.datastax.oss.simulacron.common.cluster.AbstractNode;
+import com.datastax.oss.simulacron.common.cluster.ClusterSpec;
+import com.datastax.oss.simulacron.common.result.Result;
+import com.datastax.oss.simulacron.common.stubbing.PrimeDsl;
+import com.datastax.oss.simulacron.server.BoundCluster;
+import com.datastax.oss.simulacron.server.BoundDataCenter;
+import com.datastax.oss.simulacron.server.BoundNode;
+import com.datastax.oss.simulacron.server.Inet4Resolver;
+import com.datastax.oss.simulacron.server.Server;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * In-JVM CQL native protocol stub (backed by simulacron) for offline policy and throughput tests.
+ * Simulates multi-node/multi-DC cluster answering primed queries, with per-node latency and error injection.
+ *
+ * Every node listens on its own loopback address (127.0.1.1, 127.0.1.2, ...) and same port, because driver connects
+ * to all peers using single cluster wide port. Linux routes whole 127.0.0.0/8, on macOS addresses must be aliased first.
+ *
+ * Latency and errors are injected for requests primed via {@link #prime(PrimeDsl.PrimeBuilder)} only, system
+ * queries issued by driver on connect are always answered immediately.
+ */
+public class CassandraStub implements AutoCloseable
+{
+    private static final Logger log = LoggerFactory.getLogger(CassandraStub.class);
+
+    private final Server server;
+    private final HashedWheelTimer timer;
+    private final BoundCluster cluster;
+    private final int port;
+    private final Random random;
+
+    private final Map<AbstractNode, Behaviour> behaviours = new ConcurrentHashMap<>();
+    private volatile Behaviour defaults;
+
+    private CassandraStub(Builder builder)
+    {
+        this.port = builder.port;
+        this.random = new Random(builder.seed);
+        this.defaults = new Behaviour(builder.latency, 0, null, random);
+
+        //default wheel ticks every 100ms, too coarse for latency injection
+        this.timer = new HashedWheelTimer(new DefaultThreadFactory("cassandra-stub-timer"), 1, TimeUnit.MILLISECONDS);
+
+        this.server = Server.builder()
+                            .withTimer(timer)
+                            .withAddressResolver(new Inet4Resolver(address(builder.address), builder.port))
+                            .build();
+
+        this.cluster = server.register(ClusterSpec.builder()
+                                                  .withName("cassandra-stub")
+                                                  .withNodes(builder.nodes));
+
+        log.info("Cassandra stub started: {}", cluster.getDataCenters().stream()
+                                                      .map(dc -> dc.getName() + "=" + dc.getNodes().stream().map(n -> n.inetSocketAddress().toString()).collect(Collectors.toList()))
+                                                      .collect(Collectors.joining(", ")));
+    }
+
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+    /**
+     * Primes query response on all nodes, e.g.
+     * <pre>
+     *     stub.prime(when("SELECT * FROM videos").then(rows().row("video_id", id).columnTypes("video_id", "uuid")));
+     * </pre>
+     */
+    public CassandraStub prime(PrimeDsl.PrimeBuilder prime)
+    {
+        cluster.getStubStore().register(new PrimedRequest(prime.build(), this));
+
+        return this;
+    }
+
+    /**
+     * Latency of every node without own distribution
+     */
+    public CassandraStub latency(LatencyDistribution latency)
+    {
+        defaults = defaults.withLatency(latency);
+
+        return this;
+    }
+
+    public CassandraStub latency(int dc, int node, LatencyDistribution latency)
+    {
+        behaviours.compute(node(dc, node), (key, current) -> (current != null ? current : defaults).withLatency(latency));
+
+        return this;
+    }
+
+    /**
+     * Fails given fraction of primed requests on every node without own error injection.
+     *
+     * @param rate  from 0 to 1
+     * @param error response to fail with, e.g. {@code PrimeDsl.readTimeout(..)}, {@code PrimeDsl.overloaded(..)}
+     */
+    public CassandraStub errors(double rate, Result error)
+    {
+        defaults = defaults.withErrors(rate, error);
+
+        return this;
+    }
+
+    public CassandraStub errors(int dc, int node, double rate, Result error)
+    {
+        behaviours.compute(node(dc, node), (key, current) -> (current != null ? current : defaults).withErrors(rate, error));
+
+        return this;
+    }
+
+    /**
+     * Removes primes, per-node latency and error injection, query logs.
+     */
+    public CassandraStub reset()
+    {
+        behaviours.clear();
+        defaults = new Behaviour(LatencyDistribution.none(), 0, null, random);
+        cluster.clearPrimes(true);
+        cluster.clearLogs();
+
+        return this;
+    }
+
+    /**
+     * @return node to stop/start, pause reads or inspect query log of
+     */
+    public BoundNode node(int dc, int node)
+    {
+        return cluster.node(dc, node);
+    }
+
+    /**
+     * @return underlying simulacron cluster for advanced scenarios
+     */
+    public BoundCluster cluster()
+    {
+        return cluster;
+    }
+
+    public String dataCenter(int dc)
+    {
+        return cluster.dc(dc).getName();
+    }
+
+    /**
+     * @return addresses of first data center nodes, so driver picks it as local
+     */
+    public List<String> contactPoints()
+    {
+        BoundDataCenter local = cluster.dc(0);
+
+        return local.getNodes().stream()
+                    .map(node -> node.inet().getHostAddress())
+                    .collect(Collectors.toList());
+    }
+
+    public int port()
+    {
+        return port;
+    }
+
+    Behaviour behaviour(AbstractNode node)
+    {
+        return behaviours.getOrDefault(node, defaults);
+    }
+
+    @Override
+    public void close()
+    {
+        try
+        {
+            server.close();
+        }
+        finally
+        {
+            timer.stop();
+        }
+    }
+
+    private static byte[] address(String address)
+    {
+        try
+        {
+            return InetAddress.getByName(address).getAddress();
+        }
+        catch (UnknownHostException e)
+        {
+            throw new IllegalArgumentException("Invalid stub address " + address, e);
+        }
+    }
+
+    static class Behaviour
+    {
+        private final LatencyDistribution latency;
+        private final double errorRate;
+        private final Result error;
+        private final Random random;
+
+        Behaviour(LatencyDistribution latency, double errorRate, Result error, Random random)
+        {
+            this.latency = latency;
+            this.errorRate = errorRate;
+            this.error = error;
+            this.random = random;
+        }
+
+        LatencyDistribution latency()
+        {
+            return latency;
+        }
+
+        Result error()
+        {
+            return error;
+        }
+
+        boolean injectError()
+        {
+            return error != null && random.nextDouble() < errorRate;
+        }
+
+        Behaviour withLatency(LatencyDistribution latency)
+        {
+            return new Behaviour(latency, errorRate, error, random);
+        }
+
+        Behaviour withErrors(double errorRate, Result error)
+        {
+            return new Behaviour(latency, errorRate, error, random);
+        }
+    }
+
+    public static class Builder
+    {
+        private int[] nodes = {1};
+        private int port = 9042;
+        private String address = "127.0.1.1";
+        private long seed = LatencyDistribution.DEFAULT_SEED;
+        private LatencyDistribution latency = LatencyDistribution.none();
+
+        /**
+         * @param perDc number of nodes in each data center, e.g. (3, 3) for two DCs with 3 nodes each
+         */
+        public Builder nodes(int... perDc)
+        {
+            this.nodes = perDc;
+            return this;
+        }
+
+        public Builder port(int port)
+        {
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * @param address first node address, following nodes take next addresses
+         */
+        public Builder address(String address)
+        {
+            this.address = address;
+            return this;
+        }
+
+        /**
+         * @param seed seed of error injection randomness
+         */
+        public Builder seed(long seed)
+        {
+            this.seed = seed;
+            return this;
+        }
+
+        public Builder latency(LatencyDistribution latency)
+        {
+            this.latency = latency;
+            return this;
+        }
+
+        public CassandraStub start()
+        {
+            return new CassandraStub(this);
+        }
+    }
+}
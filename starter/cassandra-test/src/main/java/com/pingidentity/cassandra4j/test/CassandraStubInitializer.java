@@ -0,0 +1,109 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.test;
+
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.DefaultSingletonBeanRegistry;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Starts {@link CassandraStub} before context refresh when {@code cassandra.stub.enabled=true} and overrides
+ * {@code cassandra.contact-points} and {@code cassandra.port}, so auto configured cluster connects to the stub.
+ * Stub is registered as {@code cassandraStub} bean for tests to prime queries, closed together with context.
+ *
+ * Child contexts (e.g. application context under Spring Cloud bootstrap context) reuse stub of the parent instead of starting own.
+ */
+public class CassandraStubInitializer implements ApplicationContextInitializer<ConfigurableApplicationContext>, Ordered
+{
+    public static final String CASSANDRA_STUB_BEAN = "cassandraStub";
+
+    @Override
+    public void initialize(ConfigurableApplicationContext context)
+    {
+        ConfigurableEnvironment env = context.getEnvironment();
+
+        CassandraStubProperties props = Binder.get(env)
+                                              .bind("cassandra.stub", CassandraStubProperties.class)
+                                              .orElse(null);
+
+        if (props == null || !props.isEnabled())
+        {
+            return;
+        }
+
+        ApplicationContext parent = context.getParent();
+
+        if (parent != null && parent.containsBean(CASSANDRA_STUB_BEAN))
+        {
+            pointTo(parent.getBean(CASSANDRA_STUB_BEAN, CassandraStub.class), env);
+            return;
+        }
+
+        LatencyDistribution latency = props.getMaxLatencyMs() > 0
+                ? LatencyDistribution.uniform(props.getMinLatencyMs(), props.getMaxLatencyMs(), props.getSeed())
+                : LatencyDistribution.fixed(props.getMinLatencyMs());
+
+        CassandraStub stub = CassandraStub.builder()
+                                          .nodes(props.getNodes())
+                                          .port(props.getPort())
+                                          .address(props.getAddress())
+                                          .seed(props.getSeed())
+                                          .latency(latency)
+                                          .start();
+
+        pointTo(stub, env);
+
+        ConfigurableListableBeanFactory beanFactory = context.getBeanFactory();
+
+        beanFactory.registerSingleton(CASSANDRA_STUB_BEAN, stub);
+
+        //manually registered singletons are not destroyed on their own, also covers failed refresh
+        if (beanFactory instanceof DefaultSingletonBeanRegistry)
+        {
+            ((DefaultSingletonBeanRegistry) beanFactory).registerDisposableBean(CASSANDRA_STUB_BEAN, stub::close);
+        }
+    }
+
+    @Override
+    public int getOrder()
+    {
+        //after parent context is assigned by other initializers
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    private void pointTo(CassandraStub stub, ConfigurableEnvironment env)
+    {
+        Map<String, Object> overrides = new HashMap<>();
+
+        overrides.put("cassandra.contact-points", String.join(",", stub.contactPoints()));
+        overrides.put("cassandra.port", stub.port());
+
+        env.getPropertySources().addFirst(new MapPropertySource("cassandraStub", overrides));
+    }
+}
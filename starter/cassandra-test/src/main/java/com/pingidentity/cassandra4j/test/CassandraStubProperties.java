@@ -0,0 +1,131 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.test;
+
+/**
+ * {@code cassandra.stub.*} properties of auto started stub, see {@link CassandraStubInitializer}.
+ */
+public class CassandraStubProperties
+{
+    /**
+     * Start stub and point {@code cassandra.contact-points} to it
+     */
+    private boolean enabled;
+
+    /**
+     * Number of nodes per data center, e.g. 3,3
+     */
+    private int[] nodes = {1};
+
+    /**
+     * Port all stub nodes listen on
+     */
+    private int port = 9042;
+
+    /**
+     * Address of the first node, following nodes take next addresses
+     */
+    private String address = "127.0.1.1";
+
+    /**
+     * Min response latency of primed queries
+     */
+    private long minLatencyMs;
+
+    /**
+     * Max response latency of primed queries
+     */
+    private long maxLatencyMs;
+
+    /**
+     * Seed of injected latency and errors
+     */
+    private long seed = LatencyDistribution.DEFAULT_SEED;
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    public int[] getNodes()
+    {
+        return nodes;
+    }
+
+    public void setNodes(int[] nodes)
+    {
+        this.nodes = nodes;
+    }
+
+    public int getPort()
+    {
+        return port;
+    }
+
+    public void setPort(int port)
+    {
+        this.port = port;
+    }
+
+    public String getAddress()
+    {
+        return address;
+    }
+
+    public void setAddress(String address)
+    {
+        this.address = address;
+    }
+
+    public long getMinLatencyMs()
+    {
+        return minLatencyMs;
+    }
+
+    public void setMinLatencyMs(long minLatencyMs)
+    {
+        this.minLatencyMs = minLatencyMs;
+    }
+
+    public long getMaxLatencyMs()
+    {
+        return maxLatencyMs;
+    }
+
+    public void setMaxLatencyMs(long maxLatencyMs)
+    {
+        this.maxLatencyMs = maxLatencyMs;
+    }
+
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    public void setSeed(long seed)
+    {
+        this.seed = seed;
+    }
+}
@@ -0,0 +1,88 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.test;
+
+import java.util.Random;
+
+/**
+ * Source of response delays injected by {@link CassandraStub}. Random based distributions are seeded,
+ * so same test run produces same sequence of delays.
+ */
+@FunctionalInterface
+public interface LatencyDistribution
+{
+    long DEFAULT_SEED = 0x5EEDL;
+
+    /**
+     * @return next delay in milliseconds, never negative
+     */
+    long nextMs();
+
+    static LatencyDistribution none()
+    {
+        return () -> 0;
+    }
+
+    static LatencyDistribution fixed(long ms)
+    {
+        return () -> ms;
+    }
+
+    static LatencyDistribution uniform(long minMs, long maxMs)
+    {
+        return uniform(minMs, maxMs, DEFAULT_SEED);
+    }
+
+    static LatencyDistribution uniform(long minMs, long maxMs, long seed)
+    {
+        Random random = new Random(seed);
+
+        return () -> minMs + (long) (random.nextDouble() * (maxMs - minMs + 1));
+    }
+
+    static LatencyDistribution normal(double meanMs, double stdDevMs)
+    {
+        return normal(meanMs, stdDevMs, DEFAULT_SEED);
+    }
+
+    static LatencyDistribution normal(double meanMs, double stdDevMs, long seed)
+    {
+        Random random = new Random(seed);
+
+        return () -> Math.max(0, Math.round(meanMs + random.nextGaussian() * stdDevMs));
+    }
+
+    /**
+     * Base distribution with occasional outliers, e.g. to exercise speculative executions or latency aware policy.
+     *
+     * @param probability chance of each response to be delayed by spikeMs instead of base delay
+     */
+    static LatencyDistribution spikes(LatencyDistribution base, long spikeMs, double probability)
+    {
+        return spikes(base, spikeMs, probability, DEFAULT_SEED);
+    }
+
+    static LatencyDistribution spikes(LatencyDistribution base, long spikeMs, double probability, long seed)
+    {
+        Random random = new Random(seed);
+
+        return () -> random.nextDouble() < probability ? spikeMs : base.nextMs();
+    }
+}
@@ -0,0 +1,83 @@
+/***************************************************************************
+ * Copyright (C) 2005-2019 Ping Identity Corporation
+ * All rights reserved.
+ *
+ * The contents of this file are the property of Ping Identity Corporation.
+ * You may not copy or use this file, in either source code or executable
+ * form, except in compliance with terms set by Ping Identity Corporation.
+ * For further information please contact:
+ *
+ *      Ping Identity Corporation
+ *      1001 17th Street
+ *      Suite 100
+ *      Denver, CO 80202
+ *      303.468.2900
+ *      http://www.pingidentity.com
+ *
+ **************************************************************************/
+
+
+package com.pingidentity.cassandra4j.test;
+
+import com.datastax.oss.protocol.internal.Frame;
+import com.datastax.oss.protocol.internal.request.Prepare;
+import com.datastax.oss.simulacron.common.cluster.AbstractNode;
+import com.datastax.oss.simulacron.common.stubbing.Action;
+import com.datastax.oss.simulacron.common.stubbing.MessageResponseAction;
+import com.datastax.oss.simulacron.common.stubbing.Prime;
+import com.datastax.oss.simulacron.common.stubbing.StubMapping;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Primed request decorated with latency and error injection of the node serving it.
+ */
+class PrimedRequest extends StubMapping
+{
+    private final Prime prime;
+    private final CassandraStub stub;
+
+    PrimedRequest(Prime prime, CassandraStub stub)
+    {
+        this.prime = prime;
+        this.stub = stub;
+    }
+
+    @Override
+    public boolean matches(AbstractNode node, Frame frame)
+    {
+        return prime.matches(node, frame);
+    }
+
+    @Override
+    public boolean matches(Frame frame)
+    {
+        return prime.matches(frame);
+    }
+
+    @Override
+    public List<Action> getActions(AbstractNode node, Frame frame)
+    {
+        CassandraStub.Behaviour behaviour = stub.behaviour(node);
+
+        //never fail prepare, otherwise driver gives up before reaching policies under test
+        List<Action> actions = !(frame.message instanceof Prepare) && behaviour.injectError()
+                ? behaviour.error().toActions(node, frame)
+                : prime.getActions(node, frame);
+
+        long delay = behaviour.latency().nextMs();
+
+        if (delay <= 0 || actions.isEmpty() || !(actions.get(0) instanceof MessageResponseAction))
+        {
+            return actions;
+        }
+
+        MessageResponseAction response = (MessageResponseAction) actions.get(0);
+        List<Action> delayed = new ArrayList<>(actions);
+
+        delayed.set(0, new MessageResponseAction(response.getMessage(), response.delayInMs() + delay));
+
+        return delayed;
+    }
+}